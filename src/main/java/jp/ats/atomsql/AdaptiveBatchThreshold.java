@@ -0,0 +1,115 @@
+package jp.ats.atomsql;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Endpoint}、SQL文ごとのバッチ更新の一括実行時間を計測し、目標時間に収まる閾値を算出する内部使用クラスです。<br>
+ * 一行あたりの実行時間を指数移動平均で保持し、目標時間をその値で割ったものを次の閾値とします。<br>
+ * 急激な変動を避けるため、一度の調整での変化は前回の閾値の半分から倍までに制限されます。<br>
+ * バイト数の上限が指定された場合、一行あたりのバインドした値のおおよそのバイト数も指数移動平均で保持し、一括実行のバイト数が上限に収まるように閾値を制限します。
+ * @author 千葉 哲嗣
+ */
+class AdaptiveBatchThreshold {
+
+	/**
+	 * 指数移動平均の重み
+	 */
+	private static final double alpha = 0.3;
+
+	private final long targetNanos;
+
+	private final int min;
+
+	private final int max;
+
+	/**
+	 * 0以下の場合、バイト数による制限を行わない
+	 */
+	private final long maxBytes;
+
+	private double nanosPerRow;
+
+	private double bytesPerRow;
+
+	private int threshold;
+
+	/**
+	 * @param targetMillis 目標時間（ミリ秒）
+	 * @param min 閾値の下限
+	 * @param max 閾値の上限
+	 * @param maxBytes 一括実行でバインドする値のおおよそのバイト数の上限
+	 */
+	AdaptiveBatchThreshold(long targetMillis, int min, int max, long maxBytes) {
+		targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+		this.min = Math.max(1, min);
+		this.max = Math.max(this.min, max);
+		this.maxBytes = maxBytes;
+		threshold = this.min;
+	}
+
+	/**
+	 * @return 現在の閾値
+	 */
+	synchronized int threshold() {
+		return threshold;
+	}
+
+	/**
+	 * @return バイト数による制限を行う場合、true
+	 */
+	boolean limitsBytes() {
+		return maxBytes > 0;
+	}
+
+	/**
+	 * 一括実行の結果を反映し、次の閾値を算出します。
+	 * @param rows 実行した行数
+	 * @param bytes バインドした値のおおよそのバイト数、バイト数による制限を行わない場合は使用しない
+	 * @param elapsedNanos 実行時間
+	 * @return 次の閾値
+	 */
+	synchronized int record(int rows, long bytes, long elapsedNanos) {
+		if (rows == 0) return threshold;
+
+		var currentNanos = (double) elapsedNanos / rows;
+		var currentBytes = (double) bytes / rows;
+
+		if (nanosPerRow == 0) {
+			nanosPerRow = currentNanos;
+			bytesPerRow = currentBytes;
+		} else {
+			nanosPerRow = alpha * currentNanos + (1 - alpha) * nanosPerRow;
+			bytesPerRow = alpha * currentBytes + (1 - alpha) * bytesPerRow;
+		}
+
+		var next = nanosPerRow == 0 ? max : (long) (targetNanos / nanosPerRow);
+
+		//急激な変動を抑える
+		next = Math.min(next, (long) threshold * 2);
+		next = Math.max(next, threshold / 2);
+
+		//バイト数の上限は変動の抑制より優先する
+		if (limitsBytes() && bytesPerRow > 0) next = Math.min(next, (long) (maxBytes / bytesPerRow));
+
+		threshold = (int) Math.max(min, Math.min(max, next));
+
+		return threshold;
+	}
+
+	/**
+	 * バインドする値のおおよそのバイト数を返します。
+	 * @param value 値
+	 * @return おおよそのバイト数
+	 */
+	static long estimateBytes(Object value) {
+		if (value == null) return 0;
+
+		if (value instanceof CharSequence c) return c.length() * 2L;
+
+		if (value instanceof byte[] b) return b.length;
+
+		if (value instanceof Csv<?> c) return c.values().stream().mapToLong(AdaptiveBatchThreshold::estimateBytes).sum();
+
+		return 8;
+	}
+}
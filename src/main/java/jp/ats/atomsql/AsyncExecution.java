@@ -0,0 +1,133 @@
+package jp.ats.atomsql;
+
+import java.lang.System.Logger.Level;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * {@link Atom#listAsync()}等の非同期実行を行う内部使用クラスです。<br>
+ * 返却される{@link CompletableFuture}は、{@link CompletableFuture#cancel(boolean)}により実行中の{@link Statement}を{@link Statement#cancel()}で中断します。
+ * @author 千葉 哲嗣
+ */
+final class AsyncExecution {
+
+	/**
+	 * 実行中のタスク<br>
+	 * タスクは実行スレッド内で完結するので、子タスクには引き継がない
+	 */
+	private static final Scope<Task<?>> running = new Scope<>(false);
+
+	/**
+	 * {@link Configure#asyncExecutorClass()}ごとに共有する
+	 */
+	private static final Map<String, Executor> executors = new ConcurrentHashMap<>();
+
+	private AsyncExecution() {}
+
+	/**
+	 * {@link Configure#asyncExecutorClass()}に対応する{@link Executor}を返す
+	 * @param className {@link Executor}の実装クラス名 nullもしくは空の場合、デフォルト
+	 * @return {@link Executor}
+	 */
+	static Executor executor(String className) {
+		var key = className == null ? "" : className.strip();
+		return executors.computeIfAbsent(key, k -> k.isEmpty() ? defaultExecutor() : newExecutor(k));
+	}
+
+	private static Executor newExecutor(String className) {
+		try {
+			return (Executor) Class.forName(
+				className,
+				true,
+				Thread.currentThread().getContextClassLoader()).getConstructor().newInstance();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * 仮想スレッドが使用可能な実行環境では仮想スレッドを使用する
+	 */
+	private static Executor defaultExecutor() {
+		try {
+			return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool(AtomSql.daemonThreadFactory("atom-sql-async"));
+		}
+	}
+
+	/**
+	 * supplierをexecutorで実行する
+	 * @param executor {@link Executor}
+	 * @param supplier 処理
+	 * @return 処理結果
+	 */
+	static <R> CompletableFuture<R> supply(Executor executor, Supplier<R> supplier) {
+		var task = new Task<R>();
+		executor.execute(() -> {
+			//開始前に中断された場合
+			if (task.isDone()) return;
+
+			running.run(task, () -> {
+				try {
+					task.complete(supplier.get());
+				} catch (Throwable t) {
+					task.completeExceptionally(t);
+				} finally {
+					task.statement(null);
+				}
+			});
+		});
+
+		return task;
+	}
+
+	/**
+	 * 実行スレッドで{@link Statement}が生成された場合、中断対象として登録する
+	 * @param statement 実行する{@link Statement}
+	 */
+	static void prepared(Statement statement) {
+		var task = running.get();
+		if (task != null) task.statement(statement);
+	}
+
+	private static class Task<R> extends CompletableFuture<R> {
+
+		private Statement statement;
+
+		private synchronized void statement(Statement statement) {
+			//実行前に中断されていた場合、JDBCドライバによっては実行前のcancelが無視されるので、実行させない
+			if (statement != null && isCancelled()) throw new CancellationException();
+
+			this.statement = statement;
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			var cancelled = super.cancel(mayInterruptIfRunning);
+			if (cancelled) {
+				synchronized (this) {
+					if (statement != null) cancelStatement();
+				}
+			}
+
+			return cancelled;
+		}
+
+		private void cancelStatement() {
+			try {
+				statement.cancel();
+			} catch (SQLException e) {
+				//中断できなくても、結果は既に取り消されている
+				AtomSql.logger.log(Level.WARNING, "Failed to cancel statement", e);
+			}
+		}
+	}
+}
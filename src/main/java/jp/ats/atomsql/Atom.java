@@ -8,13 +8,17 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 import jp.ats.atomsql.AtomSql.SqlProxyHelper;
+import jp.ats.atomsql.StatementDescriptor.Kind;
 import jp.ats.atomsql.annotation.DataObject;
 import jp.ats.atomsql.annotation.SqlProxy;
 
@@ -156,10 +160,14 @@ public class Atom<T> {
 		return (r, n) -> (T) helper().createDataObject(r);
 	}
 
-	private SqlProxyHelper helper() {
+	SqlProxyHelper helper() {
 		return helperSupplier.get();
 	}
 
+	AtomSql atomSql() {
+		return atomSql;
+	}
+
 	private static Atom<?> newInstance(String sql) {
 		var atomSql = new AtomSql();
 		return new Atom<>(atomSql, atomSql.helper(sql), true);
@@ -184,6 +192,15 @@ public class Atom<T> {
 				throw new IllegalAtomException();
 			}
 
+			@Override
+			public <K> int[] batchUpdate(
+				String sql,
+				BatchPreparedStatementSetter bpss,
+				RowMapper<K> generatedKeyMapper,
+				Consumer<K> generatedKeyConsumer) {
+				throw new IllegalAtomException();
+			}
+
 			@Override
 			public <T> Stream<T> queryForStream(String sql, PreparedStatementSetter pss, RowMapper<T> rowMapper) {
 				throw new IllegalAtomException();
@@ -194,6 +211,15 @@ public class Atom<T> {
 				throw new IllegalAtomException();
 			}
 
+			@Override
+			public <K> int update(
+				String sql,
+				PreparedStatementSetter pss,
+				RowMapper<K> generatedKeyMapper,
+				Consumer<K> generatedKeyConsumer) {
+				throw new IllegalAtomException();
+			}
+
 			@Override
 			public void logSql(Logger logger, String originalSql, String sql, PreparedStatement ps) {
 				throw new IllegalAtomException();
@@ -220,10 +246,12 @@ public class Atom<T> {
 	/**
 	 * 検索結果を{@link List}として返します。<br>
 	 * 内部的に{@link ResultSet}から全件結果取得してから{@link List}として返却しています。<br>
+	 * {@link AtomSql#tryMemoize(Runnable)}の処理範囲内では、同一の検索の結果が再利用されます。<br>
+	 * {@link jp.ats.atomsql.annotation.Coalesced}が付与されたメソッドから生成された場合、同時に実行された同一の検索はひとつにまとめられます。
 	 * @return {@DataObject}付与結果オブジェクトの{@link List}
 	 */
 	public List<T> list() {
-		return listAndClose(streamInternal(dataObjectCreator()));
+		return atomSql.memoized(helper(), () -> atomSql.coalesced(helper(), () -> listAndClose(streamInternal(dataObjectCreator()))));
 	}
 
 	/**
@@ -317,14 +345,7 @@ public class Atom<T> {
 	private <R> Stream<R> streamInternal(RowMapper<R> mapper) {
 		Objects.requireNonNull(mapper);
 
-		var helper = helper();
-
-		var startNanos = System.nanoTime();
-		try {
-			return helper.entry.endpoint().queryForStream(helper.sql.string(), helper, mapper);
-		} finally {
-			helper.logElapsed(startNanos);
-		}
+		return helper().executeQuery(mapper);
 	}
 
 	/**
@@ -404,15 +425,10 @@ public class Atom<T> {
 
 		var resources = atomSql.batchResources();
 		if (resources == null) {//バッチ実行中ではない
-			var startNanos = System.nanoTime();
-			try {
-				return helper.entry.endpoint().update(helper.sql.string(), helper);
-			} finally {
-				helper.logElapsed(startNanos);
-			}
+			return (int) executeUpdate(helper, () -> helper.invoke(Kind.UPDATE, (e, s) -> e.update(s, helper)));
 		}
 
-		resources.put(helper.entry.name(), helper, null, AtomSqlUtils.stackTrace());
+		resources.put(helper.entry.name(), helper, null, helper.stackTrace());
 
 		return 0;
 	}
@@ -430,17 +446,242 @@ public class Atom<T> {
 
 		var resources = atomSql.batchResources();
 		if (resources == null) {//バッチ実行中ではない
-			var startNanos = System.nanoTime();
-			try {
-				resultConsumer.accept(helper.entry.endpoint().update(helper.sql.string(), helper));
+			resultConsumer.accept((int) executeUpdate(helper, () -> helper.invoke(Kind.UPDATE, (e, s) -> e.update(s, helper))));
 
-				return;
-			} finally {
-				helper.logElapsed(startNanos);
-			}
+			return;
+		}
+
+		resources.put(helper.entry.name(), helper, Objects.requireNonNull(resultConsumer), helper.stackTrace());
+	}
+
+	/**
+	 * 更新処理（INSERT等）のDML文を実行し、自動生成されたキーを取得します。<br>
+	 * 自動生成されたキーは一行ずつgeneratedKeyMapperで変換され、generatedKeyConsumerに通知されます。<br>
+	 * バッチ更新の場合、自動生成されたキーは実行順に各更新処理へ対応付けられ、それぞれのgeneratedKeyConsumerに一件ずつ通知されます。<br>
+	 * JDBCドライバが返すキーの件数が更新処理の件数に満たない場合、対応するキーの無い更新処理のgeneratedKeyConsumerは呼ばれません。<br>
+	 * バッチ更新の場合、このメソッドで追加されたSQL文は複数行INSERTへの書き換えの対象外となります。
+	 * @see AtomSql#tryBatch(Runnable)
+	 * @see AtomSql#tryBatch(Supplier)
+	 * @see Configure#rewritesBatchedInserts()
+	 * @param <K> 変換後のキーの型
+	 * @param generatedKeyMapper 自動生成されたキーの{@link SimpleRowMapper}
+	 * @param generatedKeyConsumer 変換後のキーの通知先
+	 */
+	public <K> void update(SimpleRowMapper<K> generatedKeyMapper, Consumer<K> generatedKeyConsumer) {
+		Objects.requireNonNull(generatedKeyMapper);
+		Objects.requireNonNull(generatedKeyConsumer);
+
+		var helper = helper();
+
+		var resources = atomSql.batchResources();
+		if (resources == null) {//バッチ実行中ではない
+			executeUpdate(
+				helper,
+				() -> helper.invoke(
+					Kind.UPDATE,
+					(e, s) -> e.update(
+						s,
+						helper,
+						(r, n) -> generatedKeyMapper.mapRow(r),
+						generatedKeyConsumer)));
+
+			return;
 		}
 
-		resources.put(helper.entry.name(), helper, Objects.requireNonNull(resultConsumer), AtomSqlUtils.stackTrace());
+		resources.put(helper.entry.name(), helper, generatedKeyMapper, generatedKeyConsumer, helper.stackTrace());
+	}
+
+	/**
+	 * 更新処理（INSERT, UPDATE, DELETE）のDML文、DDL文を実行し、結果件数を{@code long}で返します。<br>
+	 * intの範囲を超える件数を更新する可能性がある場合に使用します。<br>
+	 * DDL、バッチ実行の場合、結果は常に0となります。
+	 * @see Endpoint#largeUpdate(String, PreparedStatementSetter)
+	 * @return 更新処理の場合、その結果件数
+	 */
+	public long largeUpdate() {
+		var helper = helper();
+
+		var resources = atomSql.batchResources();
+		if (resources == null) {//バッチ実行中ではない
+			return executeUpdate(helper, () -> helper.invoke(Kind.UPDATE, (e, s) -> e.largeUpdate(s, helper)));
+		}
+
+		resources.putLarge(helper.entry.name(), helper, null, helper.stackTrace());
+
+		return 0;
+	}
+
+	/**
+	 * 更新処理（INSERT, UPDATE, DELETE）のDML文、DDL文を実行し、結果件数を{@code long}で通知します。<br>
+	 * バッチ更新であっても処理結果件数はresultListenerに通知されます。<br>
+	 * バッチ更新の場合、resultListener内で例外を投げると、未実行のバッチ更新が失われるため、途中から更新を再開することは出来ません。
+	 * @see #update(Consumer)
+	 * @see Endpoint#largeBatchUpdate(String, BatchPreparedStatementSetter)
+	 * @param resultConsumer 
+	 */
+	public void largeUpdate(Consumer<Long> resultConsumer) {
+		var helper = helper();
+
+		var resources = atomSql.batchResources();
+		if (resources == null) {//バッチ実行中ではない
+			resultConsumer.accept(executeUpdate(helper, () -> helper.invoke(Kind.UPDATE, (e, s) -> e.largeUpdate(s, helper))));
+
+			return;
+		}
+
+		resources.putLarge(helper.entry.name(), helper, Objects.requireNonNull(resultConsumer), helper.stackTrace());
+	}
+
+	/**
+	 * {@link #list()}を非同期に実行します。<br>
+	 * 実行には{@link Configure#asyncExecutorClass()}の{@link java.util.concurrent.Executor}が使用されます。<br>
+	 * 実行は呼び出し元の処理範囲（{@link AtomSql#tryBatch(Runnable)}、{@link AtomSql#bollowConnection(Consumer)}等）を引き継ぎません。<br>
+	 * 返却された{@link CompletableFuture}を{@link CompletableFuture#cancel(boolean)}した場合、実行中のSQL文は{@link java.sql.Statement#cancel()}により中断されます。
+	 * @return {@DataObject}付与結果オブジェクトの{@link List}
+	 * @throws NonThreadSafeException {@link jp.ats.atomsql.annotation.NonThreadSafe}な値を使用している場合
+	 */
+	public CompletableFuture<List<T>> listAsync() {
+		return async(this::list);
+	}
+
+	/**
+	 * {@link #get()}を非同期に実行します。
+	 * @see #listAsync()
+	 * @return {@link DataObject}付与型の結果オブジェクト
+	 * @throws NonThreadSafeException {@link jp.ats.atomsql.annotation.NonThreadSafe}な値を使用している場合
+	 */
+	public CompletableFuture<Optional<T>> getAsync() {
+		return async(this::get);
+	}
+
+	/**
+	 * 検索結果の{@link Stream}を使用した処理を非同期に実行します。<br>
+	 * {@link Stream}は処理の終了と同時にクローズされます。
+	 * @see #listAsync()
+	 * @param <R> 処理結果の型
+	 * @param function {@DataObject}付与結果オブジェクトの{@link Stream}を使用する処理
+	 * @return 処理結果
+	 * @throws NonThreadSafeException {@link jp.ats.atomsql.annotation.NonThreadSafe}な値を使用している場合
+	 */
+	public <R> CompletableFuture<R> streamAsync(Function<Stream<T>, R> function) {
+		Objects.requireNonNull(function);
+
+		return async(() -> {
+			try (var stream = streamInternal(dataObjectCreator())) {
+				return function.apply(stream);
+			}
+		});
+	}
+
+	/**
+	 * {@link #update()}を非同期に実行します。<br>
+	 * 実行は呼び出し元の{@link AtomSql#tryBatch(Runnable)}の処理範囲を引き継がないため、常に即時実行されます。
+	 * @see #listAsync()
+	 * @return 更新処理の場合、その結果件数
+	 * @throws NonThreadSafeException {@link jp.ats.atomsql.annotation.NonThreadSafe}な値を使用している場合
+	 */
+	public CompletableFuture<Integer> updateAsync() {
+		return async(this::update);
+	}
+
+	/**
+	 * {@link #largeUpdate()}を非同期に実行します。
+	 * @see #updateAsync()
+	 * @return 更新処理の場合、その結果件数
+	 * @throws NonThreadSafeException {@link jp.ats.atomsql.annotation.NonThreadSafe}な値を使用している場合
+	 */
+	public CompletableFuture<Long> largeUpdateAsync() {
+		return async(this::largeUpdate);
+	}
+
+	/**
+	 * 検索結果の全行に対して、{@link Stream}を介さずにconsumerを呼び出します。<br>
+	 * {@link ResultSet}を直接走査するため、{@link #stream()}よりも生成されるオブジェクトが少なく、{@link AtomSql#tryStream(Runnable)}も必要ありません。<br>
+	 * {@link ResultSet}等は処理の終了と同時にクローズされます。
+	 * @param consumer 行ごとの処理
+	 */
+	public void forEach(RowConsumer consumer) {
+		Objects.requireNonNull(consumer);
+
+		helper().executeForEach(consumer);
+	}
+
+	/**
+	 * 検索結果の全行の{@link DataObject}付与結果オブジェクトに対して、{@link Stream}を介さずにconsumerを呼び出します。
+	 * @see #forEach(RowConsumer)
+	 * @param consumer {@DataObject}付与結果オブジェクトごとの処理
+	 */
+	public void forEach(Consumer<T> consumer) {
+		Objects.requireNonNull(consumer);
+
+		var mapper = dataObjectCreator();
+		helper().executeForEach((r, n) -> consumer.accept(mapper.mapRow(r, n)));
+	}
+
+	/**
+	 * 検索結果の全行に対して、結果オブジェクトを生成せずにconsumerを呼び出します。<br>
+	 * consumerには全行で再利用される{@link RowView}が渡され、行ごとのオブジェクトの生成が行われません。
+	 * @see #forEach(RowConsumer)
+	 * @param consumer 現在の行を参照する{@link RowView}を受け取る処理
+	 */
+	public void forEachRow(Consumer<RowView> consumer) {
+		Objects.requireNonNull(consumer);
+
+		var helper = helper();
+		var view = helper.newRowView();
+		helper.executeForEach((r, n) -> {
+			view.moveTo(r, n);
+			consumer.accept(view);
+		});
+	}
+
+	/**
+	 * 検索結果を、購読者の要求に応じて一行ずつ通知する{@link Flow.Publisher}として返します。<br>
+	 * 購読ごとに、最初の要求の時点で{@link Configure#asyncExecutorClass()}の{@link java.util.concurrent.Executor}上で検索が実行されます。<br>
+	 * 行は要求された件数分のみ{@link ResultSet}から取得され、要求がない間はスレッドを占有しません。<br>
+	 * 完了、エラー、{@link Flow.Subscription#cancel()}のいずれかの時点で{@link ResultSet}がクローズされ、接続が解放されます。<br>
+	 * 検索は呼び出し元の処理範囲を引き継ぎません。
+	 * @return {@DataObject}付与結果オブジェクトの{@link Flow.Publisher}
+	 * @throws NonThreadSafeException {@link jp.ats.atomsql.annotation.NonThreadSafe}な値を使用している場合
+	 */
+	public Flow.Publisher<T> publisher() {
+		return publisher(dataObjectCreator());
+	}
+
+	/**
+	 * {@link RowMapper}により生成された結果オブジェクトを、購読者の要求に応じて一行ずつ通知する{@link Flow.Publisher}として返します。
+	 * @see #publisher()
+	 * @param mapper {@link RowMapper}
+	 * @param <R> {@link RowMapper}の生成した結果オブジェクトの型
+	 * @return 結果オブジェクトの{@link Flow.Publisher}
+	 * @throws NonThreadSafeException {@link jp.ats.atomsql.annotation.NonThreadSafe}な値を使用している場合
+	 */
+	public <R> Flow.Publisher<R> publisher(RowMapper<R> mapper) {
+		Objects.requireNonNull(mapper);
+
+		//スレッドセーフではない値は別スレッドで使用できない
+		if (helper().sql.containsNonThreadSafeValue()) throw new NonThreadSafeException();
+
+		return atomSql.publisher(helper().withCallSite(() -> streamInternal(mapper)));
+	}
+
+	<R> CompletableFuture<R> async(Supplier<R> supplier) {
+		//スレッドセーフではない値は別スレッドで使用できない
+		if (helper().sql.containsNonThreadSafeValue()) throw new NonThreadSafeException();
+
+		//実行スレッドでは呼び出し元を取得できないので、今取得する
+		return atomSql.async(helper().withCallSite(supplier));
+	}
+
+	/**
+	 * 更新処理を実行し、更新されたテーブルを参照するキャッシュを破棄する
+	 */
+	private long executeUpdate(SqlProxyHelper helper, LongSupplier execution) {
+		try {
+			return helper.executeUpdate(execution);
+		} finally {
+			atomSql.modified(helper.sql);
+		}
 	}
 
 	/**
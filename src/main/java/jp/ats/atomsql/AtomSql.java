@@ -9,38 +9,65 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Proxy;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.sql.Blob;
+import java.sql.Clob;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import jp.ats.atomsql.InnerSql.Element;
 import jp.ats.atomsql.InnerSql.Placeholder;
 import jp.ats.atomsql.InnerSql.Text;
+import jp.ats.atomsql.StatementDescriptor.Bind;
+import jp.ats.atomsql.StatementDescriptor.Kind;
 import jp.ats.atomsql.annotation.AtomSqlSupplier;
+import jp.ats.atomsql.annotation.Cached;
+import jp.ats.atomsql.annotation.Coalesced;
 import jp.ats.atomsql.annotation.ConfidentialSql;
 import jp.ats.atomsql.annotation.NoSqlLog;
 import jp.ats.atomsql.annotation.NonThreadSafe;
 import jp.ats.atomsql.annotation.OptionalColumn;
 import jp.ats.atomsql.annotation.Qualifier;
+import jp.ats.atomsql.annotation.SlowQueryThreshold;
 import jp.ats.atomsql.annotation.Sql;
 import jp.ats.atomsql.annotation.SqlFile;
 import jp.ats.atomsql.annotation.SqlProxy;
@@ -91,6 +118,17 @@ public class AtomSql {
 		AtomSqlInitializer.initializeIfUninitialized();
 	}
 
+	/**
+	 * 初期化済みのAtomSqlの設定を置き換えます。<br>
+	 * 既に生成済みのインスタンスは、生成時点の設定を使用し続けます。<br>
+	 * 新しい設定を既存のインスタンスに反映させる場合、{@link #refresh()}を使用してください。
+	 * @param config 設定
+	 * @throws IllegalStateException 初期化されていない場合
+	 */
+	public static void reinitialize(Configure config) {
+		AtomSqlInitializer.reinitialize(config);
+	}
+
 	/**
 	 * 現設定値
 	 * @return {@link Configure}
@@ -101,92 +139,872 @@ public class AtomSql {
 
 	static final Logger logger = System.getLogger(AtomSql.class.getName());
 
-	private final AtomSqlTypeFactory typeFactory;
+	/**
+	 * インスタンス生成時、もしくは{@link #refresh()}時点の設定
+	 */
+	private volatile Configure config;
+
+	private volatile AtomSqlTypeFactory typeFactory;
+
+	private volatile SqlLogger sqlLogger;
+
+	/**
+	 * メソッドごとの{@link SqlLogger}<br>
+	 * 設定から生成されるため、設定の反映時に破棄する
+	 */
+	private volatile Map<MethodKey, SqlLogger> methodSqlLoggers;
 
-	private final SqlLogger sqlLogger;
+	/**
+	 * 計測を行わない場合、null
+	 */
+	private volatile AtomSqlMetrics metrics;
 
-	private static final String moduleName = AtomSql.class.getModule().getName();
+	/**
+	 * {@link Configure#endpointInterceptorClasses()}から生成したもの
+	 */
+	private volatile List<EndpointInterceptor> interceptors;
 
-	private static final ThreadLocal<Map<Object, SqlProxyHelper>> nonThreadSafeHelpers = new ThreadLocal<>();
+	/**
+	 * {@link Configure#asyncExecutorClass()}から決定したもの
+	 */
+	private volatile Executor asyncExecutor;
 
-	private final ThreadLocal<BatchResources> batchResources = new ThreadLocal<>();
+	/**
+	 * スレッドセーフではない値を扱うので、子タスクには引き継がない
+	 */
+	private static final Scope<Map<Object, SqlProxyHelper>> nonThreadSafeHelpers = new Scope<>(false);
 
-	private final ThreadLocal<List<Stream<?>>> streams = new ThreadLocal<>();
+	/**
+	 * {@link BatchResources}はスレッドセーフではないので、子タスクには引き継がない
+	 */
+	private final Scope<BatchResources> batchResources = new Scope<>(false);
+
+	/**
+	 * {@link Configure#batchFlushParallelism()}による並列実行用<br>
+	 * すべてのインスタンスで共有し、スレッドは使用されなくなると破棄される
+	 */
+	private static final ExecutorService batchFlushExecutor = Executors.newCachedThreadPool(daemonThreadFactory("atom-sql-batch-flush"));
+
+	/**
+	 * {@link #tryAsyncBatch(Runnable)}のバックグラウンド実行用<br>
+	 * すべてのインスタンスで共有し、スレッドは使用されなくなると破棄される
+	 */
+	private static final ExecutorService asyncBatchExecutor = Executors.newCachedThreadPool(daemonThreadFactory("atom-sql-async-batch"));
+
+	/**
+	 * 子タスク内で生成された{@link Stream}も親の処理範囲終了時にクローズする
+	 */
+	private final Scope<Queue<Stream<?>>> streams = new Scope<>(true);
+
+	/**
+	 * {@link #bollowConnection(String, Consumer)}内で更新されたテーブル<br>
+	 * 子タスクも同一の{@link Connection}を使用するので引き継ぐ
+	 */
+	private final Scope<ResultCache.Pending> pendingInvalidations = new Scope<>(true);
+
+	/**
+	 * 子タスク内での検索結果も親の処理範囲内で共有する
+	 */
+	private final Scope<QueryMemo> memos = new Scope<>(true);
 
 	private final Endpoints endpoints;
 
+	private final Map<AdaptiveKey, AdaptiveBatchThreshold> adaptiveThresholds;
+
+	/**
+	 * コピーしたインスタンス間で共有する
+	 */
+	private final ResultCache resultCache;
+
+	/**
+	 * コピーしたインスタンス間で共有する
+	 */
+	private final SingleFlight singleFlight;
+
+	private static record AdaptiveKey(String name, String sql) {}
+
+	/**
+	 * 継承したメソッドは、付与されたアノテーションがインターフェイスごとに異なるためインターフェイスも含める
+	 */
+	private static record MethodKey(Class<?> proxyInterface, Method method) {}
+
+	/**
+	 * 自動調整された閾値を保持するSQL文の数の上限<br>
+	 * 動的に組み立てられるSQL文は際限なく増えるため、超えた場合は最も長く使用されていないものを破棄する
+	 */
+	private static final int maxAdaptiveThresholds = 1000;
+
+	private static Map<AdaptiveKey, AdaptiveBatchThreshold> newAdaptiveThresholds() {
+		return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<AdaptiveKey, AdaptiveBatchThreshold> eldest) {
+				return size() > maxAdaptiveThresholds;
+			}
+		});
+	}
+
 	class BatchResources {
 
-		private static record Resource(
-			SqlProxyHelper helper,
-			Consumer<Integer> resultConsumer,
-			Optional<StackTraceElement[]> stackTrace) {}
+		/**
+		 * バッチ対象の一行分<br>
+		 * SQL文そのものは保持せず、バインドする値のみを保持する<br>
+		 * typesがnullの場合、{@link Group}の型と同一
+		 */
+		private static record Row(
+			AtomSqlType[] types,
+			Object[] values,
+			LongConsumer resultConsumer,
+			GeneratedKeyReceiver<?> keyReceiver,
+			Optional<StackTraceElement[]> stackTrace,
+			Scopes scopes) {}
+
+		/**
+		 * 行をまとめる単位<br>
+		 * 同一のSQL文でも、機密扱いのプレースホルダが異なるものはまとめない<br>
+		 * SQLログは{@link Group}のテンプレートのプレースホルダを使用して出力するため
+		 * @param sql プレースホルダ変換後のSQL
+		 * @param confidentials 機密扱いのプレースホルダの位置
+		 */
+		private static record GroupKey(String sql, BitSet confidentials) {}
+
+		/**
+		 * 行を追加した時点の処理範囲<br>
+		 * 実行は別スレッドで行われる場合があるため、更新されたテーブルを通知する先を追加時点で保持する
+		 */
+		private static record Scopes(ResultCache.Pending pending, QueryMemo memo) {}
+
+		/**
+		 * 自動生成されたキーの変換と通知先
+		 */
+		private static record GeneratedKeyReceiver<K>(SimpleRowMapper<K> mapper, Consumer<K> consumer) {
+
+			@SuppressWarnings("unchecked")
+			private void accept(Object key) {
+				consumer.accept((K) key);
+			}
+		}
+
+		/**
+		 * 自動生成されたキーが取得できなかった行を表す
+		 */
+		private static final Object noGeneratedKey = new Object();
+
+		/**
+		 * 同一SQL文の行をまとめたもの<br>
+		 * SQL文の情報は、最初に追加された{@link SqlProxyHelper}をテンプレートとして共有する<br>
+		 * 機密扱いのプレースホルダも{@link GroupKey}により同一なので、テンプレートのものを使用する
+		 */
+		private static class Group {
+
+			private final SqlProxyHelper template;
+
+			private final AtomSqlType[] types;
+
+			/**
+			 * 複数行INSERTへの書き換えが行われない場合、null
+			 */
+			private final MultiRowInsert insert;
+
+			/**
+			 * 閾値の自動調整を行わない場合、null
+			 */
+			private final AdaptiveBatchThreshold adaptive;
+
+			/**
+			 * 実行後にSQLログを出力する場合の呼び出し元、最初に追加された行のもの
+			 */
+			private final Optional<StackTraceElement[]> callerFrames;
+
+			private final List<Row> rows = new ArrayList<>();
+
+			/**
+			 * 結果件数を{@code long}で要求する行を含む場合、true
+			 */
+			private boolean large;
+
+			/**
+			 * 自動生成されたキーを要求する行を含む場合、true
+			 */
+			private boolean returnsGeneratedKeys;
+
+			/**
+			 * 行ごとの自動生成されたキー、実行スレッドで格納され、通知時に参照される
+			 */
+			private Object[] generatedKeys;
+
+			private Group(
+				SqlProxyHelper template,
+				AtomSqlType[] types,
+				MultiRowInsert insert,
+				AdaptiveBatchThreshold adaptive,
+				Optional<StackTraceElement[]> callerFrames) {
+				this.template = template;
+				this.types = types;
+				this.insert = insert;
+				this.adaptive = adaptive;
+				this.callerFrames = callerFrames;
+			}
+
+			private void add(
+				AtomSqlType[] types,
+				Object[] values,
+				LongConsumer resultConsumer,
+				boolean large,
+				GeneratedKeyReceiver<?> keyReceiver,
+				Optional<StackTraceElement[]> stackTrace,
+				Scopes scopes) {
+				//型がテンプレートと同一であれば共有し、行ごとには保持しない
+				rows.add(new Row(Arrays.equals(this.types, types) ? null : types, values, resultConsumer, keyReceiver, stackTrace, scopes));
+
+				if (large) this.large = true;
 
-		private final Map<String, Map<String, List<Resource>>> allResources = new HashMap<>();
+				if (keyReceiver != null) returnsGeneratedKeys = true;
+			}
+
+			private long bytes() {
+				var bytes = 0L;
+				for (var row : rows) {
+					for (var value : row.values) {
+						bytes += AdaptiveBatchThreshold.estimateBytes(value);
+					}
+				}
+
+				return bytes;
+			}
+
+			private int setValues(PreparedStatement ps, int index, int i) throws SQLException {
+				var row = rows.get(i);
+				return template.setValues(ps, index, row.types == null ? types : row.types, row.values, row.stackTrace);
+			}
+		}
+
+		//実行順を追加順とするため、LinkedHashMapを使用
+		private Map<String, Map<GroupKey, Group>> allResources = new LinkedHashMap<>();
 
 		private final int threshold;
 
+		private final boolean rewritesInserts;
+
+		private final int rewriteParameterLimit;
+
+		/**
+		 * 同期実行の場合、null
+		 */
+		private final AsyncFlusher flusher;
+
+		private final int parallelism;
+
+		private final int chunkSize;
+
+		private final long adaptiveTargetMillis;
+
+		private final int adaptiveMin;
+
+		private final int adaptiveMax;
+
+		private final long adaptiveMaxBytes;
+
 		private int num = 0;
 
-		private BatchResources() {
-			var threshold = configure().batchThreshold();
-			this.threshold = threshold > 0 ? threshold : Integer.MAX_VALUE;
+		/**
+		 * 最後に追加された行の処理範囲、同一であれば行間で共有する
+		 */
+		private Scopes scopes;
+
+		private BatchResources(boolean async) {
+			this(async, false);
+		}
+
+		/**
+		 * @param async 非同期実行を行う場合、true
+		 * @param aggregated {@link BatchAggregator}用の場合、true 実行契機は{@link BatchAggregator}が決定するので、閾値による実行は行わない
+		 */
+		private BatchResources(boolean async, boolean aggregated) {
+			var config = AtomSql.this.config;
+
+			var threshold = config.batchThreshold();
+			this.threshold = threshold > 0 && !aggregated ? threshold : Integer.MAX_VALUE;
+
+			rewritesInserts = config.rewritesBatchedInserts();
+			rewriteParameterLimit = config.batchRewriteParameterLimit();
+
+			flusher = async ? new AsyncFlusher(config.asyncBatchMaxInFlight()) : null;
+
+			parallelism = config.batchFlushParallelism();
+
+			chunkSize = config.batchChunkSize();
+
+			adaptiveTargetMillis = aggregated ? 0 : config.batchAdaptiveTargetMillis();
+			adaptiveMin = config.batchAdaptiveMinThreshold();
+			adaptiveMax = config.batchAdaptiveMaxThreshold();
+			adaptiveMaxBytes = config.batchAdaptiveMaxBytes();
 		}
 
 		void put(String name, SqlProxyHelper helper, Consumer<Integer> resultConsumer, Optional<StackTraceElement[]> stackTrace) {
+			put(
+				name,
+				helper,
+				resultConsumer == null ? null : r -> resultConsumer.accept((int) Math.min(r, Integer.MAX_VALUE)),
+				false,
+				null,
+				null,
+				stackTrace);
+		}
+
+		void putLarge(String name, SqlProxyHelper helper, Consumer<Long> resultConsumer, Optional<StackTraceElement[]> stackTrace) {
+			put(name, helper, resultConsumer == null ? null : resultConsumer::accept, true, null, null, stackTrace);
+		}
+
+		<K> void put(
+			String name,
+			SqlProxyHelper helper,
+			SimpleRowMapper<K> keyMapper,
+			Consumer<K> keyConsumer,
+			Optional<StackTraceElement[]> stackTrace) {
+			put(name, helper, null, false, keyMapper, keyConsumer, stackTrace);
+		}
+
+		private <K> void put(
+			String name,
+			SqlProxyHelper helper,
+			LongConsumer resultConsumer,
+			boolean large,
+			SimpleRowMapper<K> keyMapper,
+			Consumer<K> keyConsumer,
+			Optional<StackTraceElement[]> stackTrace) {
 			if (num == threshold) flushAll();
 
-			allResources.computeIfAbsent(name, n -> new HashMap<>())
+			var placeholders = helper.sql.placeholders();
+			var size = placeholders.size();
+			var types = new AtomSqlType[size];
+			var values = new Object[size];
+			var confidentials = new BitSet(size);
+			var i = 0;
+			for (var placeholder : placeholders) {
+				types[i] = placeholder.type();
+				values[i] = placeholder.value();
+				if (placeholder.confidential()) confidentials.set(i);
+				i++;
+			}
+
+			var sql = helper.sql.string();
+			var key = new GroupKey(sql, confidentials);
+			var group = allResources.computeIfAbsent(name, n -> new LinkedHashMap<>())
 				.computeIfAbsent(
-					helper.sql.string(),
-					s -> new ArrayList<>())
-				.add(new Resource(helper, resultConsumer, stackTrace));
+					key,
+					k -> new Group(
+						helper,
+						types,
+						rewritesInserts ? MultiRowInsert.parse(sql) : null,
+						adaptiveTargetMillis > 0 ? adaptiveThreshold(name, sql) : null,
+						//実行は別スレッドで行われる場合があるので、行ごとに取得していない場合でもSQL文ごとに一度は取得する
+						stackTrace.isPresent() ? stackTrace : helper.callSite()));
+			group.add(
+				types,
+				values,
+				resultConsumer,
+				large,
+				keyMapper == null ? null : new GeneratedKeyReceiver<>(keyMapper, keyConsumer),
+				stackTrace,
+				scopes());
 			num++;
+
+			//自動調整された閾値に達した場合、そのSQL文のみ実行する
+			if (group.adaptive != null && group.rows.size() >= group.adaptive.threshold()) flushGroup(name, key);
+		}
+
+		private Scopes scopes() {
+			var pending = pendingInvalidations.get();
+			var memo = memos.get();
+
+			var scopes = this.scopes;
+			if (scopes != null && scopes.pending == pending && scopes.memo == memo) return scopes;
+
+			return this.scopes = new Scopes(pending, memo);
+		}
+
+		private AdaptiveBatchThreshold adaptiveThreshold(String name, String sql) {
+			return adaptiveThresholds.computeIfAbsent(
+				new AdaptiveKey(name, sql),
+				k -> new AdaptiveBatchThreshold(adaptiveTargetMillis, adaptiveMin, adaptiveMax, adaptiveMaxBytes));
+		}
+
+		private void flushGroup(String name, GroupKey key) {
+			var map = allResources.get(name);
+			var group = map.remove(key);
+			if (map.isEmpty()) allResources.remove(name);
+
+			num -= group.rows.size();
+
+			Map<String, Map<GroupKey, Group>> buffer = new LinkedHashMap<>();
+			buffer.computeIfAbsent(name, n -> new LinkedHashMap<>()).put(key, group);
+
+			if (flusher != null) {
+				flusher.submit(buffer, parallelizable(buffer));
+				return;
+			}
+
+			flush(buffer, parallelizable(buffer), Runnable::run);
 		}
 
 		private void flushAll() {
-			try {
-				allResources.forEach((name, map) -> {
-					map.forEach((sql, resources) -> {
-						flush(name, sql, resources);
-					});
-				});
-			} finally {
-				//flush内で例外が発生した場合、tryBatch等のfinallyでflushAllが実施されるため、二度実行されないように必ず空にする
-				num = 0;
-				allResources.clear();
+			//flush内で例外が発生した場合、tryBatch等のfinallyでflushAllが実施されるため、二度実行されないように実行前に必ず空にする
+			var buffer = takeAll();
+
+			if (flusher != null) {
+				flusher.submit(buffer, parallelizable(buffer));
+				return;
 			}
+
+			flush(buffer, parallelizable(buffer), Runnable::run);
+		}
+
+		private Map<String, Map<GroupKey, Group>> takeAll() {
+			var buffer = allResources;
+			num = 0;
+			allResources = new LinkedHashMap<>();
+
+			return buffer;
 		}
 
-		private void flush(String name, String sql, List<Resource> resources) {
+		/**
+		 * 現在のバッファを切り離し、それを実行する処理を返す<br>
+		 * {@link BatchAggregator}用、切り離しは呼び出し側で排他した上で行い、実行は任意のスレッドで行うことができる
+		 */
+		Runnable detach() {
+			var buffer = takeAll();
+			var parallel = parallelizable(buffer);
+			return () -> flush(buffer, parallel, Runnable::run);
+		}
+
+		/**
+		 * スコープ終了時の処理
+		 */
+		void finish() {
+			if (flusher == null) {
+				flushAll();
+				return;
+			}
+
+			var buffer = takeAll();
+			flusher.finish(buffer, parallelizable(buffer));
+		}
+
+		/**
+		 * 並列実行が可能かどうかを、バッファに追加したスレッドで判定する<br>
+		 * 並列実行は{@link Endpoint}単位で行うので、複数の{@link Endpoint}を含む場合のみ<br>
+		 * {@link AtomSql#bollowConnection(String, Consumer)}内の場合、同一の{@link Connection}で実行させるため並列実行しない
+		 */
+		private boolean parallelizable(Map<String, Map<GroupKey, Group>> buffer) {
+			return parallelism > 1 && buffer.size() > 1 && pendingInvalidations.get() == null;
+		}
+
+		/**
+		 * バッファ内のすべてを実行し、実行できたものの結果通知処理をdeliveryに渡す<br>
+		 * 並列実行する場合でも、同一{@link Endpoint}内のまとまりは追加順に逐次実行する
+		 */
+		private void flush(Map<String, Map<GroupKey, Group>> buffer, boolean parallel, Consumer<Runnable> delivery) {
+			if (!parallel) {
+				buffer.forEach((name, map) -> flush(name, map, delivery));
+				return;
+			}
+
+			var names = new ArrayList<>(buffer.keySet());
+			var size = names.size();
+
+			//各ワーカーは自身の取り出した位置の要素のみ使用するので、実行前に用意しておく
+			List<List<Runnable>> deliveries = new ArrayList<>(size);
+			for (var i = 0; i < size; i++) {
+				deliveries.add(new ArrayList<>());
+			}
+
+			var failures = new RuntimeException[size];
+
+			//Endpointを順に取り出して実行するタスクを、並列実行数分だけ実行する
+			var next = new AtomicInteger();
+			var workers = Math.min(parallelism, size);
+			var futures = new CompletableFuture<?>[workers];
+			for (var i = 0; i < workers; i++) {
+				futures[i] = CompletableFuture.runAsync(() -> {
+					int index;
+					while ((index = next.getAndIncrement()) < size) {
+						var results = deliveries.get(index);
+						try {
+							var name = names.get(index);
+							flush(name, buffer.get(name), results::add);
+						} catch (RuntimeException e) {
+							failures[index] = e;
+						}
+					}
+				}, batchFlushExecutor);
+			}
+
+			CompletableFuture.allOf(futures).join();
+
+			//成功したものは追加順に通知、失敗は追加順で最初のものに以降のものを付加してスローする
+			RuntimeException failure = null;
+			for (var i = 0; i < size; i++) {
+				deliveries.get(i).forEach(delivery);
+
+				var cause = failures[i];
+				if (cause == null) continue;
+
+				if (failure == null) {
+					failure = cause;
+				} else {
+					failure.addSuppressed(cause);
+				}
+			}
+
+			if (failure != null) throw failure;
+		}
+
+		/**
+		 * 一つの{@link Endpoint}のまとまりを追加順に実行する、失敗した場合、以降のまとまりは実行しない
+		 */
+		private void flush(String name, Map<GroupKey, Group> map, Consumer<Runnable> delivery) {
+			map.forEach((key, group) -> {
+				var results = flush(name, key.sql, group);
+				delivery.accept(() -> deliver(group, results));
+			});
+		}
+
+		private static void deliver(Group group, long[] results) {
+			var rows = group.rows;
+			var keys = group.generatedKeys;
+			for (var i = 0; i < results.length; i++) {
+				var row = rows.get(i);
+
+				var resultConsumer = row.resultConsumer;
+				if (resultConsumer != null) resultConsumer.accept(results[i]);
+
+				var keyReceiver = row.keyReceiver;
+				if (keyReceiver != null && keys != null && keys[i] != noGeneratedKey) keyReceiver.accept(keys[i]);
+			}
+		}
+
+		/**
+		 * 閾値に達したバッファをバックグラウンドスレッドで実行し、その間に呼び出し側は次のバッファへの追加を続ける<br>
+		 * バッファは追加された順に実行され、結果は呼び出し側のスレッドで同じ順番に通知される<br>
+		 * {@link AtomSql#bollowConnection(String, Consumer)}内で実行されるバッファは、同一の{@link Connection}を使用させるため、実行中のものの完了を待って呼び出し側のスレッドで実行する
+		 */
+		private class AsyncFlusher {
+
+			private final int maxInFlight;
+
+			private final Semaphore inFlight;
+
+			private final Queue<Runnable> deliveries = new ConcurrentLinkedQueue<>();
+
+			/**
+			 * 最後に投入したバッファの実行<br>
+			 * 実行スレッドは共有するので、追加順に実行させるため前のバッファの完了後に実行する
+			 */
+			private CompletableFuture<Void> last = CompletableFuture.completedFuture(null);
+
+			/**
+			 * 最初に発生した例外
+			 */
+			private volatile Throwable failure;
+
+			private AsyncFlusher(int maxInFlight) {
+				this.maxInFlight = Math.max(1, maxInFlight);
+				inFlight = new Semaphore(this.maxInFlight);
+			}
+
+			private void submit(Map<String, Map<GroupKey, Group>> buffer, boolean parallel) {
+				deliver();
+				throwIfFailed();
+
+				if (buffer.isEmpty()) return;
+
+				if (pendingInvalidations.get() != null) {
+					awaitInFlight();
+
+					deliver();
+					throwIfFailed();
+
+					flush(buffer, parallel, Runnable::run);
+					return;
+				}
+
+				try {
+					//実行中のバッファが上限に達している場合、空くまで待機
+					inFlight.acquire();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException(e);
+				}
+
+				//待機中に失敗した場合
+				if (failure != null) {
+					inFlight.release();
+					throwIfFailed();
+				}
+
+				last = last.thenRunAsync(() -> {
+					List<Runnable> results = new ArrayList<>();
+					try {
+						//既に失敗している場合、以降のバッファは実行しない
+						if (failure != null) return;
+
+						flush(buffer, parallel, results::add);
+					} catch (Throwable t) {
+						failure = t;
+					} finally {
+						//失敗するまでに実行できたものは通知する
+						if (results.size() > 0) deliveries.add(() -> results.forEach(Runnable::run));
+
+						inFlight.release();
+					}
+				}, asyncBatchExecutor);
+			}
+
+			private void finish(Map<String, Map<GroupKey, Group>> buffer, boolean parallel) {
+				try {
+					submit(buffer, parallel);
+				} finally {
+					awaitInFlight();
+				}
+
+				deliver();
+				throwIfFailed();
+			}
+
+			/**
+			 * 実行中のバッファがすべて完了するまで待機する
+			 */
+			private void awaitInFlight() {
+				try {
+					inFlight.acquire(maxInFlight);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException(e);
+				}
+
+				inFlight.release(maxInFlight);
+			}
+
+			private void deliver() {
+				Runnable delivery;
+				while ((delivery = deliveries.poll()) != null) {
+					delivery.run();
+				}
+			}
+
+			/**
+			 * 失敗した場合、以降の追加分は実行されないので、呼び出し側が例外を捕捉して処理を続けた場合でも毎回スローする
+			 */
+			private void throwIfFailed() {
+				var failure = this.failure;
+				if (failure == null) return;
+
+				if (failure instanceof RuntimeException e) throw e;
+				if (failure instanceof Error e) throw e;
+
+				throw new IllegalStateException(failure);
+			}
+		}
+
+		private long[] flush(String name, String sql, Group group) {
+			var endpoint = endpoints.get(name).endpoint();
+
+			var size = group.rows.size();
+
+			var results = new long[size];
+
+			var event = new BatchEvent();
+			event.begin();
+
 			var startNanos = System.nanoTime();
+			var failed = true;
 			try {
-				var results = endpoints.get(name).endpoint().batchUpdate(sql, new BatchPreparedStatementSetter() {
 
-					@Override
-					public void setValues(PreparedStatement ps, int i) throws SQLException {
-						var resource = resources.get(i);
-						resource.helper.setValues(ps, resource.stackTrace);
-					}
+				if (group.returnsGeneratedKeys) {
+					group.generatedKeys = new Object[size];
+					Arrays.fill(group.generatedKeys, noGeneratedKey);
+				}
+
+				//自動生成されたキーを行ごとに対応付けるため、複数行INSERTへの書き換えは行わない
+				var insert = group.returnsGeneratedKeys ? null : group.insert;
+				var rowsPerStatement = insert == null ? 1 : insert.rowsPerStatement(rewriteParameterLimit, size);
 
-					@Override
-					public int getBatchSize() {
-						int size = resources.size();
+				if (rowsPerStatement == 1) {
+					execute(endpoint, sql, group, 0, 1, size, results);
+				} else {
+					var statements = size / rowsPerStatement;
+					execute(endpoint, insert.sql(rowsPerStatement), group, 0, rowsPerStatement, statements, results);
+
+					//端数の行
+					var offset = statements * rowsPerStatement;
+					var remain = size - offset;
+					if (remain > 0)
+						execute(endpoint, remain == 1 ? sql : insert.sql(remain), group, offset, remain, 1, results);
+				}
 
-						sqlLogger.perform(logger -> logger.log(Level.INFO, "batch size: " + size));
+				var adaptive = group.adaptive;
+				if (adaptive != null) {
+					//バイト数による制限を行わない場合、値を走査しない
+					var bytes = adaptive.limitsBytes() ? group.bytes() : 0;
+					var next = adaptive.record(size, bytes, System.nanoTime() - startNanos);
 
-						return size;
+					sqlLogger.perform(
+						logger -> logger.log(
+							Level.INFO,
+							"adaptive batch threshold: " + next + (adaptive.limitsBytes() ? " (bytes: " + bytes + ")" : "")));
+				}
+
+				failed = false;
+
+				return results;
+			} finally {
+				group.template.batchExecuted(event, startNanos, failed ? null : results, size);
+				modified(group);
+			}
+		}
+
+		/**
+		 * 実行スレッドでは追加時点の処理範囲を参照できないので、行ごとに保持した処理範囲に通知する
+		 */
+		private void modified(Group group) {
+			var sql = group.template.sql;
+
+			resultCache.modified(sql);
+
+			Scopes last = null;
+			for (var row : group.rows) {
+				var scopes = row.scopes;
+				if (scopes == last) continue;
+
+				last = scopes;
+
+				if (scopes.pending != null) scopes.pending.modified(sql);
+				if (scopes.memo != null) scopes.memo.modified(sql);
+			}
+		}
+
+		/**
+		 * rowsPerStatement行ずつを一文としてバッチ実行し、結果を行ごとにresultsに格納する<br>
+		 * 一度のバッチ実行で扱う行数がchunkSizeを超える場合、分割して実行する
+		 */
+		private void execute(
+			Endpoint endpoint,
+			String sql,
+			Group group,
+			int offset,
+			int rowsPerStatement,
+			int statements,
+			long[] results) {
+			var statementsPerChunk = chunkSize <= 0 ? statements : Math.max(1, chunkSize / rowsPerStatement);
+
+			for (var done = 0; done < statements; done += statementsPerChunk) {
+				executeChunk(
+					endpoint,
+					sql,
+					group,
+					offset + done * rowsPerStatement,
+					rowsPerStatement,
+					Math.min(statementsPerChunk, statements - done),
+					results);
+			}
+		}
+
+		private void executeChunk(
+			Endpoint endpoint,
+			String sql,
+			Group group,
+			int offset,
+			int rowsPerStatement,
+			int statements,
+			long[] results) {
+			var bpss = new BatchPreparedStatementSetter() {
+
+				@Override
+				public void setValues(PreparedStatement ps, int i) throws SQLException {
+					var index = 1;
+					var start = offset + i * rowsPerStatement;
+					for (var row = 0; row < rowsPerStatement; row++) {
+						index = group.setValues(ps, index, start + row);
 					}
-				});
+				}
+
+				@Override
+				public int getBatchSize() {
+					sqlLogger.perform(logger -> {
+						logger.log(Level.INFO, "batch size: " + statements);
 
-				for (var i = 0; i < results.length; i++) {
-					var resultConsumer = resources.get(i).resultConsumer;
-					if (resultConsumer != null) resultConsumer.accept(results[i]);
+						if (rowsPerStatement > 1)
+							logger.log(Level.INFO, "rows per statement: " + rowsPerStatement);
+					});
+
+					return statements;
 				}
+			};
+
+			var startNanos = System.nanoTime();
+			try {
+				executeChunk(endpoint, sql, group, offset, rowsPerStatement, statements, results, bpss);
 			} finally {
-				logElapsed(sqlLogger, startNanos);
+				group.template.batchChunkExecuted(
+					System.nanoTime() - startNanos,
+					group.callerFrames,
+					statements * rowsPerStatement,
+					i -> group.rows.get(offset + i).values);
 			}
 		}
+
+		private void executeChunk(
+			Endpoint endpoint,
+			String sql,
+			Group group,
+			int offset,
+			int rowsPerStatement,
+			int statements,
+			long[] results,
+			BatchPreparedStatementSetter bpss) {
+			var rows = statements * rowsPerStatement;
+			IntFunction<Object[]> values = i -> group.rows.get(offset + i).values;
+
+			long[] counts;
+			if (group.returnsGeneratedKeys) {
+				//書き換えを行わないので、キーの行番号はそのままこのチャンク内の行番号となる
+				var keys = group.generatedKeys;
+				//自動生成されたキーの取得はint版のみなので、longを要求する行があっても結果件数はintの範囲となる
+				counts = widen(group.template.invoke(Kind.BATCH_UPDATE, endpoint, sql, statements, rows, values, (e, s) -> e.batchUpdate(s, bpss, (r, n) -> {
+					//ドライバがチャンクの行数を超えてキーを返した場合、無視する
+					if (n > statements) return null;
+
+					var index = offset + n - 1;
+
+					var keyReceiver = group.rows.get(index).keyReceiver;
+					keys[index] = keyReceiver == null ? noGeneratedKey : keyReceiver.mapper.mapRow(r);
+
+					return null;
+				}, k -> {})));
+			} else if (group.large) {
+				counts = group.template.invoke(Kind.BATCH_UPDATE, endpoint, sql, statements, rows, values, (e, s) -> e.largeBatchUpdate(s, bpss));
+			} else {
+				counts = widen(group.template.invoke(Kind.BATCH_UPDATE, endpoint, sql, statements, rows, values, (e, s) -> e.batchUpdate(s, bpss)));
+			}
+
+			for (var i = 0; i < counts.length; i++) {
+				var start = offset + i * rowsPerStatement;
+
+				if (rowsPerStatement == 1) {
+					results[start] = counts[i];
+					continue;
+				}
+
+				//複数行INSERTの結果件数は文全体のものなので、行ごとの件数に戻す
+				var count = counts[i] == rowsPerStatement ? 1 : Statement.SUCCESS_NO_INFO;
+				Arrays.fill(results, start, start + rowsPerStatement, count);
+			}
+		}
+
+		private static long[] widen(int[] counts) {
+			return Arrays.stream(counts).asLongStream().toArray();
+		}
 	}
 
 	/**
@@ -195,9 +1013,11 @@ public class AtomSql {
 	 * @param endpoints {@link Endpoints}
 	 */
 	public AtomSql(Endpoints endpoints) {
-		typeFactory = AtomSqlTypeFactory.newInstance(configure().typeFactoryClass());
-		sqlLogger = SqlLogger.instance();
+		apply(configure());
 		this.endpoints = Objects.requireNonNull(endpoints);
+		adaptiveThresholds = newAdaptiveThresholds();
+		resultCache = new ResultCache();
+		singleFlight = new SingleFlight();
 	}
 
 	/**
@@ -207,14 +1027,24 @@ public class AtomSql {
 	 * @param base コピー元
 	 */
 	public AtomSql(AtomSql base) {
+		config = base.config;
 		typeFactory = base.typeFactory;
 		sqlLogger = base.sqlLogger;
+		methodSqlLoggers = base.methodSqlLoggers;
+		metrics = base.metrics;
+		interceptors = base.interceptors;
+		asyncExecutor = base.asyncExecutor;
 		this.endpoints = base.endpoints;
+		adaptiveThresholds = base.adaptiveThresholds;
+		resultCache = base.resultCache;
+		singleFlight = base.singleFlight;
 	}
 
 	AtomSql() {
-		typeFactory = AtomSqlTypeFactory.newInstance(configure().typeFactoryClass());
-		sqlLogger = SqlLogger.instance();
+		apply(configure());
+		adaptiveThresholds = newAdaptiveThresholds();
+		resultCache = new ResultCache();
+		singleFlight = new SingleFlight();
 
 		endpoints = new Endpoints(new Endpoint() {
 
@@ -223,6 +1053,15 @@ public class AtomSql {
 				throw new UnsupportedOperationException();
 			}
 
+			@Override
+			public <K> int[] batchUpdate(
+				String sql,
+				BatchPreparedStatementSetter bpss,
+				RowMapper<K> generatedKeyMapper,
+				Consumer<K> generatedKeyConsumer) {
+				throw new UnsupportedOperationException();
+			}
+
 			@Override
 			public <T> Stream<T> queryForStream(String sql, PreparedStatementSetter pss, RowMapper<T> rowMapper) {
 				throw new UnsupportedOperationException();
@@ -233,6 +1072,15 @@ public class AtomSql {
 				throw new UnsupportedOperationException();
 			}
 
+			@Override
+			public <K> int update(
+				String sql,
+				PreparedStatementSetter pss,
+				RowMapper<K> generatedKeyMapper,
+				Consumer<K> generatedKeyConsumer) {
+				throw new UnsupportedOperationException();
+			}
+
 			@Override
 			public void logSql(Logger logger, String originalSql, String sql, PreparedStatement ps) {
 				throw new UnsupportedOperationException();
@@ -245,12 +1093,57 @@ public class AtomSql {
 		});
 	}
 
+	/**
+	 * 現在の{@link #configure()}の設定を、このインスタンスに反映させます。<br>
+	 * インスタンスは生成時点の設定を保持して使用するため、{@link #reinitialize(Configure)}で設定を置き換えた場合に使用します。<br>
+	 * 反映後に生成された{@link Atom}等から新しい設定が使用されます。
+	 */
+	public void refresh() {
+		apply(configure());
+	}
+
+	private void apply(Configure config) {
+		typeFactory = AtomSqlTypeFactory.newInstance(config.typeFactoryClass());
+		sqlLogger = SqlLogger.instance(config);
+		interceptors = newInterceptors(config.endpointInterceptorClasses());
+		asyncExecutor = AsyncExecution.executor(config.asyncExecutorClass());
+
+		//レジストリはプロセスで唯一のものなので、MBeanの登録有無は最後に反映された設定に従う
+		if (config.enableMetrics() && config.registersMetricsMBeans()) {
+			AtomSqlMetrics.instance().registerMBeans();
+		} else {
+			AtomSqlMetrics.instance().unregisterMBeans();
+		}
+
+		metrics = config.enableMetrics() ? AtomSqlMetrics.instance() : null;
+
+		this.config = config;
+
+		//設定の反映後に生成する
+		methodSqlLoggers = new ConcurrentHashMap<>();
+	}
+
+	private static List<EndpointInterceptor> newInterceptors(String classNames) {
+		if (classNames == null || classNames.isBlank()) return List.of();
+
+		return Arrays.stream(classNames.split(",")).map(String::strip).filter(s -> !s.isEmpty()).map(className -> {
+			try {
+				return (EndpointInterceptor) Class.forName(
+					className,
+					true,
+					Thread.currentThread().getContextClassLoader()).getConstructor().newInstance();
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		}).toList();
+	}
+
 	/**
 	 * 設定で{@link Qualifier}を使用するとされている場合、対象に付与された{@link Qualifier}を返す<br>
 	 * 対象自体に{@link Qualifier}が無くても、その他のアノテーション自体に{@link Qualifier}が付与されていればそれを返す
 	 */
 	private Optional<Qualifier> qualifier(AnnotatedElement e) {
-		if (!configure().usesQualifier()) return Optional.empty();
+		if (!config.usesQualifier()) return Optional.empty();
 
 		var qualifier = e.getAnnotation(Qualifier.class);
 		if (qualifier != null) return Optional.of(qualifier);
@@ -328,89 +1221,67 @@ public class AtomSql {
 
 		var sql = loadSql(proxyInterface, method);
 
-		var conf = configure();
+		var entry = nameAnnotation.map(a -> endpoints.get(a.value())).orElseGet(() -> endpoints.get());
 
-		SqlLogger mySqlLogger;
-		if (conf.enableLog()) {
-			NoSqlLog noSqlLog;
-			String noSqlLogSign;
-			if ((noSqlLog = proxyInterface.getAnnotation(NoSqlLog.class)) != null) {
-				noSqlLogSign = proxyInterface.toString();
-			} else if ((noSqlLog = method.getAnnotation(NoSqlLog.class)) != null) {
-				noSqlLogSign = method.toString();
-			} else {
-				noSqlLog = null;
-				noSqlLogSign = null;
-			}
+		var mySqlLogger = methodSqlLoggers.computeIfAbsent(
+			new MethodKey(proxyInterface, method),
+			k -> sqlLogger(proxyInterface, method, entry));
 
-			if (!conf.ignoreNoSqlLog() && noSqlLog != null) {
-				if (noSqlLog.logElapseTime()) {
-					mySqlLogger = SqlLogger.noSqlLogInstance(noSqlLogSign);
-				} else {
-					mySqlLogger = SqlLogger.disabled;
-				}
-			} else {
-				mySqlLogger = sqlLogger;
-			}
-		} else {
-			mySqlLogger = SqlLogger.disabled;
-		}
+		var metricsName = proxyName + "#" + methodName;
+
+		var coalesced = method.isAnnotationPresent(Coalesced.class);
 
 		SqlProxyHelper helper;
-		var entry = nameAnnotation.map(a -> endpoints.get(a.value())).orElseGet(() -> endpoints.get());
 		if (parameterTypes.length == 1 && parameterTypes[0].equals(Consumer.class)) {
-			var parametersUnfolderClass = find.parametersUnfolder();
-			var parametersUnfolder = parametersUnfolderClass.getConstructor().newInstance();
-
-			Consumer.class.getMethod("accept", Object.class).invoke(args[0], new Object[] { parametersUnfolder });
+			var accessor = UnfolderAccessor.of(find.parametersUnfolder());
+			var parametersUnfolder = accessor.newInstance();
 
-			var names = new LinkedList<String>();
-			var values = new LinkedList<Object>();
-			var types = new LinkedList<AtomSqlType>();
-			Arrays.stream(parametersUnfolderClass.getFields()).forEach(f -> {
-				names.add(f.getName());
+			@SuppressWarnings("unchecked")
+			var consumer = (Consumer<Object>) args[0];
+			consumer.accept(parametersUnfolder);
 
-				Object value;
-				try {
-					value = f.get(parametersUnfolder);
-				} catch (IllegalAccessException e) {
-					throw new IllegalStateException(e);
-				}
+			var fieldTypes = accessor.types;
+			var values = accessor.values(parametersUnfolder);
+			var types = new AtomSqlType[values.length];
+			for (var i = 0; i < values.length; i++) {
+				var value = values[i];
 
-				var t = f.getType();
+				var t = fieldTypes[i];
 				if (t.equals(Enum.class)) {
 					//型がEnumの場合、型パラメータに実際の型が記述されているが、この時点では取得できないので
 					//実際のオブジェクトから型を取得する
 					if (value == null) {
 						//値がnullの場合、仕方がないのでPreparedStatementにnullを設定できるようにENUMの実態のINTEGERを使用する
-						types.add(INTEGER.instance);
+						types[i] = INTEGER.instance;
 					} else {
-						types.add(typeFactory.select(value.getClass()));
+						types[i] = typeFactory.select(value.getClass());
 					}
 				} else if (t.equals(Object.class)) {
 					if (value == null) {
 						//値がnullの場合、仕方がないのでPreparedStatementにnullを設定できるようにNULLをセットする
-						types.add(NULL.instance);
+						types[i] = NULL.instance;
 					} else {
-						types.add(typeFactory.select(value.getClass()));
+						types[i] = typeFactory.select(value.getClass());
 					}
 				} else {
-					types.add(typeFactory.select(f.getType()));
+					types[i] = typeFactory.select(t);
 				}
-
-				values.add(value);
-			});
+			}
 
 			helper = new SqlProxyHelper(
 				sql,
 				entry,
 				confidentials,
-				names.toArray(String[]::new),
-				types.toArray(AtomSqlType[]::new),
+				accessor.names,
+				types,
 				find.result(),
-				values.toArray(Object[]::new),
+				values,
 				typeFactory,
-				mySqlLogger);
+				mySqlLogger,
+				metrics,
+				metricsName,
+				coalesced,
+				interceptors);
 		} else {
 			var types = Arrays.stream(find.parameterTypes()).map(c -> typeFactory.select(c)).toArray(AtomSqlType[]::new);
 
@@ -423,7 +1294,11 @@ public class AtomSql {
 				find.result(),
 				args,
 				typeFactory,
-				mySqlLogger);
+				mySqlLogger,
+				metrics,
+				metricsName,
+				coalesced,
+				interceptors);
 		}
 
 		var atom = new Atom<Object>(AtomSql.this, helper, true);
@@ -434,12 +1309,30 @@ public class AtomSql {
 			return atom;
 		} else if (returnType.equals(Stream.class)) {
 			return atom.stream();
+		} else if (returnType.equals(Flow.Publisher.class)) {
+			return atom.publisher();
 		} else if (returnType.equals(List.class)) {
-			return atom.list();
+			return read(method, helper, atom::list);
 		} else if (returnType.equals(Optional.class)) {
-			return atom.get();
+			return read(method, helper, atom::get);
+		} else if (returnType.equals(CompletableFuture.class)) {
+			var resultType = futureResultType(method);
+			if (resultType.equals(List.class)) {
+				return atom.async(() -> read(method, helper, atom::list));
+			} else if (resultType.equals(Optional.class)) {
+				return atom.async(() -> read(method, helper, atom::get));
+			} else if (resultType.equals(Integer.class)) {
+				return atom.updateAsync();
+			} else if (resultType.equals(Long.class)) {
+				return atom.largeUpdateAsync();
+			}
+
+			//不正な戻り値の型
+			throw new IllegalStateException("Incorrect return type: " + method.getGenericReturnType());
 		} else if (returnType.equals(int.class) || returnType.equals(void.class)) {
 			return atom.update();
+		} else if (returnType.equals(long.class)) {
+			return atom.largeUpdate();
 		} else if (returnType.equals(Prototype.class)) {
 			return new Prototype<>(atom, find.atomsUnfolder());
 		} else {
@@ -448,6 +1341,44 @@ public class AtomSql {
 		}
 	}
 
+	private static Class<?> futureResultType(Method method) {
+		if (method.getGenericReturnType() instanceof ParameterizedType future) {
+			var resultType = future.getActualTypeArguments()[0];
+			if (resultType instanceof ParameterizedType parameterized) return (Class<?>) parameterized.getRawType();
+			if (resultType instanceof Class<?> clazz) return clazz;
+		}
+
+		return Object.class;
+	}
+
+	private Object read(Method method, SqlProxyHelper helper, Supplier<Object> loader) {
+		var cached = method.getAnnotation(Cached.class);
+
+		//トランザクション内ではコミット前の内容が見えるため、キャッシュを使用しない
+		if (cached == null || pendingInvalidations.get() != null) return loader.get();
+
+		//Coalescedが付与されている場合、loader内でまとめられる
+		return resultCache.get(method, cached, helper.entry.name(), helper.sql, loader);
+	}
+
+	/**
+	 * {@link Coalesced}が付与されたメソッドから生成された場合、同時に実行された同一の検索をひとつにまとめる
+	 */
+	<T> List<T> coalesced(SqlProxyHelper helper, Supplier<List<T>> loader) {
+		//トランザクション内ではコミット前の内容が見えるため、他の呼び出しと結果を共有しない
+		if (!helper.coalesced || pendingInvalidations.get() != null) return loader.get();
+
+		return singleFlight.get(helper.entry.name(), helper.sql, helper.resultClass, loader);
+	}
+
+	/**
+	 * {@link Cached}によりキャッシュされた検索結果をすべて破棄します。<br>
+	 * キャッシュはコピーコンストラクタで生成されたインスタンスと共有されています。
+	 */
+	public void clearResultCache() {
+		resultCache.clear();
+	}
+
 	/**
 	 * バッチ処理を実施します。<br>
 	 * {@link Runnable}内で行われる更新処理はすべて、即時実行はされずに集められ、{@Runnable}の処理が終了したのち一括で実行されます。<br>
@@ -455,49 +1386,84 @@ public class AtomSql {
 	 * 閾値に達した場合など一括実行中に例外が発生した場合、未実施の更新はすべて破棄されます。
 	 * @param runnable 更新処理を含む汎用処理
 	 */
-	public void tryBatch(Runnable runnable) {
-		var resources = new BatchResources();
-		batchResources.set(resources);
-		try {
+	public void tryBatch(Runnable runnable) {
+		tryBatch(new BatchResources(false), () -> {
+			runnable.run();
+			return null;
+		});
+	}
+
+	/**
+	 * バッチ処理を実施します。<br>
+	 * {@link #tryBatch(Runnable)}と違い、何らかの処理結果を取り出したい場合に使用します<br>
+	 * 閾値に達した場合など一括実行中に例外が発生した場合、未実施の更新はすべて破棄されます。
+	 * @param <T> 返却値の型
+	 * @see #tryBatch(Runnable)
+	 * @param supplier 結果を返却が可能な更新処理を含む汎用処理
+	 * @return {@link Supplier}の返却値
+	 */
+	public <T> T tryBatch(Supplier<T> supplier) {
+		return tryBatch(new BatchResources(false), supplier);
+	}
+
+	/**
+	 * 閾値に達したバッチ更新をバックグラウンドで実行しながら、バッチ処理を実施します。<br>
+	 * {@link #tryBatch(Runnable)}と異なり、閾値に達した時点の更新は別スレッドで一括実行され、その間も{@link Runnable}の処理は継続されます。<br>
+	 * 同時に実行中となる一括実行の数は{@link Configure#asyncBatchMaxInFlight()}までに制限され、上限に達している場合は空くまで待機します。<br>
+	 * 更新結果はバッチ更新を追加した順に、このメソッドを呼び出したスレッドで通知されます。<br>
+	 * 一括実行中に例外が発生した場合、以降の未実施の更新はすべて破棄され、最初に発生した例外が以降の閾値到達時とこのメソッドの終了時に毎回スローされます。<br>
+	 * {@link #bollowConnection(Consumer)}内で一括実行される更新は、同一の{@link Connection}を使用させるため、実行中の一括実行の完了を待ってこのメソッドを呼び出したスレッドで実行されます。
+	 * @see #tryBatch(Runnable)
+	 * @param runnable 更新処理を含む汎用処理
+	 */
+	public void tryAsyncBatch(Runnable runnable) {
+		tryBatch(new BatchResources(true), () -> {
 			runnable.run();
-		} finally {
-			try {
-				resources.flushAll();
-			} finally {
-				//バッチ実行中にエラーが発生した場合でも必ずクリア
-				batchResources.remove();
-			}
-		}
+			return null;
+		});
 	}
 
 	/**
-	 * バッチ処理を実施します。<br>
-	 * {@link #tryBatch(Runnable)}と違い、何らかの処理結果を取り出したい場合に使用します<br>
-	 * 閾値に達した場合など一括実行中に例外が発生した場合、未実施の更新はすべて破棄されます。
+	 * 閾値に達したバッチ更新をバックグラウンドで実行しながら、バッチ処理を実施します。<br>
+	 * {@link #tryAsyncBatch(Runnable)}と違い、何らかの処理結果を取り出したい場合に使用します
 	 * @param <T> 返却値の型
-	 * @see #tryBatch(Runnable)
+	 * @see #tryAsyncBatch(Runnable)
 	 * @param supplier 結果を返却が可能な更新処理を含む汎用処理
 	 * @return {@link Supplier}の返却値
 	 */
-	public <T> T tryBatch(Supplier<T> supplier) {
-		var resources = new BatchResources();
-		batchResources.set(resources);
-		try {
-			return supplier.get();
-		} finally {
+	public <T> T tryAsyncBatch(Supplier<T> supplier) {
+		return tryBatch(new BatchResources(true), supplier);
+	}
+
+	private <T> T tryBatch(BatchResources resources, Supplier<T> supplier) {
+		//バッチ実行中にエラーが発生した場合でも、処理範囲外では必ず元に戻る
+		return batchResources.call(resources, () -> {
 			try {
-				resources.flushAll();
+				return supplier.get();
 			} finally {
-				//バッチ実行中にエラーが発生した場合でも必ずクリア
-				batchResources.remove();
+				resources.finish();
 			}
-		}
+		});
 	}
 
 	BatchResources batchResources() {
 		return batchResources.get();
 	}
 
+	/**
+	 * コピーコンストラクタで生成されたインスタンス同士は接続先を共有する
+	 */
+	boolean sharesEndpoints(AtomSql other) {
+		return endpoints == other.endpoints;
+	}
+
+	/**
+	 * {@link BatchAggregator}用の、閾値による実行を行わない{@link BatchResources}を生成する
+	 */
+	BatchResources newAggregatedBatchResources() {
+		return new BatchResources(false, true);
+	}
+
 	/**
 	 * {@link Stream}を検索結果として使用する処理を実施します。<br>
 	 * 処理内で発生した{@link Stream}は{@link Stream#close()}を明示的に行わなくても処理終了と同時にすべてクローズされます。
@@ -507,13 +1473,10 @@ public class AtomSql {
 	 * @param runnable {@link Stream}を使用した検索処理を含む汎用処理
 	 */
 	public void tryStream(Runnable runnable) {
-		streams.set(new LinkedList<>());
-		try {
+		tryStream(() -> {
 			runnable.run();
-		} finally {
-			closeStreams();
-			streams.remove();
-		}
+			return null;
+		});
 	}
 
 	/**
@@ -526,17 +1489,18 @@ public class AtomSql {
 	 * @return {@link Supplier}の返却値
 	 */
 	public <T> T tryStream(Supplier<T> supplier) {
-		streams.set(new LinkedList<>());
-		try {
-			return supplier.get();
-		} finally {
-			closeStreams();
-			streams.remove();
-		}
+		Queue<Stream<?>> queue = new ConcurrentLinkedQueue<>();
+		return streams.call(queue, () -> {
+			try {
+				return supplier.get();
+			} finally {
+				closeStreams(queue);
+			}
+		});
 	}
 
-	private void closeStreams() {
-		streams.get().forEach(s -> {
+	private static void closeStreams(Queue<Stream<?>> queue) {
+		queue.forEach(s -> {
 			try {
 				s.close();
 			} catch (Throwable t) {
@@ -546,10 +1510,74 @@ public class AtomSql {
 	}
 
 	void registerStream(Stream<?> stream) {
-		var list = streams.get();
-		if (list == null) return;
+		var queue = streams.get();
+		if (queue == null) return;
+
+		queue.add(stream);
+	}
+
+	/**
+	 * 同一の検索の結果を再利用する処理を実施します。<br>
+	 * 処理内で、{@link Endpoint}、SQL文、バインドする値、結果の型が等しい検索が再度実行された場合、データベースにアクセスせず一度目の結果を返します。<br>
+	 * 対象となるのは{@link Atom#list()}、{@link Atom#get()}及びそれらを使用する{@link SqlProxy}のメソッドで、返される{@link List}は変更不可となります。<br>
+	 * 処理内で更新処理が実行された場合、更新されたテーブルを参照する結果は破棄されます。<br>
+	 * 結果は処理終了と同時に破棄されるため、リクエスト単位等の短い処理範囲で使用することを想定しています。
+	 * @param runnable 検索処理を含む汎用処理
+	 */
+	public void tryMemoize(Runnable runnable) {
+		tryMemoize(() -> {
+			runnable.run();
+			return null;
+		});
+	}
+
+	/**
+	 * 同一の検索の結果を再利用する処理を実施します。<br>
+	 * {@link #tryMemoize(Runnable)}と違い、何らかの処理結果を取り出したい場合に使用します。
+	 * @param <T> 返却値の型
+	 * @see #tryMemoize(Runnable)
+	 * @param supplier 検索処理を含む汎用処理
+	 * @return {@link Supplier}の返却値
+	 */
+	public <T> T tryMemoize(Supplier<T> supplier) {
+		//既にtryMemoizeの中で呼ばれた場合、外側の結果を共有する
+		if (memos.get() != null) {
+			return supplier.get();
+		}
+
+		return memos.call(new QueryMemo(), supplier);
+	}
+
+	/**
+	 * supplierを{@link Configure#asyncExecutorClass()}で実行する<br>
+	 * 処理範囲は引き継がない
+	 */
+	<R> CompletableFuture<R> async(Supplier<R> supplier) {
+		return AsyncExecution.supply(asyncExecutor, supplier);
+	}
+
+	/**
+	 * @return {@link Configure#asyncExecutorClass()}から決定した{@link Executor}
+	 */
+	Executor asyncExecutor() {
+		return asyncExecutor;
+	}
+
+	/**
+	 * 購読ごとにqueryを{@link Configure#asyncExecutorClass()}で実行する{@link Flow.Publisher}を返す
+	 */
+	<T> Flow.Publisher<T> publisher(Supplier<Stream<T>> query) {
+		return new RowPublisher<>(query, asyncExecutor);
+	}
+
+	/**
+	 * {@link #tryMemoize(Runnable)}の処理範囲内の場合、保持した結果を返す
+	 */
+	<T> List<T> memoized(SqlProxyHelper helper, Supplier<List<T>> loader) {
+		var memo = memos.get();
+		if (memo == null) return loader.get();
 
-		list.add(stream);
+		return memo.get(helper.entry.name(), helper.sql, helper.resultClass, loader);
 	}
 
 	/**
@@ -561,19 +1589,10 @@ public class AtomSql {
 	 * @param runnable パラメーターに{@link NonThreadSafe}が付与されている型を使用する汎用処理
 	 */
 	public void tryNonThreadSafe(Runnable runnable) {
-		//既にtryNonThreadSafeの中で呼ばれた場合
-		if (nonThreadSafeHelpers.get() != null) {
-			runnable.run();
-
-			return;
-		}
-
-		nonThreadSafeHelpers.set(new HashMap<>());
-		try {
+		tryNonThreadSafe(() -> {
 			runnable.run();
-		} finally {
-			nonThreadSafeHelpers.remove();
-		}
+			return null;
+		});
 	}
 
 	/**
@@ -593,12 +1612,31 @@ public class AtomSql {
 			return supplier.get();
 		}
 
-		nonThreadSafeHelpers.set(new HashMap<>());
-		try {
-			return supplier.get();
-		} finally {
-			nonThreadSafeHelpers.remove();
-		}
+		return nonThreadSafeHelpers.call(new HashMap<>(), supplier);
+	}
+
+	/**
+	 * 現在の処理範囲を、別スレッドで実行される子タスクに引き継ぎます。<br>
+	 * 引き継がれるのは{@link #tryStream(Runnable)}の処理範囲と、{@link JdbcEndpoint}の{@link #bollowConnection(Consumer)}で使用中の{@link Connection}です。<br>
+	 * {@link #tryBatch(Runnable)}、{@link #tryNonThreadSafe(Runnable)}の処理範囲はスレッドセーフではないため引き継がれず、子タスク内での更新処理は即時実行されます。<br>
+	 * 子タスクは親の処理範囲内で完了している必要があります。<br>
+	 * また、{@link Connection}を複数の子タスクで同時に使用できるかはJDBCドライバに依存します。
+	 * @param runnable 子タスク
+	 * @return 処理範囲を引き継ぐ子タスク
+	 */
+	public static Runnable inheritScopes(Runnable runnable) {
+		return Scope.inherit(Objects.requireNonNull(runnable));
+	}
+
+	/**
+	 * 現在の処理範囲を、別スレッドで実行される子タスクに引き継ぎます。
+	 * @see #inheritScopes(Runnable)
+	 * @param <T> 返却値の型
+	 * @param callable 子タスク
+	 * @return 処理範囲を引き継ぐ子タスク
+	 */
+	public static <T> Callable<T> inheritScopes(Callable<T> callable) {
+		return Scope.inherit(Objects.requireNonNull(callable));
 	}
 
 	void registerHelperForNonThreadSafe(Object key, SqlProxyHelper helper) {
@@ -639,7 +1677,55 @@ public class AtomSql {
 	 * @param consumer
 	 */
 	public void bollowConnection(String qualifier, Consumer<ConnectionProxy> consumer) {
-		tryNonThreadSafe(() -> endpoints.get(qualifier).endpoint().bollowConnection(consumer));
+		var pending = resultCache.new Pending();
+		try {
+			pendingInvalidations.run(
+				pending,
+				() -> tryNonThreadSafe(
+					() -> endpoints.get(qualifier).endpoint().bollowConnection(c -> consumer.accept(new ConnectionProxy() {
+
+						@Override
+						public Blob createBlob() {
+							return c.createBlob();
+						}
+
+						@Override
+						public Clob createClob() {
+							return c.createClob();
+						}
+
+						@Override
+						public void commit() {
+							c.commit();
+							pending.flush();
+						}
+
+						@Override
+						public void rollback() {
+							c.rollback();
+							pending.flush();
+						}
+					}))));
+		} finally {
+			//自動コミット等、commitが呼ばれない場合
+			pending.flush();
+		}
+	}
+
+	/**
+	 * 更新処理の実行後に、更新されたテーブルを参照するキャッシュを破棄する<br>
+	 * {@link #bollowConnection(String, Consumer)}内の場合、コミット時等に改めて破棄する<br>
+	 * {@link #tryMemoize(Runnable)}内の場合、保持した結果も破棄する
+	 * @param sql 更新処理のSQL
+	 */
+	void modified(InnerSql sql) {
+		resultCache.modified(sql);
+
+		var pending = pendingInvalidations.get();
+		if (pending != null) pending.modified(sql);
+
+		var memo = memos.get();
+		if (memo != null) memo.modified(sql);
 	}
 
 	SqlProxyHelper helper(String sql) {
@@ -652,14 +1738,48 @@ public class AtomSql {
 			Object.class,
 			new Object[0],
 			typeFactory,
-			sqlLogger);
+			sqlLogger,
+			metrics,
+			null,
+			false,
+			interceptors);
 	}
 
-	private static void logElapsed(SqlLogger sqlLogger, long startNanos) {
-		sqlLogger.logElapsed(logger -> {
-			var elapsed = (System.nanoTime() - startNanos) / 1000000f;
-			logger.log(Level.INFO, "elapsed: " + new BigDecimal(elapsed).setScale(2, RoundingMode.DOWN) + "ms");
-		});
+	static ThreadFactory daemonThreadFactory(String name) {
+		return r -> {
+			var thread = new Thread(r, name);
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * メソッドに付与されたアノテーションと設定を反映した{@link SqlLogger}を生成する
+	 */
+	private SqlLogger sqlLogger(Class<?> proxyInterface, Method method, Endpoints.Entry entry) {
+		if (!config.enableLog()) return SqlLogger.disabled;
+
+		NoSqlLog noSqlLog;
+		String noSqlLogSign;
+		if ((noSqlLog = proxyInterface.getAnnotation(NoSqlLog.class)) != null) {
+			noSqlLogSign = proxyInterface.toString();
+		} else if ((noSqlLog = method.getAnnotation(NoSqlLog.class)) != null) {
+			noSqlLogSign = method.toString();
+		} else {
+			noSqlLog = null;
+			noSqlLogSign = null;
+		}
+
+		if (!config.ignoreNoSqlLog() && noSqlLog != null) {
+			return noSqlLog.logElapseTime() ? SqlLogger.noSqlLogInstance(noSqlLogSign) : SqlLogger.disabled;
+		}
+
+		var threshold = Optional.ofNullable(method.getAnnotation(SlowQueryThreshold.class))
+			.or(() -> Optional.ofNullable(proxyInterface.getAnnotation(SlowQueryThreshold.class)))
+			.map(SlowQueryThreshold::value)
+			.orElse(null);
+
+		return sqlLogger.forStatement(entry.name(), threshold);
 	}
 
 	private static String loadSql(Class<?> decreredClass, Method method) throws IOException {
@@ -692,8 +1812,44 @@ public class AtomSql {
 
 	private static record TypeAndArg(AtomSqlType type, Object arg) {}
 
+	/**
+	 * {@link EndpointInterceptor}の連鎖のうち、index番目以降を表す
+	 */
+	private static record InterceptorChain<R>(
+		List<EndpointInterceptor> interceptors,
+		int index,
+		StatementDescriptor statement,
+		Endpoint endpoint,
+		Function<Endpoint, R> call) implements EndpointInterceptor.Invocation<R> {
+
+		@Override
+		public R proceed() {
+			return proceed(endpoint);
+		}
+
+		@Override
+		public R proceed(Endpoint endpoint) {
+			Objects.requireNonNull(endpoint);
+
+			if (index == interceptors.size()) return call.apply(endpoint);
+
+			return interceptors.get(index).intercept(statement, new InterceptorChain<>(interceptors, index + 1, statement, endpoint, call));
+		}
+	}
+
 	static class SqlProxyHelper implements PreparedStatementSetter {
 
+		/**
+		 * バッチ実行後のSQLログに、バインドした値を出力する最大行数
+		 */
+		private static final int maxLoggedBatchRows = 10;
+
+		/**
+		 * {@link #withCallSite(Supplier)}で取得した呼び出し元<br>
+		 * 実行スレッド内で完結するので、子タスクには引き継がない
+		 */
+		private static final Scope<StackTraceElement[]> callSites = new Scope<>(false);
+
 		final InnerSql sql;
 
 		final Endpoints.Entry entry;
@@ -704,6 +1860,33 @@ public class AtomSql {
 
 		private final SqlLogger sqlLogger;
 
+		/**
+		 * 計測を行わない場合、null
+		 */
+		private final AtomSqlMetrics metrics;
+
+		/**
+		 * 集計単位の名称、nullの場合、SQL文から決定する
+		 */
+		private final String metricsName;
+
+		/**
+		 * 集計先のキャッシュ<br>
+		 * 同じものが求まるので、競合しても問題ない
+		 */
+		private StatementMetrics statementMetrics;
+
+		/**
+		 * {@link Coalesced}が付与されたメソッドから生成された場合、true<br>
+		 * 結合等で生成されたものは、元のものを引き継ぐ
+		 */
+		private final boolean coalesced;
+
+		/**
+		 * {@link Configure#endpointInterceptorClasses()}から生成したもの
+		 */
+		private final List<EndpointInterceptor> interceptors;
+
 		private Set<String> confidentials(String[] confidentials, String[] parameterNames) {
 			if (confidentials == null) return Collections.emptySet();
 
@@ -724,11 +1907,19 @@ public class AtomSql {
 			Class<?> resultClass,
 			Object[] args,
 			AtomSqlTypeFactory typeFactory,
-			SqlLogger sqlLogger) {
+			SqlLogger sqlLogger,
+			AtomSqlMetrics metrics,
+			String metricsName,
+			boolean coalesced,
+			List<EndpointInterceptor> interceptors) {
 			this.entry = entry;
 			this.resultClass = resultClass;
 			this.typeFactory = typeFactory;
 			this.sqlLogger = sqlLogger;
+			this.metrics = metrics;
+			this.metricsName = metricsName;
+			this.coalesced = coalesced;
+			this.interceptors = interceptors;
 
 			Map<String, TypeAndArg> map = new HashMap<>();
 			for (int i = 0; i < parameterNames.length; i++) {
@@ -773,6 +1964,10 @@ public class AtomSql {
 			this.resultClass = newDataObjectClass;
 			this.typeFactory = base.typeFactory;
 			this.sqlLogger = base.sqlLogger;
+			this.metrics = base.metrics;
+			this.metricsName = base.metricsName;
+			this.coalesced = base.coalesced;
+			this.interceptors = base.interceptors;
 		}
 
 		SqlProxyHelper(
@@ -783,6 +1978,10 @@ public class AtomSql {
 			this.resultClass = main.resultClass;
 			this.typeFactory = main.typeFactory;
 			this.sqlLogger = main.sqlLogger;
+			this.metrics = main.metrics;
+			this.metricsName = main.metricsName;
+			this.coalesced = main.coalesced;
+			this.interceptors = main.interceptors;
 		}
 
 		Object createDataObject(ResultSet rs) {
@@ -954,17 +2153,281 @@ public class AtomSql {
 			}
 		}
 
-		void logElapsed(long startNanos) {
-			AtomSql.logElapsed(sqlLogger, startNanos);
+		/**
+		 * 検索を実行し、経過時間の出力と計測を行う<br>
+		 * {@link StreamEvent}が有効な場合、返却する{@link Stream}のクローズ時に、取得した行数とともにイベントを記録する
+		 * @param mapper {@link RowMapper}
+		 * @return 検索結果の{@link Stream}
+		 */
+		<R> Stream<R> executeQuery(RowMapper<R> mapper) {
+			var counting = countRows(mapper);
+
+			var event = new StreamEvent();
+			if (!event.isEnabled())
+				return execute(() -> invoke(Kind.QUERY, (e, s) -> e.queryForStream(s, this, counting)), null);
+
+			event.begin();
+
+			var rows = new long[1];
+			var stream = execute(() -> invoke(Kind.QUERY, (e, s) -> e.queryForStream(s, this, (r, n) -> {
+				rows[0] = n;
+				return counting.mapRow(r, n);
+			})), null);
+
+			//Endpointのクローズ処理の後に実行されるので、ResultSet等のクローズまでを含む
+			return stream.onClose(() -> {
+				event.end();
+
+				if (!event.shouldCommit()) return;
+
+				describe(event);
+				event.rowsFetched = rows[0];
+				event.commit();
+			});
 		}
 
-		@Override
-		public void setValues(PreparedStatement ps, Optional<StackTraceElement[]> stackTrace) throws SQLException {
-			int[] i = { 1 };
+		/**
+		 * 検索を実行し、{@link Stream}を介さずに全行に対してconsumerを呼び出す<br>
+		 * 経過時間の出力と計測、取得した行数とともに{@link StreamEvent}の記録を行う
+		 * @param consumer {@link RowConsumer}
+		 */
+		void executeForEach(RowConsumer consumer) {
+			var statementMetrics = statementMetrics();
 
-			sql.placeholders(p -> i[0] = p.type().bind(i[0], ps, p.value()));
+			var event = new StreamEvent();
+			event.begin();
+
+			var rows = new int[1];
+			try {
+				execute(() -> invoke(Kind.QUERY_EACH, (e, s) -> {
+					e.query(s, this, (r, n) -> {
+						rows[0] = n;
+						if (statementMetrics != null) statementMetrics.rowReturned();
+
+						consumer.accept(r, n);
+					});
+
+					return null;
+				}), null);
+			} finally {
+				event.end();
+				if (event.shouldCommit()) {
+					describe(event);
+					event.rowsFetched = rows[0];
+					event.commit();
+				}
+			}
+		}
+
+		RowView newRowView() {
+			return new RowView(typeFactory);
+		}
+
+		/**
+		 * {@link EndpointInterceptor}を適用して、{@link Endpoint}の処理を実行する
+		 * @param kind 処理の種類
+		 * @param call {@link Endpoint}とプレースホルダ変換後のSQL文を受け取り、処理を実行する
+		 * @return 処理結果
+		 */
+		<R> R invoke(Kind kind, BiFunction<Endpoint, String, R> call) {
+			return invoke(kind, entry.endpoint(), sql.string(), 1, 0, null, call);
+		}
+
+		/**
+		 * {@link EndpointInterceptor}を適用して、{@link Endpoint}の処理を実行する<br>
+		 * {@link EndpointInterceptor}が登録されていない場合、{@link StatementDescriptor}の生成等は行わない
+		 * @param kind 処理の種類
+		 * @param endpoint 処理を行う{@link Endpoint}
+		 * @param executedSql プレースホルダ変換後のSQL文
+		 * @param rows 一度に実行する文の数
+		 * @param valueRows バッチ更新の場合、一度に実行する行数
+		 * @param values バッチ更新の場合、行ごとのプレースホルダ順の値 それ以外の場合、null
+		 * @param call {@link Endpoint}とプレースホルダ変換後のSQL文を受け取り、処理を実行する
+		 * @return 処理結果
+		 */
+		<R> R invoke(
+			Kind kind,
+			Endpoint endpoint,
+			String executedSql,
+			int rows,
+			int valueRows,
+			IntFunction<Object[]> values,
+			BiFunction<Endpoint, String, R> call) {
+			var entryInterceptors = entry.interceptors();
+			if (interceptors.isEmpty() && entryInterceptors.isEmpty()) return call.apply(endpoint, executedSql);
+
+			var chain = new ArrayList<EndpointInterceptor>(interceptors.size() + entryInterceptors.size());
+			chain.addAll(interceptors);
+			chain.addAll(entryInterceptors);
+
+			List<Bind> binds;
+			List<List<Bind>> batchBinds;
+			if (values == null) {
+				var list = new ArrayList<Bind>();
+				sql.placeholders(p -> list.add(new Bind(p.name(), p.value(), p.confidential())));
+
+				binds = Collections.unmodifiableList(list);
+				batchBinds = Collections.emptyList();
+			} else {
+				//このインスタンスはテンプレートなので、バインドする値は行ごとのものを使用する
+				var placeholders = sql.placeholders();
+				var list = new ArrayList<List<Bind>>(valueRows);
+				for (var row = 0; row < valueRows; row++) {
+					var rowValues = values.apply(row);
+					var rowBinds = new ArrayList<Bind>(rowValues.length);
+
+					var index = 0;
+					for (var p : placeholders) {
+						rowBinds.add(new Bind(p.name(), rowValues[index++], p.confidential()));
+					}
+
+					list.add(Collections.unmodifiableList(rowBinds));
+				}
+
+				binds = Collections.emptyList();
+				batchBinds = Collections.unmodifiableList(list);
+			}
+
+			var statement = new StatementDescriptor(
+				kind,
+				entry.name(),
+				metricsName,
+				sql.originalString(),
+				executedSql,
+				binds,
+				batchBinds,
+				rows);
+
+			return new InterceptorChain<R>(chain, 0, statement, endpoint, e -> call.apply(e, executedSql)).proceed();
+		}
+
+		/**
+		 * 更新処理を実行し、経過時間の出力と結果件数を含めた計測を行う
+		 * @param execution 実行処理
+		 * @return 結果件数
+		 */
+		long executeUpdate(LongSupplier execution) {
+			return execute(execution::getAsLong, Long::longValue);
+		}
+
+		/**
+		 * 実行し、経過時間の出力と計測、{@link StatementEvent}の記録を行う
+		 * @param execution 実行処理
+		 * @param counter 実行結果から結果件数を取得する処理、検索の場合、null
+		 * @return 実行結果
+		 */
+		private <R> R execute(Supplier<R> execution, ToLongFunction<R> counter) {
+			var event = new StatementEvent();
+			event.begin();
+
+			var startNanos = System.nanoTime();
+			R result = null;
+			var failed = true;
+			try {
+				result = execution.get();
+				failed = false;
+				return result;
+			} finally {
+				var elapsedNanos = System.nanoTime() - startNanos;
+
+				var rowsUpdated = failed || counter == null ? 0 : counter.applyAsLong(result);
+
+				var statementMetrics = statementMetrics();
+				if (statementMetrics != null) {
+					statementMetrics.recordExecution(elapsedNanos, failed);
+					statementMetrics.rowsUpdated(rowsUpdated);
+				}
+
+				event.end();
+				if (event.shouldCommit()) {
+					describe(event);
+					event.rowsUpdated = rowsUpdated;
+					event.failed = failed;
+					event.commit();
+				}
+
+				//実行前に出力されていない場合、呼び出し元はまだスタック上にあるので、ここで取得する
+				sqlLogger.logElapsed(elapsedNanos, logger -> render(logger, null, callerFrames(), null));
+			}
+		}
+
+		/**
+		 * 計測を行う場合、返却した行数を数える{@link RowMapper}を返す
+		 */
+		private <R> RowMapper<R> countRows(RowMapper<R> mapper) {
+			var statementMetrics = statementMetrics();
+			if (statementMetrics == null) return mapper;
+
+			return (r, n) -> {
+				statementMetrics.rowReturned();
+				return mapper.mapRow(r, n);
+			};
+		}
+
+		/**
+		 * @return 集計先、計測を行わない場合、null
+		 */
+		private StatementMetrics statementMetrics() {
+			if (metrics == null) return null;
+
+			var statementMetrics = this.statementMetrics;
+			if (statementMetrics == null) {
+				statementMetrics = metrics.of(metricsName == null ? AtomSqlMetrics.nameOf(sql.originalString()) : metricsName);
+				this.statementMetrics = statementMetrics;
+			}
 
-			sqlLogger.perform(logger -> {
+			return statementMetrics;
+		}
+
+		/**
+		 * イベントの共通項目を設定する<br>
+		 * 記録されるイベントに対してのみ行う
+		 */
+		private void describe(AtomSqlEvent event) {
+			event.endpoint = entry.name();
+			event.method = metricsName;
+			event.sql = AtomSqlMetrics.fingerprint(sql.originalString());
+			event.bindCount = sql.placeholders().size();
+		}
+
+		/**
+		 * バッチ更新の一括実行の経過時間を出力し、計測、{@link BatchEvent}の記録を行う
+		 * @param event 一括実行開始時に{@link BatchEvent#begin()}済みのイベント
+		 * @param startNanos 開始時刻
+		 * @param results 一括実行の結果件数、例外が発生した場合、null
+		 * @param rows 一括実行した行数
+		 */
+		void batchExecuted(BatchEvent event, long startNanos, long[] results, int rows) {
+			var elapsedNanos = System.nanoTime() - startNanos;
+
+			var rowsUpdated = results == null ? 0 : Arrays.stream(results).filter(c -> c > 0).sum();
+
+			var statementMetrics = statementMetrics();
+			if (statementMetrics != null) {
+				statementMetrics.recordBatch(elapsedNanos, rows, results == null);
+				statementMetrics.rowsUpdated(rowsUpdated);
+			}
+
+			event.end();
+			if (event.shouldCommit()) {
+				describe(event);
+				event.batchSize = rows;
+				event.rowsUpdated = rowsUpdated;
+				event.failed = results == null;
+				event.commit();
+			}
+		}
+
+		/**
+		 * バッチ実行一回分の経過時間を出力する<br>
+		 * 実行後にSQLログを出力する場合、その回でバインドした値を行ごとに出力する
+		 * @param elapsedNanos 経過時間
+		 * @param callerFrames 行を追加した時点の呼び出し元
+		 * @param rows その回で実行した行数
+		 * @param values 行ごとのプレースホルダ順の値
+		 */
+		void batchChunkExecuted(long elapsedNanos, Optional<StackTraceElement[]> callerFrames, int rows, IntFunction<Object[]> values) {
+			sqlLogger.logElapsed(elapsedNanos, logger -> {
 				logger.log(Level.INFO, "------ SQL START ------");
 
 				if (entry.name() != null) {
@@ -973,44 +2436,162 @@ public class AtomSql {
 
 				logger.log(Level.INFO, "call from:");
 
-				for (var element : stackTrace.get()) {
-					var elementString = element.toString();
-
-					//無名モジュールから呼ばれた場合、moduleNameはnull
-					//Atom SQLモジュール名に前方一致するものは、Atom SQL関連ソースとして除外する
-					if ((moduleName != null && elementString.startsWith(moduleName))
-						|| elementString.startsWith("java.") //java.で始まるモジュール名は除外
-						|| elementString.contains("(Unknown Source)")
-						|| elementString.contains("<generated>"))
-						continue;
-
-					if (configure().logStackTracePattern().matcher(elementString).find())
-						logger.log(Level.INFO, " " + elementString);
+				for (var element : callerFrames.orElseGet(this::callerFrames)) {
+					logger.log(Level.INFO, " " + element);
 				}
 
+				logger.log(Level.INFO, "batch rows: " + rows);
+				logger.log(Level.INFO, "sql:" + Constants.NEW_LINE + sql.originalString());
+
 				var placeholders = sql.placeholders();
 
-				if (placeholders.stream().filter(p -> p.confidential()).findFirst().isPresent()) {
-					logger.log(Level.INFO, "confidential sql:" + Constants.NEW_LINE + sql.originalString());
-					logger.log(Level.INFO, "binding values:");
-
-					placeholders.forEach(p -> {
-						String name = p.name();
-						String value;
-						if (p.confidential()) {
-							value = Constants.CONFIDENTIAL;
-						} else {
-							value = AtomSqlUtils.toStringForBindingValue(p.value());
-						}
+				//行数が多い場合、先頭の行のみ出力する
+				var logged = Math.min(rows, maxLoggedBatchRows);
+				for (var row = 0; row < logged; row++) {
+					logger.log(Level.INFO, "binding values (row " + (row + 1) + "):");
 
-						logger.log(Level.INFO, name + ": " + value);
-					});
-				} else {
-					entry.endpoint().logSql(logger, sql.originalString(), sql.string(), ps);
+					var rowValues = values.apply(row);
+					var index = 0;
+					for (var p : placeholders) {
+						var value = p.confidential() ? Constants.CONFIDENTIAL : AtomSqlUtils.toStringForBindingValue(rowValues[index]);
+						logger.log(Level.INFO, p.name() + ": " + value);
+
+						index++;
+					}
 				}
 
+				if (rows > logged) logger.log(Level.INFO, "... " + (rows - logged) + " more rows");
+
 				logger.log(Level.INFO, "------  SQL END  ------");
 			});
 		}
+
+		/**
+		 * 実行スレッドとは別のスレッドで実行される場合に備え、SQLログに出力する呼び出し元を今取得する<br>
+		 * SQLログ出力を行わない場合、呼び出し元の取得は行わない
+		 */
+		Optional<StackTraceElement[]> callSite() {
+			return sqlLogger.callSite();
+		}
+
+		/**
+		 * supplierを、呼び出し元を今取得した上で、実行時にそれをSQLログに出力するものに変換する<br>
+		 * 別スレッドで実行される処理に使用する
+		 */
+		<R> Supplier<R> withCallSite(Supplier<R> supplier) {
+			var callSite = sqlLogger.callSite();
+			if (callSite.isEmpty()) return supplier;
+
+			var frames = callSite.get();
+			return () -> callSites.call(frames, supplier);
+		}
+
+		/**
+		 * SQLログに出力する呼び出し元<br>
+		 * {@link #withCallSite(Supplier)}で変換された処理内の場合、変換時に取得したもの
+		 */
+		private StackTraceElement[] callerFrames() {
+			var frames = callSites.get();
+			return frames == null ? sqlLogger.callerFrames() : frames;
+		}
+
+		/**
+		 * バッチ更新等、SQLログ出力が後で行われる場合に、呼び出し元を今取得する<br>
+		 * SQLログ出力を行わない場合、呼び出し元の取得は行わない
+		 */
+		Optional<StackTraceElement[]> stackTrace() {
+			return sqlLogger.stackTrace();
+		}
+
+		@Override
+		public void setValues(PreparedStatement ps) throws SQLException {
+			//即時実行の場合、呼び出し元はまだスタック上にあるので、ログ出力時に取得する
+			setValues(ps, Optional.empty());
+		}
+
+		@Override
+		public void setValues(PreparedStatement ps, Optional<StackTraceElement[]> stackTrace) throws SQLException {
+			int[] i = { 1 };
+
+			sql.placeholders(p -> i[0] = p.type().bind(i[0], ps, p.value()));
+
+			//非同期実行の場合、中断対象とする
+			AsyncExecution.prepared(ps);
+
+			logSql(ps, stackTrace, null);
+		}
+
+		/**
+		 * このインスタンスのSQL文をテンプレートとして、別の値をバインドします。
+		 * @param ps {@link PreparedStatement}
+		 * @param index バインドを開始するプレースホルダの位置
+		 * @param types プレースホルダ順の型
+		 * @param values プレースホルダ順の値
+		 * @param stackTrace 呼び出し元情報
+		 * @return 次にバインドするプレースホルダの位置
+		 * @throws SQLException
+		 */
+		int setValues(PreparedStatement ps, int index, AtomSqlType[] types, Object[] values, Optional<StackTraceElement[]> stackTrace) throws SQLException {
+			for (var i = 0; i < values.length; i++) {
+				index = types[i].bind(index, ps, values[i]);
+			}
+
+			logSql(ps, stackTrace, values);
+
+			return index;
+		}
+
+		/**
+		 * @param values nullの場合、このインスタンスの持つ値をログ出力する
+		 */
+		private void logSql(PreparedStatement ps, Optional<StackTraceElement[]> stackTrace, Object[] values) {
+			//呼び出し元は取得時にフィルタ済み、事前に取得されていない場合は現在のスタックから取得する
+			sqlLogger.perform(logger -> render(logger, ps, stackTrace.orElseGet(this::callerFrames), values));
+		}
+
+		/**
+		 * @param ps nullの場合、実行後の出力なので{@link PreparedStatement}を使用せず、SQLとバインドする値をそれぞれ出力する
+		 * @param values nullの場合、このインスタンスの持つ値を出力する
+		 */
+		private void render(Logger logger, PreparedStatement ps, StackTraceElement[] callerFrames, Object[] values) {
+			logger.log(Level.INFO, "------ SQL START ------");
+
+			if (entry.name() != null) {
+				logger.log(Level.INFO, "name: " + entry.name());
+			}
+
+			logger.log(Level.INFO, "call from:");
+
+			for (var element : callerFrames) {
+				logger.log(Level.INFO, " " + element);
+			}
+
+			var placeholders = sql.placeholders();
+
+			var confidential = placeholders.stream().filter(p -> p.confidential()).findFirst().isPresent();
+			if (confidential || ps == null) {
+				logger.log(Level.INFO, (confidential ? "confidential sql:" : "sql:") + Constants.NEW_LINE + sql.originalString());
+				logger.log(Level.INFO, "binding values:");
+
+				var index = 0;
+				for (var p : placeholders) {
+					String name = p.name();
+					String value;
+					if (p.confidential()) {
+						value = Constants.CONFIDENTIAL;
+					} else {
+						value = AtomSqlUtils.toStringForBindingValue(values == null ? p.value() : values[index]);
+					}
+
+					logger.log(Level.INFO, name + ": " + value);
+
+					index++;
+				}
+			} else {
+				entry.endpoint().logSql(logger, sql.originalString(), sql.string(), ps);
+			}
+
+			logger.log(Level.INFO, "------  SQL END  ------");
+		}
 	}
 }
@@ -0,0 +1,31 @@
+package jp.ats.atomsql;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Atom SQLが発行するJDK Flight Recorderのイベントの共通項目です。<br>
+ * イベントの有効化、閾値等は通常のJFRの設定で行います。
+ * @author 千葉 哲嗣
+ */
+@Category("Atom SQL")
+abstract class AtomSqlEvent extends Event {
+
+	@Label("Endpoint")
+	@Description("Name of the endpoint")
+	String endpoint;
+
+	@Label("Method")
+	@Description("SQL proxy interface and method")
+	String method;
+
+	@Label("SQL")
+	@Description("Whitespace-normalized SQL")
+	String sql;
+
+	@Label("Bind Count")
+	@Description("Number of placeholders")
+	int bindCount;
+}
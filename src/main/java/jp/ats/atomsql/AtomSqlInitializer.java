@@ -1,13 +1,16 @@
 package jp.ats.atomsql;
 
+import java.util.Objects;
+
 /**
  * 内部使用クラス
  */
 class AtomSqlInitializer {
 
-	private static final ThreadLocal<Configure> configHolder = ThreadLocal.withInitial(() -> configureInternal());
-
-	private static Configure staticConfig;
+	/**
+	 * 参照はロックを取らずに行う
+	 */
+	private static volatile Configure staticConfig;
 
 	/**
 	 * 
@@ -41,9 +44,12 @@ class AtomSqlInitializer {
 		initialize(new PropertiesConfigure());
 	}
 
-	private synchronized static Configure configureInternal() {
+	/**
+	 * @param config
+	 */
+	synchronized static void reinitialize(Configure config) {
 		if (staticConfig == null) throw new IllegalStateException("Atom SQL is not initialized");
-		return staticConfig;
+		staticConfig = Objects.requireNonNull(config);
 	}
 
 	/**
@@ -51,6 +57,8 @@ class AtomSqlInitializer {
 	 * @return {@link Configure}
 	 */
 	static Configure configure() {
-		return configHolder.get();
+		var config = staticConfig;
+		if (config == null) throw new IllegalStateException("Atom SQL is not initialized");
+		return config;
 	}
 }
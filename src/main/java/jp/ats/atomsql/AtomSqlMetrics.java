@@ -0,0 +1,160 @@
+package jp.ats.atomsql;
+
+import java.lang.System.Logger.Level;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Atom SQLの実行の計測結果を保持するレジストリです。<br>
+ * 計測は{@link Configure#enableMetrics()}がtrueの場合にのみ行われます。<br>
+ * 計測結果は{@link jp.ats.atomsql.annotation.SqlProxy}のメソッドごと（インターフェイス名#メソッド名）、{@link jp.ats.atomsql.annotation.SqlProxy}を使用せずに生成された{@link Atom}の場合はSQL文ごと（sql:空白を正規化したSQL文）に集計されます。<br>
+ * {@link Configure#registersMetricsMBeans()}がtrueの場合、集計単位ごとに{@link StatementMetricsMXBean}としてプラットフォームMBeanサーバーに登録されます。<br>
+ * レジストリはプロセスで唯一のもので、{@link AtomSql}のインスタンスごとには分かれません。同じ集計単位の計測結果は、計測を行うすべてのインスタンスのものが合算されます。<br>
+ * MBeanの登録は、最後に生成もしくは{@link AtomSql#refresh()}されたインスタンスの設定に従い、{@link Configure#registersMetricsMBeans()}がfalseの設定が反映された時点で登録済みのMBeanは解除されます。
+ * @author 千葉 哲嗣
+ */
+public final class AtomSqlMetrics {
+
+	/**
+	 * MBeanのドメイン
+	 */
+	public static final String DOMAIN = "jp.ats.atomsql";
+
+	private static final AtomSqlMetrics instance = new AtomSqlMetrics();
+
+	private final Map<String, StatementMetrics> metrics = new ConcurrentHashMap<>();
+
+	private volatile boolean registersMBeans;
+
+	private AtomSqlMetrics() {}
+
+	/**
+	 * @return 唯一のインスタンス
+	 */
+	public static AtomSqlMetrics instance() {
+		return instance;
+	}
+
+	/**
+	 * 名称に対応する計測結果を返します。
+	 * @param name 集計単位の名称
+	 * @return 計測結果、まだ一度も計測されていない場合、空
+	 */
+	public Optional<StatementMetrics> get(String name) {
+		return Optional.ofNullable(metrics.get(name));
+	}
+
+	/**
+	 * @return 名称順に並べたすべての計測結果
+	 */
+	public Map<String, StatementMetrics> all() {
+		return Collections.unmodifiableMap(new TreeMap<>(metrics));
+	}
+
+	/**
+	 * すべての計測結果を破棄します。<br>
+	 * 集計単位そのもの及び登録済みのMBeanは残ります。
+	 */
+	public void reset() {
+		metrics.values().forEach(StatementMetrics::reset);
+	}
+
+	/**
+	 * 名称に対応する計測結果を返す、存在しない場合作成する
+	 */
+	StatementMetrics of(String name) {
+		var found = metrics.get(name);
+		if (found != null) return found;
+
+		return metrics.computeIfAbsent(name, n -> {
+			var created = new StatementMetrics(n);
+			if (registersMBeans) register(created);
+
+			return created;
+		});
+	}
+
+	/**
+	 * 以降MBeanの登録を行う、既存の計測結果もこの時点で登録する
+	 */
+	void registerMBeans() {
+		synchronized (this) {
+			if (registersMBeans) return;
+
+			registersMBeans = true;
+		}
+
+		metrics.values().forEach(AtomSqlMetrics::register);
+	}
+
+	/**
+	 * 以降MBeanの登録を行わない、登録済みのものはこの時点で解除する
+	 */
+	void unregisterMBeans() {
+		synchronized (this) {
+			if (!registersMBeans) return;
+
+			registersMBeans = false;
+		}
+
+		metrics.values().forEach(AtomSqlMetrics::unregister);
+	}
+
+	/**
+	 * {@link jp.ats.atomsql.annotation.SqlProxy}を使用しない場合の集計単位の名称を返す
+	 */
+	static String nameOf(String sql) {
+		return "sql:" + fingerprint(sql);
+	}
+
+	/**
+	 * SQL文の空白を正規化する
+	 */
+	static String fingerprint(String sql) {
+		return sql.strip().replaceAll("\\s+", " ");
+	}
+
+	/**
+	 * 計測結果を登録するMBeanの名称を返します。
+	 * @param name 集計単位の名称
+	 * @return MBeanの名称
+	 */
+	public static ObjectName objectName(String name) {
+		try {
+			return new ObjectName(DOMAIN + ":type=" + StatementMetrics.class.getSimpleName() + ",name=" + ObjectName.quote(name));
+		} catch (JMException e) {
+			//quoteしているので発生しない
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void register(StatementMetrics metrics) {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, objectName(metrics.getName()));
+		} catch (InstanceAlreadyExistsException e) {
+			//別のクラスローダーで読み込まれたAtom SQLが登録済み
+		} catch (JMException e) {
+			//計測できなくてもSQLの実行は継続する
+			AtomSql.logger.log(Level.WARNING, "Failed to register MBean: " + metrics.getName(), e);
+		}
+	}
+
+	private static void unregister(StatementMetrics metrics) {
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName(metrics.getName()));
+		} catch (InstanceNotFoundException e) {
+			//登録に失敗していたもの
+		} catch (JMException e) {
+			AtomSql.logger.log(Level.WARNING, "Failed to unregister MBean: " + metrics.getName(), e);
+		}
+	}
+}
@@ -82,6 +82,10 @@ public class AtomSqlUtils {
 	}
 
 	static Optional<StackTraceElement[]> stackTrace() {
-		return AtomSql.configure().enableLog() ? Optional.of(new Throwable().getStackTrace()) : Optional.empty();
+		var config = AtomSql.configure();
+
+		if (!config.enableLog() || !SqlLogger.isLoggable()) return Optional.empty();
+
+		return Optional.of(SqlLogger.callerFrames(config.logStackTracePattern(), config.logStackTraceLimit()));
 	}
 }
@@ -0,0 +1,171 @@
+package jp.ats.atomsql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import jp.ats.atomsql.AtomSql.BatchResources;
+import jp.ats.atomsql.annotation.NonThreadSafe;
+
+/**
+ * 複数のスレッドから発行される更新処理を集約し、まとめてバッチ実行するクラスです。<br>
+ * {@link AtomSql#tryBatch(Runnable)}がそれを呼び出したスレッド内の更新処理のみを対象とするのに対し、このクラスはインスタンスを共有するすべてのスレッドの更新処理を対象とします。<br>
+ * 集約された更新処理は、件数が上限に達するか、最初の更新処理の追加から待機時間が経過した時点で、専用のスレッドで一括実行されます。<br>
+ * 待機時間の経過は一括実行とは別に判定され、その時点までに追加されたものが一括実行の対象となります。ただし、一括実行は追加順を保つため、先行する一括実行の完了後に行われます。<br>
+ * 各更新処理の結果件数は、追加時に返される{@link CompletableFuture}に通知されます。<br>
+ * 一括実行中に例外が発生した場合、そのとき実行された更新処理のうち、結果件数の通知されていないものはすべて例外で完了します。<br>
+ * 結果の通知は専用のスレッドで行われるため、{@link CompletableFuture}に重い処理を連結する場合は別の{@link java.util.concurrent.Executor}を指定してください。<br>
+ * このクラスのインスタンスはスレッドセーフです。
+ * @author 千葉 哲嗣
+ */
+public class BatchAggregator implements AutoCloseable {
+
+	private final int maxRows;
+
+	private final long maxDelayMillis;
+
+	/**
+	 * 一括実行用、実行順を追加順とするため単一スレッド
+	 */
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(AtomSql.daemonThreadFactory("atom-sql-batch-aggregator"));
+
+	private final Object lock = new Object();
+
+	private final AtomSql atomSql;
+
+	private final BatchResources resources;
+
+	private List<CompletableFuture<Integer>> futures = new ArrayList<>();
+
+	private boolean closed;
+
+	/**
+	 * 単一のコンストラクタです。
+	 * @param atomSql 更新処理を生成する{@link AtomSql}
+	 * @param maxRows 一括実行を行う件数
+	 * @param maxDelayMillis 最初の更新処理の追加から一括実行までの最大待機時間（ミリ秒） 0以下の場合、件数に達するかクローズされるまで待機する
+	 */
+	public BatchAggregator(AtomSql atomSql, int maxRows, long maxDelayMillis) {
+		if (maxRows <= 0) throw new IllegalArgumentException("maxRows: " + maxRows);
+
+		this.atomSql = atomSql;
+		resources = atomSql.newAggregatedBatchResources();
+		this.maxRows = maxRows;
+		this.maxDelayMillis = maxDelayMillis;
+	}
+
+	/**
+	 * 更新処理を追加します。<br>
+	 * atomはこのインスタンスの生成に使用した{@link AtomSql}、もしくはそのコピーから生成されたものである必要があります。<br>
+	 * 一括実行は別スレッドで行われるため、{@link NonThreadSafe}が付与されている型を使用した更新処理は追加できません。
+	 * @param atom 更新処理（INSERT, UPDATE, DELETE）のDML文を持つ{@link Atom}
+	 * @return 結果件数が通知される{@link CompletableFuture}
+	 * @throws IllegalStateException クローズ済みの場合、もしくは{@link NonThreadSafe}が付与されている型を使用している場合
+	 * @throws IllegalArgumentException atomがこのインスタンスの生成に使用した{@link AtomSql}、もしくはそのコピーから生成されたものではない場合
+	 */
+	public CompletableFuture<Integer> submit(Atom<?> atom) {
+		if (!atomSql.sharesEndpoints(atom.atomSql()))
+			//一括実行はこのインスタンスのAtomSqlの接続先で行われるため、別の接続先を持つものは追加できません
+			throw new IllegalArgumentException("Atom was not created by the AtomSql of this " + BatchAggregator.class.getSimpleName());
+
+		var helper = atom.helper();
+
+		if (helper.sql.containsNonThreadSafeValue())
+			//NonThreadSafeな値は別スレッドで使用できません
+			throw new IllegalStateException(NonThreadSafe.class.getName() + " values cannot be used in " + BatchAggregator.class.getName());
+
+		var future = new CompletableFuture<Integer>();
+
+		synchronized (lock) {
+			if (closed) throw new IllegalStateException("Already closed");
+
+			resources.put(helper.entry.name(), helper, future::complete, helper.stackTrace());
+			futures.add(future);
+
+			if (futures.size() >= maxRows) {
+				flushLater();
+			} else if (futures.size() == 1 && maxDelayMillis > 0) {
+				var current = futures;
+				//一括実行中であっても待機時間の経過時点で切り離すため、一括実行用のスレッドとは別に計時する
+				CompletableFuture.delayedExecutor(maxDelayMillis, TimeUnit.MILLISECONDS).execute(() -> {
+					synchronized (lock) {
+						//既に件数等により実行済み
+						if (futures != current) return;
+
+						flushLater();
+					}
+				});
+			}
+		}
+
+		return future;
+	}
+
+	/**
+	 * 集約済みの更新処理を、件数、待機時間にかかわらず一括実行します。<br>
+	 * 実行は非同期に行われるので、結果は各{@link CompletableFuture}で確認してください。
+	 */
+	public void flush() {
+		synchronized (lock) {
+			if (futures.isEmpty()) return;
+
+			flushLater();
+		}
+	}
+
+	/**
+	 * 集約済みの更新処理をすべて実行し、その完了を待ってから終了します。<br>
+	 * 以降の更新処理の追加はできません。
+	 */
+	@Override
+	public void close() {
+		synchronized (lock) {
+			if (closed) return;
+
+			closed = true;
+
+			if (!futures.isEmpty()) flushLater();
+		}
+
+		executor.shutdown();
+		try {
+			while (!executor.awaitTermination(1, TimeUnit.MINUTES));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} finally {
+			resources.finish();
+		}
+	}
+
+	/**
+	 * lock内で呼ぶこと
+	 */
+	private void flushLater() {
+		executor.execute(detach());
+	}
+
+	/**
+	 * lock内で呼ぶこと
+	 */
+	private Runnable detach() {
+		var flush = resources.detach();
+		var futures = this.futures;
+		this.futures = new ArrayList<>();
+
+		return () -> {
+			try {
+				flush.run();
+			} catch (Throwable t) {
+				//実行できなかったものを例外で完了させる、完了済みのものは影響を受けない
+				futures.forEach(f -> f.completeExceptionally(t));
+			}
+
+			//結果件数が通知されなかったもの
+			futures.stream().filter(f -> !f.isDone()).forEach(f -> f.completeExceptionally(new IllegalStateException("No result")));
+		};
+	}
+}
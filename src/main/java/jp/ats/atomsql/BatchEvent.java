@@ -0,0 +1,24 @@
+package jp.ats.atomsql;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * バッチ更新の、SQL文ごとの一括実行を表すイベントです。
+ * @author 千葉 哲嗣
+ */
+@Name("jp.ats.atomsql.Batch")
+@Label("SQL Batch")
+@Description("Batch execution of one SQL statement")
+class BatchEvent extends AtomSqlEvent {
+
+	@Label("Batch Size")
+	int batchSize;
+
+	@Label("Rows Updated")
+	long rowsUpdated;
+
+	@Label("Failed")
+	boolean failed;
+}
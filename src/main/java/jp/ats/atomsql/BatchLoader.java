@@ -0,0 +1,220 @@
+package jp.ats.atomsql;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * キーによる一件ずつの検索を蓄積し、{@link Csv}を使用したIN句を持つひとつの検索にまとめて実行するクラスです。<br>
+ * ループ内で一件ずつ検索を行う、いわゆるN+1問題の解消に使用します。<br>
+ * {@link #load(Object)}で登録された検索は、次のいずれかの時点でまとめて実行されます。
+ * <ul>
+ * <li>{@link #dispatch()}が呼ばれた時点</li>
+ * <li>蓄積されたキーの数が一回の検索の最大件数に達した時点</li>
+ * <li>時間枠を指定した場合、最初のキーが登録されてから時間枠が経過した時点</li>
+ * <li>時間枠を指定しない場合、最初のキーが登録された直後</li>
+ * </ul>
+ * 時間枠の経過等による検索の予約は同時にひとつのみ行われ、予約された検索の実行中に登録されたキーは、その検索の完了後に予約される次の検索にまとめられます。<br>
+ * 結果の待機の有無にかかわらず検索は実行されるため、{@link CompletableFuture#allOf(CompletableFuture...)}等で連結した処理も完了します。<br>
+ * {@link #dispatch()}以外の契機による検索は、{@link Configure#asyncExecutorClass()}のスレッドで実行されます。<br>
+ * 検索結果の各行は、行からキーを取り出す関数によって、登録されたキーと{@link Object#equals(Object)}で照合されます。<br>
+ * このクラスのインスタンスはスレッドセーフです。
+ * <pre>
+ * var loader = BatchLoader.of(atomSql, ids -&gt; proxy.selectByIds(ids), Item::id, 10, BatchLoader.DEFAULT_MAX_BATCH_SIZE);
+ * var futures = ids.stream().map(loader::load).toList();
+ * //10ミリ秒の間に登録されたキーがまとめて検索される
+ * var items = futures.stream().map(CompletableFuture::join).toList();
+ * </pre>
+ * @author 千葉 哲嗣
+ * @param <K> キーの型
+ * @param <T> 検索結果の型
+ */
+public final class BatchLoader<K, T> {
+
+	/**
+	 * 一回の検索の最大件数のデフォルト<br>
+	 * IN句に指定可能な要素数に制限のあるデータベースを考慮する
+	 */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 1000;
+
+	private final Function<Csv<K>, ? extends Collection<T>> query;
+
+	private final Function<? super T, ? extends K> keyExtractor;
+
+	private final int maxBatchSize;
+
+	/**
+	 * 時間枠の経過、もしくは時間枠を指定しない場合の検索の実行用
+	 */
+	private final Executor executor;
+
+	/**
+	 * 実行待ちのキー<br>
+	 * 同一のキーは一回のみ検索する
+	 */
+	private Map<K, CompletableFuture<Optional<T>>> pending = new LinkedHashMap<>();
+
+	/**
+	 * {@link #executor}に検索の実行を予約済み、もしくは予約された検索を実行中<br>
+	 * 実行中に登録されたキーのために、検索が重ねて予約されることを防ぐ
+	 */
+	private boolean scheduled;
+
+	/**
+	 * 時間枠を指定せずにインスタンスを生成します。
+	 * @param atomSql 検索の実行に使用する{@link java.util.concurrent.Executor}を持つ{@link AtomSql}
+	 * @param query キーの{@link Csv}を受け取り検索を行う関数
+	 * @param keyExtractor 検索結果の行からキーを取り出す関数
+	 * @return {@link BatchLoader}
+	 */
+	public static <K, T> BatchLoader<K, T> of(
+		AtomSql atomSql,
+		Function<Csv<K>, ? extends Collection<T>> query,
+		Function<? super T, ? extends K> keyExtractor) {
+		return new BatchLoader<>(atomSql, query, keyExtractor, 0, DEFAULT_MAX_BATCH_SIZE);
+	}
+
+	/**
+	 * 時間枠と一回の検索の最大件数を指定してインスタンスを生成します。
+	 * @param atomSql 検索の実行に使用する{@link java.util.concurrent.Executor}を持つ{@link AtomSql}
+	 * @param query キーの{@link Csv}を受け取り検索を行う関数
+	 * @param keyExtractor 検索結果の行からキーを取り出す関数
+	 * @param windowMillis キーを蓄積する時間枠（ミリ秒） 0の場合、時間枠を指定しない
+	 * @param maxBatchSize 一回の検索の最大件数
+	 * @return {@link BatchLoader}
+	 */
+	public static <K, T> BatchLoader<K, T> of(
+		AtomSql atomSql,
+		Function<Csv<K>, ? extends Collection<T>> query,
+		Function<? super T, ? extends K> keyExtractor,
+		long windowMillis,
+		int maxBatchSize) {
+		return new BatchLoader<>(atomSql, query, keyExtractor, windowMillis, maxBatchSize);
+	}
+
+	private BatchLoader(
+		AtomSql atomSql,
+		Function<Csv<K>, ? extends Collection<T>> query,
+		Function<? super T, ? extends K> keyExtractor,
+		long windowMillis,
+		int maxBatchSize) {
+		if (windowMillis < 0) throw new IllegalArgumentException("windowMillis: " + windowMillis);
+		if (maxBatchSize <= 0) throw new IllegalArgumentException("maxBatchSize: " + maxBatchSize);
+
+		var asyncExecutor = atomSql.asyncExecutor();
+		executor = windowMillis > 0 ? CompletableFuture.delayedExecutor(windowMillis, TimeUnit.MILLISECONDS, asyncExecutor) : asyncExecutor;
+
+		this.query = Objects.requireNonNull(query);
+		this.keyExtractor = Objects.requireNonNull(keyExtractor);
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * キーによる検索を登録します。<br>
+	 * 検索はこの時点では実行されず、他の検索とまとめて実行されます。
+	 * @param key キー
+	 * @return 検索結果、該当する行がない場合、空
+	 */
+	public CompletableFuture<Optional<T>> load(K key) {
+		Objects.requireNonNull(key);
+
+		Map<K, CompletableFuture<Optional<T>>> full = null;
+		CompletableFuture<Optional<T>> future;
+		synchronized (this) {
+			future = pending.get(key);
+			if (future != null) return future;
+
+			future = new CompletableFuture<>();
+			pending.put(key, future);
+
+			if (pending.size() >= maxBatchSize) {
+				full = takePending();
+			} else if (!scheduled) {
+				//最初のキーの登録時に実行を予約する、時間枠を指定した場合、時間枠の経過後に実行される
+				schedule();
+			}
+		}
+
+		if (full != null) execute(full);
+
+		return future;
+	}
+
+	/**
+	 * 登録済みのすべての検索を、呼び出したスレッドで実行します。<br>
+	 * 検索で発生した例外は、該当する{@link CompletableFuture}に通知されます。
+	 */
+	public void dispatch() {
+		Map<K, CompletableFuture<Optional<T>>> taken;
+		synchronized (this) {
+			if (pending.isEmpty()) return;
+
+			taken = takePending();
+		}
+
+		executeAll(taken);
+	}
+
+	private void schedule() {
+		scheduled = true;
+		executor.execute(this::dispatchScheduled);
+	}
+
+	/**
+	 * 予約された検索を実行し、実行中に登録されたキーがあれば次の検索を予約する
+	 */
+	private void dispatchScheduled() {
+		Map<K, CompletableFuture<Optional<T>>> taken;
+		synchronized (this) {
+			taken = takePending();
+		}
+
+		try {
+			executeAll(taken);
+		} finally {
+			synchronized (this) {
+				scheduled = false;
+				if (!pending.isEmpty()) schedule();
+			}
+		}
+	}
+
+	private void executeAll(Map<K, CompletableFuture<Optional<T>>> taken) {
+		var keys = new ArrayList<>(taken.keySet());
+		for (var i = 0; i < keys.size(); i += maxBatchSize) {
+			var chunk = new LinkedHashMap<K, CompletableFuture<Optional<T>>>();
+			keys.subList(i, Math.min(i + maxBatchSize, keys.size())).forEach(k -> chunk.put(k, taken.get(k)));
+
+			execute(chunk);
+		}
+	}
+
+	private Map<K, CompletableFuture<Optional<T>>> takePending() {
+		var taken = pending;
+		pending = new LinkedHashMap<>();
+
+		return taken;
+	}
+
+	private void execute(Map<K, CompletableFuture<Optional<T>>> chunk) {
+		var found = new HashMap<K, T>();
+		try {
+			query.apply(Csv.of(List.copyOf(chunk.keySet()))).forEach(row -> found.putIfAbsent(keyExtractor.apply(row), row));
+		} catch (Throwable t) {
+			//待機しているすべての呼び出しに通知する
+			chunk.values().forEach(f -> f.completeExceptionally(t));
+			return;
+		}
+
+		chunk.forEach((key, future) -> future.complete(Optional.ofNullable(found.get(key))));
+	}
+}
@@ -1,12 +1,14 @@
 package jp.ats.atomsql;
 
+import java.util.Map;
 import java.util.regex.Pattern;
 
 import jp.ats.atomsql.annotation.NoSqlLog;
 import jp.ats.atomsql.annotation.Qualifier;
 
 /**
- * Atom SQL用の設定をロードし、保持するクラスです。
+ * Atom SQL用の設定をロードし、保持するクラスです。<br>
+ * batch-thresholdより後に追加された項目はdefaultメソッドとして定義されており、実装しない場合、各項目のデフォルト値が使用されます。
  * @author 千葉 哲嗣
  */
 public interface Configure {
@@ -56,4 +58,185 @@ public interface Configure {
 	 * @return バッチ更新時の閾値
 	 */
 	int batchThreshold();
+
+	/**
+	 * rewrite-batched-inserts<br>
+	 * バッチ更新時、同一のINSERT ... VALUES (...)文を複数行のVALUES (...), (...), ...を持つ一文に書き換えて実行するかどうか<br>
+	 * 書き換えた場合、各行の結果件数は、文全体の結果件数が行数と一致すれば1、そうでなければ{@link java.sql.Statement#SUCCESS_NO_INFO}となる
+	 * @return 書き換えを行う場合、true
+	 */
+	default boolean rewritesBatchedInserts() {
+		return false;
+	}
+
+	/**
+	 * batch-rewrite-parameter-limit<br>
+	 * rewrite-batched-insertsにより書き換えられた一文が持つことのできるプレースホルダ数の上限<br>
+	 * この値をもとに一文にまとめる行数が決定される<br>
+	 * この値が0以下の場合、上限はないものとして扱われる
+	 * @return プレースホルダ数の上限
+	 */
+	default int batchRewriteParameterLimit() {
+		return 2000;
+	}
+
+	/**
+	 * async-batch-max-in-flight<br>
+	 * {@link AtomSql#tryAsyncBatch(Runnable)}で、同時にバックグラウンドで実行中となることができる一括実行の数<br>
+	 * 1の場合、実行中のものと追加中のもので二重バッファとなる<br>
+	 * この値が0以下の場合、1として扱われる
+	 * @return 同時に実行中となることができる一括実行の数
+	 */
+	default int asyncBatchMaxInFlight() {
+		return 1;
+	}
+
+	/**
+	 * batch-flush-parallelism<br>
+	 * バッチ更新の一括実行時、{@link Endpoint}ごとのまとまりを並列に実行する数<br>
+	 * 同一の{@link Endpoint}に対するSQL文は、並列実行時も追加された順に逐次実行される<br>
+	 * {@link AtomSql#bollowConnection(java.util.function.Consumer)}内で一括実行される場合、並列実行は行われない<br>
+	 * この値が1以下の場合、並列実行は行われない
+	 * @return 並列に実行する数
+	 */
+	default int batchFlushParallelism() {
+		return 1;
+	}
+
+	/**
+	 * batch-adaptive-target-millis<br>
+	 * バッチ更新時、{@link Endpoint}ごと、SQL文ごとに一括実行時間を計測し、この時間に収まるように閾値を自動調整する<br>
+	 * 自動調整された閾値に達した場合、そのSQL文のみが一括実行される<br>
+	 * この値が0以下の場合、自動調整は行われない
+	 * @return 一括実行時間の目標（ミリ秒）
+	 */
+	default long batchAdaptiveTargetMillis() {
+		return 0;
+	}
+
+	/**
+	 * batch-adaptive-min-threshold<br>
+	 * 自動調整される閾値の下限
+	 * @return 自動調整される閾値の下限
+	 */
+	default int batchAdaptiveMinThreshold() {
+		return 100;
+	}
+
+	/**
+	 * batch-adaptive-max-threshold<br>
+	 * 自動調整される閾値の上限
+	 * @return 自動調整される閾値の上限
+	 */
+	default int batchAdaptiveMaxThreshold() {
+		return 10000;
+	}
+
+	/**
+	 * batch-adaptive-max-bytes<br>
+	 * 自動調整される閾値を、一括実行でバインドする値のおおよそのバイト数がこの値に収まるように制限する<br>
+	 * 幅の広い行を扱う場合に、ドライバやデータベースの送信サイズの上限を超えないようにするために使用する<br>
+	 * この値が0以下の場合、バイト数による制限は行われない
+	 * @return 一括実行でバインドする値のおおよそのバイト数の上限
+	 */
+	default long batchAdaptiveMaxBytes() {
+		return 0;
+	}
+
+	/**
+	 * batch-chunk-size<br>
+	 * バッチ更新の一括実行時、一度のバッチ実行（{@link java.sql.Statement#executeBatch()}）で扱う行数の上限<br>
+	 * SQL文ごとのまとまりがこの値を超える場合、分割して実行される<br>
+	 * この値が0以下の場合、分割は行われない
+	 * @return 一度のバッチ実行で扱う行数の上限
+	 */
+	default int batchChunkSize() {
+		return 0;
+	}
+
+	/**
+	 * log-stacktrace-limit<br>
+	 * SQLログに含まれる呼び出し元情報の最大件数<br>
+	 * {@link #logStackTracePattern()}にマッチしたものを、呼び出し元に近いものからこの件数まで出力する<br>
+	 * この値が0以下の場合、件数の制限は行わない
+	 * @return 呼び出し元情報の最大件数
+	 */
+	default int logStackTraceLimit() {
+		return 0;
+	}
+
+	/**
+	 * slow-query-threshold-millis<br>
+	 * SQLログをスロークエリのみ出力する場合の、実行時間の閾値（ミリ秒）<br>
+	 * この値が0以上の場合、SQL文、バインドする値、呼び出し元は実行前には出力されず、実行時間がこの値以上となった場合にのみ実行後に出力される<br>
+	 * {@link #enableLog()}がtrueの場合のみ有効<br>
+	 * この値が負の場合、すべてのSQLを実行前に出力する
+	 * @return スロークエリの閾値
+	 */
+	default long slowQueryThresholdMillis() {
+		return -1;
+	}
+
+	/**
+	 * slow-query-sample-rate<br>
+	 * スロークエリのみ出力する場合に、閾値未満のSQLを出力する割合（0から1）<br>
+	 * 通常のSQLの傾向を把握するため、閾値未満であってもこの割合で無作為に出力する
+	 * @return 閾値未満のSQLを出力する割合
+	 */
+	default double slowQuerySampleRate() {
+		return 0;
+	}
+
+	/**
+	 * slow-query-threshold-millis.{@link Endpoints.Entry#name()}<br>
+	 * {@link Endpoint}ごとのスロークエリの閾値（ミリ秒）<br>
+	 * 指定されていない{@link Endpoint}は{@link #slowQueryThresholdMillis()}を使用する
+	 * @return {@link Endpoint}の名称をキーとした閾値
+	 */
+	default Map<String, Long> slowQueryEndpointThresholdMillis() {
+		return Map.of();
+	}
+
+	/**
+	 * enable-metrics<br>
+	 * SQL文ごとの実行回数、実行時間等の計測を行うかどうか<br>
+	 * 計測結果は{@link AtomSqlMetrics}から参照可能<br>
+	 * 計測結果はプロセスで共有され、計測を行うすべての{@link AtomSql}のインスタンスのものが合算される
+	 * @return 計測を行う場合、true
+	 */
+	default boolean enableMetrics() {
+		return false;
+	}
+
+	/**
+	 * register-metrics-mbeans<br>
+	 * 計測結果をJMXのMBeanとしてプラットフォームMBeanサーバーに登録するかどうか<br>
+	 * {@link #enableMetrics()}がtrueの場合のみ有効<br>
+	 * 計測結果はプロセスで共有されるため、falseもしくは{@link #enableMetrics()}がfalseの設定を反映した時点で、登録済みのMBeanは解除される
+	 * @return MBeanとして登録する場合、true
+	 */
+	default boolean registersMetricsMBeans() {
+		return false;
+	}
+
+	/**
+	 * endpoint-interceptor-classes<br>
+	 * すべての{@link Endpoint}に適用する{@link EndpointInterceptor}の実装クラス名（カンマ区切り）<br>
+	 * 引数なしのコンストラクタでインスタンスが生成され、記述順に外側となるように連鎖する
+	 * @return {@link EndpointInterceptor}の実装クラス名
+	 */
+	default String endpointInterceptorClasses() {
+		return null;
+	}
+
+	/**
+	 * async-executor-class<br>
+	 * {@link Atom#listAsync()}等の非同期実行に使用する{@link java.util.concurrent.Executor}の実装クラス名<br>
+	 * 引数なしのコンストラクタでインスタンスが生成される<br>
+	 * 指定されていない場合、仮想スレッドが使用可能であれば仮想スレッドを、そうでなければデーモンスレッドのスレッドプールを使用する
+	 * @return {@link java.util.concurrent.Executor}の実装クラス名
+	 */
+	default String asyncExecutorClass() {
+		return null;
+	}
 }
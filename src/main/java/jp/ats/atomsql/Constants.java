@@ -41,4 +41,14 @@ public interface Constants {
 	 * @{link ConfidentialSql}が付与されたSQL文のログ上の目印
 	 */
 	public static final String CONFIDENTIAL = "<<CONFIDENTIAL>>";
+
+	/**
+	 * 自動生成される変数展開用クラスの、フィールド名一覧を返すstaticメソッド名
+	 */
+	public static final String UNFOLDER_NAMES_METHOD = "$names";
+
+	/**
+	 * 自動生成される変数展開用クラスの、フィールド値一覧を返すstaticメソッド名
+	 */
+	public static final String UNFOLDER_VALUES_METHOD = "$values";
 }
@@ -2,6 +2,7 @@ package jp.ats.atomsql;
 
 import java.lang.System.Logger;
 import java.sql.PreparedStatement;
+import java.util.Arrays;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
@@ -19,6 +20,38 @@ public interface Endpoint {
 	 */
 	int[] batchUpdate(String sql, BatchPreparedStatementSetter bpss);
 
+	/**
+	 * {@link #batchUpdate(String, BatchPreparedStatementSetter)}の結果件数を{@code long}で返すメソッドです。<br>
+	 * intの範囲を超える件数を扱う場合に使用します。<br>
+	 * デフォルト実装では{@link #batchUpdate(String, BatchPreparedStatementSetter)}の結果を{@code long}に変換して返します。
+	 * @param sql
+	 * @param bpss
+	 * @return affected rows
+	 */
+	default long[] largeBatchUpdate(String sql, BatchPreparedStatementSetter bpss) {
+		return Arrays.stream(batchUpdate(sql, bpss)).asLongStream().toArray();
+	}
+
+	/**
+	 * {@link #batchUpdate(String, BatchPreparedStatementSetter)}の実行後、自動生成されたキーを取得するメソッドです。<br>
+	 * 自動生成されたキーは一行ずつgeneratedKeyMapperで変換され、generatedKeyConsumerに順に通知されます。<br>
+	 * 取得できるキーの行数、順序はJDBCドライバに依存します。<br>
+	 * デフォルト実装では{@link UnsupportedOperationException}をスローします。
+	 * @param <K> 変換後のキーの型
+	 * @param sql
+	 * @param bpss
+	 * @param generatedKeyMapper 自動生成されたキーの{@link RowMapper}
+	 * @param generatedKeyConsumer 変換後のキーの通知先
+	 * @return affected rows
+	 */
+	default <K> int[] batchUpdate(
+		String sql,
+		BatchPreparedStatementSetter bpss,
+		RowMapper<K> generatedKeyMapper,
+		Consumer<K> generatedKeyConsumer) {
+		throw new UnsupportedOperationException();
+	}
+
 	/**
 	 * JdbcTemplate#queryForStream(String, PreparedStatementSetter, RowMapper)を参考にしたメソッドです。
 	 * @param <T>
@@ -29,6 +62,23 @@ public interface Endpoint {
 	 */
 	<T> Stream<T> queryForStream(String sql, PreparedStatementSetter pss, RowMapper<T> rowMapper);
 
+	/**
+	 * JdbcTemplate#query(String, PreparedStatementSetter, RowCallbackHandler)を参考にしたメソッドです。<br>
+	 * 検索結果の全行に対して、{@link Stream}を介さずにrowConsumerを呼び出します。<br>
+	 * デフォルト実装では{@link #queryForStream(String, PreparedStatementSetter, RowMapper)}を使用します。
+	 * @param sql
+	 * @param pss
+	 * @param rowConsumer
+	 */
+	default void query(String sql, PreparedStatementSetter pss, RowConsumer rowConsumer) {
+		try (var stream = queryForStream(sql, pss, (rs, rowNum) -> {
+			rowConsumer.accept(rs, rowNum);
+			return Boolean.TRUE;
+		})) {
+			stream.forEach(r -> {});
+		}
+	}
+
 	/**
 	 * JdbcTemplate#update(String, PreparedStatementSetter)を参考にしたメソッドです。
 	 * @param sql
@@ -37,6 +87,37 @@ public interface Endpoint {
 	 */
 	int update(String sql, PreparedStatementSetter pss);
 
+	/**
+	 * {@link #update(String, PreparedStatementSetter)}の結果件数を{@code long}で返すメソッドです。<br>
+	 * intの範囲を超える件数を扱う場合に使用します。<br>
+	 * デフォルト実装では{@link #update(String, PreparedStatementSetter)}の結果を{@code long}に変換して返します。
+	 * @param sql
+	 * @param pss
+	 * @return long
+	 */
+	default long largeUpdate(String sql, PreparedStatementSetter pss) {
+		return update(sql, pss);
+	}
+
+	/**
+	 * {@link #update(String, PreparedStatementSetter)}の実行後、自動生成されたキーを取得するメソッドです。<br>
+	 * 自動生成されたキーは一行ずつgeneratedKeyMapperで変換され、generatedKeyConsumerに順に通知されます。<br>
+	 * デフォルト実装では{@link UnsupportedOperationException}をスローします。
+	 * @param <K> 変換後のキーの型
+	 * @param sql
+	 * @param pss
+	 * @param generatedKeyMapper 自動生成されたキーの{@link RowMapper}
+	 * @param generatedKeyConsumer 変換後のキーの通知先
+	 * @return int
+	 */
+	default <K> int update(
+		String sql,
+		PreparedStatementSetter pss,
+		RowMapper<K> generatedKeyMapper,
+		Consumer<K> generatedKeyConsumer) {
+		throw new UnsupportedOperationException();
+	}
+
 	/**
 	 * SQLログ出力を行う設定にしている場合、実装に合わせたSQL文をログ出力します。
 	 * @see Configure#enableLog
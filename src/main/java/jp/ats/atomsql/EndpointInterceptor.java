@@ -0,0 +1,48 @@
+package jp.ats.atomsql;
+
+/**
+ * {@link Endpoint}の検索、更新処理の前後に処理を追加するためのインターフェイスです。<br>
+ * {@link Endpoints.Entry}ごと、もしくは{@link Configure#endpointInterceptorClasses()}ですべての{@link Endpoint}に対して登録することが可能です。<br>
+ * 複数登録されている場合、{@link Configure#endpointInterceptorClasses()}の順、{@link Endpoints.Entry#interceptors()}の順に、先のものが外側となるように連鎖します。<br>
+ * 計測、キャッシュ、トレース、振り分け等を{@link Endpoint}の実装を変更せずに追加することを目的としています。
+ * @author 千葉 哲嗣
+ */
+public interface EndpointInterceptor {
+
+	/**
+	 * 処理の前後に処理を追加します。<br>
+	 * 通常の実装では、{@link Invocation#proceed()}を呼び出し、その結果を返します。<br>
+	 * 結果の型は{@link StatementDescriptor#kind()}により、{@link java.util.stream.Stream}、{@link Integer}、{@link Long}、int[]、long[]のいずれかとなります。<br>
+	 * {@link StatementDescriptor.Kind#QUERY_EACH}の場合、結果はnullとなります。
+	 * @param <R> 処理結果の型
+	 * @param statement 実行するSQL文の情報
+	 * @param invocation 後続の処理
+	 * @return 処理結果
+	 */
+	<R> R intercept(StatementDescriptor statement, Invocation<R> invocation);
+
+	/**
+	 * 後続の処理
+	 * @param <R> 処理結果の型
+	 */
+	public static interface Invocation<R> {
+
+		/**
+		 * @return 処理を行う{@link Endpoint}
+		 */
+		Endpoint endpoint();
+
+		/**
+		 * 後続の処理を実行します。
+		 * @return 処理結果
+		 */
+		R proceed();
+
+		/**
+		 * 処理を行う{@link Endpoint}を差し替えて後続の処理を実行します。
+		 * @param endpoint 処理を行う{@link Endpoint}
+		 * @return 処理結果
+		 */
+		R proceed(Endpoint endpoint);
+	}
+}
@@ -1,6 +1,7 @@
 package jp.ats.atomsql;
 
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import jp.ats.atomsql.annotation.Qualifier;
@@ -68,6 +69,29 @@ public class Endpoints {
 	 * @param name {@link Qualifier}名
 	 * @param endpoint {@link Endpoint}
 	 * @param primary プライマリBeanかどうか
+	 * @param interceptors このエントリの{@link Endpoint}にのみ適用する{@link EndpointInterceptor}
 	 */
-	public static record Entry(String name, Endpoint endpoint, boolean primary) {}
+	public static record Entry(String name, Endpoint endpoint, boolean primary, List<EndpointInterceptor> interceptors) {
+
+		/**
+		 * {@link EndpointInterceptor}を使用しない場合のコンストラクタです。
+		 * @param name {@link Qualifier}名
+		 * @param endpoint {@link Endpoint}
+		 * @param primary プライマリBeanかどうか
+		 */
+		public Entry(String name, Endpoint endpoint, boolean primary) {
+			this(name, endpoint, primary, List.of());
+		}
+
+		/**
+		 * 正規のコンストラクタです。
+		 * @param name {@link Qualifier}名
+		 * @param endpoint {@link Endpoint}
+		 * @param primary プライマリBeanかどうか
+		 * @param interceptors このエントリの{@link Endpoint}にのみ適用する{@link EndpointInterceptor}
+		 */
+		public Entry {
+			interceptors = List.copyOf(interceptors);
+		}
+	}
 }
@@ -0,0 +1,153 @@
+package jp.ats.atomsql;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 実行時間等の分布を、ロックを使用せずに記録するヒストグラムです。<br>
+ * HdrHistogramと同様に、値を2のべき乗ごとの区間に分け、各区間をさらに等分した階級で件数を数えます。<br>
+ * そのため百分位数の相対誤差は、階級の幅である1/{@value #subBuckets}以下となります。<br>
+ * 記録と参照は同時に行うことが可能ですが、参照の結果は厳密な一時点のものではありません。<br>
+ * このクラスのインスタンスはスレッドセーフです。
+ * @author 千葉 哲嗣
+ */
+public final class Histogram {
+
+	/**
+	 * 2のべき乗ごとの区間を等分する数
+	 */
+	private static final int subBuckets = 16;
+
+	private static final int subBucketBits = Integer.numberOfTrailingZeros(subBuckets);
+
+	/**
+	 * そのまま階級とする値の上限（この値未満）
+	 */
+	private static final int linearLimit = subBuckets * 2;
+
+	/**
+	 * {@link Long#MAX_VALUE}までを表すのに必要な階級の数
+	 */
+	private static final int bucketCount = linearLimit + (63 - subBucketBits - 1) * subBuckets;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(bucketCount);
+
+	private final LongAdder count = new LongAdder();
+
+	private final LongAdder sum = new LongAdder();
+
+	private final AtomicLong max = new AtomicLong();
+
+	Histogram() {}
+
+	/**
+	 * 値を記録します。<br>
+	 * 負の値は0として扱います。
+	 * @param value 値
+	 */
+	void record(long value) {
+		if (value < 0) value = 0;
+
+		buckets.incrementAndGet(bucketIndex(value));
+		count.increment();
+		sum.add(value);
+
+		//大半の場合、既に最大値以下なので更新を試みない
+		if (value > max.get()) max.accumulateAndGet(value, Math::max);
+	}
+
+	/**
+	 * 記録された値をすべて破棄します。
+	 */
+	void reset() {
+		for (var i = 0; i < bucketCount; i++) {
+			buckets.set(i, 0);
+		}
+
+		count.reset();
+		sum.reset();
+		max.set(0);
+	}
+
+	/**
+	 * @return 記録された件数
+	 */
+	public long count() {
+		return count.sum();
+	}
+
+	/**
+	 * @return 記録された値の合計
+	 */
+	public long sum() {
+		return sum.sum();
+	}
+
+	/**
+	 * @return 記録された値の最大値、記録がない場合、0
+	 */
+	public long max() {
+		return max.get();
+	}
+
+	/**
+	 * @return 記録された値の平均値、記録がない場合、0
+	 */
+	public double mean() {
+		var count = count();
+		return count == 0 ? 0 : (double) sum() / count;
+	}
+
+	/**
+	 * 百分位数を返します。<br>
+	 * 返される値は、該当する値が含まれる階級の上限値（ただし最大値を超えない）です。
+	 * @param percentile 百分位（0から100）
+	 * @return 百分位数、記録がない場合、0
+	 */
+	public long percentile(double percentile) {
+		if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("percentile: " + percentile);
+
+		var counts = new long[bucketCount];
+		var total = 0L;
+		for (var i = 0; i < bucketCount; i++) {
+			counts[i] = buckets.get(i);
+			total += counts[i];
+		}
+
+		if (total == 0) return 0;
+
+		var rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+
+		var max = max();
+		var accumulated = 0L;
+		for (var i = 0; i < bucketCount; i++) {
+			accumulated += counts[i];
+			if (accumulated >= rank) return Math.min(upperBound(i), max);
+		}
+
+		return max;
+	}
+
+	private static int bucketIndex(long value) {
+		if (value < linearLimit) return (int) value;
+
+		//valueを右シフトして、subBuckets以上linearLimit未満とする
+		var shift = 63 - Long.numberOfLeadingZeros(value) - subBucketBits;
+		var top = (int) (value >>> shift);
+
+		return linearLimit + (shift - 1) * subBuckets + (top - subBuckets);
+	}
+
+	private static long upperBound(int index) {
+		if (index < linearLimit) return index;
+
+		var shift = (index - linearLimit) / subBuckets + 1;
+		var top = (long) (index - linearLimit) % subBuckets + subBuckets;
+
+		var upper = ((top + 1) << shift) - 1;
+
+		//最上位の階級はオーバーフローする
+		return upper < 0 ? Long.MAX_VALUE : upper;
+	}
+}
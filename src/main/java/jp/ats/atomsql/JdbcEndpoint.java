@@ -6,6 +6,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Iterator;
 import java.util.Objects;
 import java.util.Spliterator;
@@ -23,7 +24,10 @@ public class JdbcEndpoint implements Endpoint {
 
 	private final Supplier<Connection> supplier;
 
-	private final ThreadLocal<Connection> connection = new ThreadLocal<>();
+	/**
+	 * {@link AtomSql#inheritScopes(Runnable)}で子タスクに引き継ぐ
+	 */
+	private final Scope<Connection> connection = new Scope<>(true);
 
 	/**
 	 * 単一のコンストラクタです。
@@ -50,6 +54,48 @@ public class JdbcEndpoint implements Endpoint {
 		}
 	}
 
+	@Override
+	public long[] largeBatchUpdate(String sql, BatchPreparedStatementSetter bpss) {
+		try (var conn = connection()) {
+			try (var ps = conn.prepareStatement(Constants.NEW_LINE + sql)) {
+				var size = bpss.getBatchSize();
+				for (var i = 0; i < size; i++) {
+					bpss.setValues(ps, i);
+					ps.addBatch();
+				}
+
+				return ps.executeLargeBatch();
+			}
+		} catch (SQLException e) {
+			throw new AtomSqlException(e);
+		}
+	}
+
+	@Override
+	public <K> int[] batchUpdate(
+		String sql,
+		BatchPreparedStatementSetter bpss,
+		RowMapper<K> generatedKeyMapper,
+		Consumer<K> generatedKeyConsumer) {
+		try (var conn = connection()) {
+			try (var ps = conn.prepareStatement(Constants.NEW_LINE + sql, Statement.RETURN_GENERATED_KEYS)) {
+				var size = bpss.getBatchSize();
+				for (var i = 0; i < size; i++) {
+					bpss.setValues(ps, i);
+					ps.addBatch();
+				}
+
+				var result = ps.executeBatch();
+
+				generatedKeys(ps, generatedKeyMapper, generatedKeyConsumer);
+
+				return result;
+			}
+		} catch (SQLException e) {
+			throw new AtomSqlException(e);
+		}
+	}
+
 	@Override
 	public <T> Stream<T> queryForStream(String sql, PreparedStatementSetter pss, RowMapper<T> rowMapper) {
 		try {
@@ -89,6 +135,24 @@ public class JdbcEndpoint implements Endpoint {
 		}
 	}
 
+	@Override
+	public void query(String sql, PreparedStatementSetter pss, RowConsumer rowConsumer) {
+		try (var conn = connection()) {
+			try (var ps = conn.prepareStatement(Constants.NEW_LINE + sql)) {
+				pss.setValues(ps);
+
+				try (var rs = ps.executeQuery()) {
+					var rowNum = 0;
+					while (rs.next()) {
+						rowConsumer.accept(rs, ++rowNum);
+					}
+				}
+			}
+		} catch (SQLException e) {
+			throw new AtomSqlException(e);
+		}
+	}
+
 	@Override
 	public int update(String sql, PreparedStatementSetter pss) {
 		try (var conn = connection()) {
@@ -102,6 +166,40 @@ public class JdbcEndpoint implements Endpoint {
 		}
 	}
 
+	@Override
+	public long largeUpdate(String sql, PreparedStatementSetter pss) {
+		try (var conn = connection()) {
+			try (var ps = conn.prepareStatement(Constants.NEW_LINE + sql)) {
+				pss.setValues(ps);
+
+				return ps.executeLargeUpdate();
+			}
+		} catch (SQLException e) {
+			throw new AtomSqlException(e);
+		}
+	}
+
+	@Override
+	public <K> int update(
+		String sql,
+		PreparedStatementSetter pss,
+		RowMapper<K> generatedKeyMapper,
+		Consumer<K> generatedKeyConsumer) {
+		try (var conn = connection()) {
+			try (var ps = conn.prepareStatement(Constants.NEW_LINE + sql, Statement.RETURN_GENERATED_KEYS)) {
+				pss.setValues(ps);
+
+				var result = ps.executeUpdate();
+
+				generatedKeys(ps, generatedKeyMapper, generatedKeyConsumer);
+
+				return result;
+			}
+		} catch (SQLException e) {
+			throw new AtomSqlException(e);
+		}
+	}
+
 	@Override
 	public void logSql(Logger logger, String originalSql, String sql, PreparedStatement ps) {
 		logger.log(Level.INFO, "sql:" + Constants.NEW_LINE + ps.toString());
@@ -110,18 +208,27 @@ public class JdbcEndpoint implements Endpoint {
 	@Override
 	public void bollowConnection(Consumer<ConnectionProxy> consumer) {
 		try (var conn = supplier.get()) {
-			connection.set(conn);
-
-			consumer.accept(new SimpleConnectionProxy(conn));
+			connection.run(new UnclosableConnection(conn), () -> consumer.accept(new SimpleConnectionProxy(conn)));
 		} catch (SQLException e) {
 			throw new AtomSqlException(e);
-		} finally {
-			connection.remove();
+		}
+	}
+
+	private static <K> void generatedKeys(
+		PreparedStatement ps,
+		RowMapper<K> generatedKeyMapper,
+		Consumer<K> generatedKeyConsumer) throws SQLException {
+		try (var rs = ps.getGeneratedKeys()) {
+			var rowNum = 0;
+			while (rs.next()) {
+				generatedKeyConsumer.accept(generatedKeyMapper.mapRow(rs, ++rowNum));
+			}
 		}
 	}
 
 	/**
-	 * bollowConnection中は同一のConnectionの使用を強制する
+	 * bollowConnection中は同一のConnectionの使用を強制する<br>
+	 * 各処理の終了時にクローズされても、bollowConnection終了まではクローズされないようにしたものを返す
 	 */
 	private Connection connection() {
 		var con = connection.get();
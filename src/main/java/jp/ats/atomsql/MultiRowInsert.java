@@ -0,0 +1,137 @@
+package jp.ats.atomsql;
+
+import java.util.regex.Pattern;
+
+/**
+ * INSERT ... VALUES (...)文を、複数行のVALUES (...), (...), ...を持つ一文に書き換えるための内部使用クラスです。<br>
+ * 書き換え対象となるのは、VALUES句の行がひとつで、かつその行で文が終了しているものに限ります。
+ * @author 千葉 哲嗣
+ */
+class MultiRowInsert {
+
+	private static final Pattern insert = Pattern.compile("^\\s*INSERT\\s", Pattern.CASE_INSENSITIVE);
+
+	private static final Pattern values = Pattern.compile("\\bVALUES\\s*\\(", Pattern.CASE_INSENSITIVE);
+
+	/**
+	 * VALUESまでの部分
+	 */
+	private final String head;
+
+	/**
+	 * VALUESの行部分 (...)
+	 */
+	private final String row;
+
+	/**
+	 * 一行あたりのプレースホルダ数
+	 */
+	final int parameters;
+
+	private MultiRowInsert(String head, String row, int parameters) {
+		this.head = head;
+		this.row = row;
+		this.parameters = parameters;
+	}
+
+	/**
+	 * SQL文を解析し、書き換え可能な場合インスタンスを返します。
+	 * @param sql ?プレースホルダ変換後のSQL
+	 * @return 書き換え不可能な場合、null
+	 */
+	static MultiRowInsert parse(String sql) {
+		var stripped = sql.strip();
+
+		if (!insert.matcher(stripped).find()) return null;
+
+		var matcher = values.matcher(stripped);
+		while (matcher.find()) {
+			var start = matcher.end() - 1;
+			var end = closingParenthesis(stripped, start);
+
+			//行の終わりが文の終わりではない場合、ON DUPLICATE KEY UPDATE等が付加されているか、既に複数行なので対象外
+			if (end != stripped.length() - 1) continue;
+
+			var head = stripped.substring(0, start);
+
+			//VALUES句以外にプレースホルダがある場合、行ごとの繰り返しができないので対象外
+			if (countPlaceholders(head) > 0) return null;
+
+			var row = stripped.substring(start);
+
+			return new MultiRowInsert(head, row, countPlaceholders(row));
+		}
+
+		return null;
+	}
+
+	/**
+	 * 行数分のVALUESを持つSQL文を生成します。
+	 * @param rows 行数
+	 * @return SQL
+	 */
+	String sql(int rows) {
+		var builder = new StringBuilder(head.length() + (row.length() + 2) * rows);
+		builder.append(head).append(row);
+		for (var i = 1; i < rows; i++) {
+			builder.append(", ").append(row);
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * プレースホルダ数の上限から、一文にまとめる行数を決定します。
+	 * @param parameterLimit プレースホルダ数の上限 0以下の場合、上限なし
+	 * @param rows 全行数
+	 * @return 一文にまとめる行数
+	 */
+	int rowsPerStatement(int parameterLimit, int rows) {
+		if (parameterLimit <= 0 || parameters == 0) return rows;
+
+		return Math.max(1, Math.min(rows, parameterLimit / parameters));
+	}
+
+	private static int closingParenthesis(String sql, int start) {
+		var depth = 0;
+		var quote = (char) 0;
+		for (var i = start; i < sql.length(); i++) {
+			var c = sql.charAt(i);
+
+			if (quote != 0) {
+				if (c == quote) quote = 0;
+				continue;
+			}
+
+			switch (c) {
+			case '\'', '"' -> quote = c;
+			case '(' -> depth++;
+			case ')' -> {
+				if (--depth == 0) return i;
+			}
+			}
+		}
+
+		return -1;
+	}
+
+	private static int countPlaceholders(String sql) {
+		var count = 0;
+		var quote = (char) 0;
+		for (var i = 0; i < sql.length(); i++) {
+			var c = sql.charAt(i);
+
+			if (quote != 0) {
+				if (c == quote) quote = 0;
+				continue;
+			}
+
+			switch (c) {
+			case '\'', '"' -> quote = c;
+			case '?' -> count++;
+			}
+		}
+
+		return count;
+	}
+}
@@ -2,6 +2,9 @@ package jp.ats.atomsql;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 import java.util.regex.Pattern;
 
@@ -57,6 +60,116 @@ public class PropertiesConfigure implements Configure {
 	 */
 	private final int batchThreshold;
 
+	/**
+	 * rewrite-batched-inserts<br>
+	 * バッチ更新時、同一のINSERT ... VALUES (...)文を複数行のVALUES (...), (...), ...を持つ一文に書き換えて実行するかどうか
+	 */
+	private final boolean rewritesBatchedInserts;
+
+	/**
+	 * batch-rewrite-parameter-limit<br>
+	 * rewrite-batched-insertsにより書き換えられた一文が持つことのできるプレースホルダ数の上限<br>
+	 * この値が0以下の場合、上限はないものとして扱われる
+	 */
+	private final int batchRewriteParameterLimit;
+
+	/**
+	 * async-batch-max-in-flight<br>
+	 * {@link AtomSql#tryAsyncBatch(Runnable)}で、同時にバックグラウンドで実行中となることができる一括実行の数<br>
+	 * この値が0以下の場合、1として扱われる
+	 */
+	private final int asyncBatchMaxInFlight;
+
+	/**
+	 * batch-flush-parallelism<br>
+	 * バッチ更新の一括実行時、{@link Endpoint}ごと、SQL文ごとのまとまりを並列に実行する数<br>
+	 * この値が1以下の場合、並列実行は行われない
+	 */
+	private final int batchFlushParallelism;
+
+	/**
+	 * batch-adaptive-target-millis<br>
+	 * バッチ更新時、{@link Endpoint}ごと、SQL文ごとに一括実行時間を計測し、この時間に収まるように閾値を自動調整する<br>
+	 * この値が0以下の場合、自動調整は行われない
+	 */
+	private final long batchAdaptiveTargetMillis;
+
+	/**
+	 * batch-adaptive-min-threshold<br>
+	 * 自動調整される閾値の下限
+	 */
+	private final int batchAdaptiveMinThreshold;
+
+	/**
+	 * batch-adaptive-max-threshold<br>
+	 * 自動調整される閾値の上限
+	 */
+	private final int batchAdaptiveMaxThreshold;
+
+	/**
+	 * batch-adaptive-max-bytes<br>
+	 * 自動調整される閾値を、一括実行でバインドする値のおおよそのバイト数がこの値に収まるように制限する<br>
+	 * この値が0以下の場合、バイト数による制限は行われない
+	 */
+	private final long batchAdaptiveMaxBytes;
+
+	/**
+	 * batch-chunk-size<br>
+	 * バッチ更新の一括実行時、一度のバッチ実行で扱う行数の上限<br>
+	 * この値が0以下の場合、分割は行われない
+	 */
+	private final int batchChunkSize;
+
+	/**
+	 * log-stacktrace-limit<br>
+	 * SQLログに含まれる呼び出し元情報の最大件数<br>
+	 * この値が0以下の場合、件数の制限は行わない
+	 */
+	private final int logStackTraceLimit;
+
+	/**
+	 * slow-query-threshold-millis<br>
+	 * SQLログをスロークエリのみ出力する場合の、実行時間の閾値（ミリ秒）<br>
+	 * この値が負の場合、すべてのSQLを実行前に出力する
+	 */
+	private final long slowQueryThresholdMillis;
+
+	/**
+	 * slow-query-sample-rate<br>
+	 * スロークエリのみ出力する場合に、閾値未満のSQLを出力する割合（0から1）
+	 */
+	private final double slowQuerySampleRate;
+
+	/**
+	 * slow-query-threshold-millis.{@link Endpoints.Entry#name()}<br>
+	 * {@link Endpoint}ごとのスロークエリの閾値（ミリ秒）
+	 */
+	private final Map<String, Long> slowQueryEndpointThresholdMillis;
+
+	/**
+	 * enable-metrics<br>
+	 * SQL文ごとの実行回数、実行時間等の計測を行うかどうか
+	 */
+	private final boolean enableMetrics;
+
+	/**
+	 * register-metrics-mbeans<br>
+	 * 計測結果をJMXのMBeanとして登録するかどうか
+	 */
+	private final boolean registersMetricsMBeans;
+
+	/**
+	 * endpoint-interceptor-classes<br>
+	 * すべての{@link Endpoint}に適用する{@link EndpointInterceptor}の実装クラス名（カンマ区切り）
+	 */
+	private final String endpointInterceptorClasses;
+
+	/**
+	 * async-executor-class<br>
+	 * 非同期実行に使用する{@link java.util.concurrent.Executor}の実装クラス名
+	 */
+	private final String asyncExecutorClass;
+
 	/**
 	 * クラスパスのルートにあるatom-sql.propertiesから設定を読み込みインスタンスを作成します。
 	 */
@@ -81,6 +194,47 @@ public class PropertiesConfigure implements Configure {
 		typeFactoryClass = config.getProperty("type-factory-class", null);
 
 		batchThreshold = Integer.parseInt(config.getProperty("batch-threshold", "0"));
+
+		rewritesBatchedInserts = Boolean.valueOf(config.getProperty("rewrite-batched-inserts", "false"));
+
+		batchRewriteParameterLimit = Integer.parseInt(config.getProperty("batch-rewrite-parameter-limit", "2000"));
+
+		asyncBatchMaxInFlight = Integer.parseInt(config.getProperty("async-batch-max-in-flight", "1"));
+
+		batchFlushParallelism = Integer.parseInt(config.getProperty("batch-flush-parallelism", "1"));
+
+		batchAdaptiveTargetMillis = Long.parseLong(config.getProperty("batch-adaptive-target-millis", "0"));
+
+		batchAdaptiveMinThreshold = Integer.parseInt(config.getProperty("batch-adaptive-min-threshold", "100"));
+
+		batchAdaptiveMaxThreshold = Integer.parseInt(config.getProperty("batch-adaptive-max-threshold", "10000"));
+
+		batchAdaptiveMaxBytes = Long.parseLong(config.getProperty("batch-adaptive-max-bytes", "0"));
+
+		batchChunkSize = Integer.parseInt(config.getProperty("batch-chunk-size", "0"));
+
+		logStackTraceLimit = Integer.parseInt(config.getProperty("log-stacktrace-limit", "0"));
+
+		slowQueryThresholdMillis = Long.parseLong(config.getProperty("slow-query-threshold-millis", "-1"));
+
+		slowQuerySampleRate = Double.parseDouble(config.getProperty("slow-query-sample-rate", "0"));
+
+		var slowQueryEndpointThresholdPrefix = "slow-query-threshold-millis.";
+		Map<String, Long> slowQueryEndpointThresholdMillis = new HashMap<>();
+		config.stringPropertyNames().stream().filter(k -> k.startsWith(slowQueryEndpointThresholdPrefix)).forEach(k -> {
+			slowQueryEndpointThresholdMillis.put(
+				k.substring(slowQueryEndpointThresholdPrefix.length()),
+				Long.parseLong(config.getProperty(k)));
+		});
+		this.slowQueryEndpointThresholdMillis = Collections.unmodifiableMap(slowQueryEndpointThresholdMillis);
+
+		enableMetrics = Boolean.valueOf(config.getProperty("enable-metrics", "false"));
+
+		registersMetricsMBeans = Boolean.valueOf(config.getProperty("register-metrics-mbeans", "false"));
+
+		endpointInterceptorClasses = config.getProperty("endpoint-interceptor-classes", null);
+
+		asyncExecutorClass = config.getProperty("async-executor-class", "");
 	}
 
 	@Override
@@ -112,4 +266,89 @@ public class PropertiesConfigure implements Configure {
 	public int batchThreshold() {
 		return batchThreshold;
 	}
+
+	@Override
+	public boolean rewritesBatchedInserts() {
+		return rewritesBatchedInserts;
+	}
+
+	@Override
+	public int batchRewriteParameterLimit() {
+		return batchRewriteParameterLimit;
+	}
+
+	@Override
+	public int asyncBatchMaxInFlight() {
+		return asyncBatchMaxInFlight;
+	}
+
+	@Override
+	public int batchFlushParallelism() {
+		return batchFlushParallelism;
+	}
+
+	@Override
+	public long batchAdaptiveTargetMillis() {
+		return batchAdaptiveTargetMillis;
+	}
+
+	@Override
+	public int batchAdaptiveMinThreshold() {
+		return batchAdaptiveMinThreshold;
+	}
+
+	@Override
+	public int batchAdaptiveMaxThreshold() {
+		return batchAdaptiveMaxThreshold;
+	}
+
+	@Override
+	public long batchAdaptiveMaxBytes() {
+		return batchAdaptiveMaxBytes;
+	}
+
+	@Override
+	public int batchChunkSize() {
+		return batchChunkSize;
+	}
+
+	@Override
+	public int logStackTraceLimit() {
+		return logStackTraceLimit;
+	}
+
+	@Override
+	public long slowQueryThresholdMillis() {
+		return slowQueryThresholdMillis;
+	}
+
+	@Override
+	public double slowQuerySampleRate() {
+		return slowQuerySampleRate;
+	}
+
+	@Override
+	public Map<String, Long> slowQueryEndpointThresholdMillis() {
+		return slowQueryEndpointThresholdMillis;
+	}
+
+	@Override
+	public boolean enableMetrics() {
+		return enableMetrics;
+	}
+
+	@Override
+	public boolean registersMetricsMBeans() {
+		return registersMetricsMBeans;
+	}
+
+	@Override
+	public String endpointInterceptorClasses() {
+		return endpointInterceptorClasses;
+	}
+
+	@Override
+	public String asyncExecutorClass() {
+		return asyncExecutorClass;
+	}
 }
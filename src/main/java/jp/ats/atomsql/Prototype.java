@@ -1,7 +1,5 @@
 package jp.ats.atomsql;
 
-import java.lang.reflect.InvocationTargetException;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Consumer;
@@ -40,32 +38,24 @@ public class Prototype<T, A> {
 	 * @return 展開された新しい{@link Atom}
 	 */
 	public Atom<T> put(Consumer<A> consumer) {
-		Object instance;
-		try {
-			instance = atomsUnfolderClass.getConstructor().newInstance();
-		} catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException | InstantiationException e) {
-			throw new IllegalStateException(e);
-		}
+		var accessor = UnfolderAccessor.of(atomsUnfolderClass);
 
 		@SuppressWarnings("unchecked")
-		A atomsUnfolder = (A) instance;
+		A atomsUnfolder = (A) accessor.newInstance();
 
 		consumer.accept(atomsUnfolder);
 
-		Map<String, Atom<?>> map = new HashMap<>();
-		Arrays.stream(atomsUnfolderClass.getDeclaredFields()).forEach(f -> {
-			f.setAccessible(true);
+		var names = accessor.names;
+		var values = accessor.values(atomsUnfolder);
 
-			try {
-				var value = (Atom<?>) f.get(atomsUnfolder);
+		Map<String, Atom<?>> map = new HashMap<>();
+		for (var i = 0; i < names.length; i++) {
+			var value = (Atom<?>) values[i];
 
-				if (value == null) return;
+			if (value == null) continue;
 
-				map.put(f.getName(), value);
-			} catch (IllegalAccessException e) {
-				throw new IllegalStateException(e);
-			}
-		});
+			map.put(names[i], value);
+		}
 
 		return atom.put(map);
 	}
@@ -0,0 +1,84 @@
+package jp.ats.atomsql;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * {@link AtomSql#tryMemoize(Runnable)}の処理範囲内で実行された検索結果を保持する内部使用クラスです。<br>
+ * {@link Endpoint}、SQL文、バインドする値、結果の型が等しい検索には、保持した結果を返します。<br>
+ * 処理範囲内で更新処理が実行された場合、更新されたテーブルを参照する結果は破棄されます。
+ * @author 千葉 哲嗣
+ */
+class QueryMemo {
+
+	private final Map<Key, Value> results = new HashMap<>();
+
+	/**
+	 * 破棄されるごとに増加する
+	 */
+	private long generation;
+
+	private static record Key(StatementKey statement, Class<?> resultClass) {}
+
+	/**
+	 * @param tables 参照するテーブル、抽出できなかった場合、null
+	 */
+	private static record Value(List<?> result, Set<String> tables) {}
+
+	/**
+	 * 保持した結果を返す、ない場合、loaderで取得した結果を保持して返す
+	 * @param endpointName {@link Endpoints.Entry#name()}
+	 * @param sql バインドする値を持つSQL
+	 * @param resultClass 結果の型
+	 * @param loader 結果の取得処理 変更不可の{@link List}を返すこと
+	 * @return 結果
+	 */
+	<T> List<T> get(String endpointName, InnerSql sql, Class<?> resultClass, Supplier<List<T>> loader) {
+		//値の同一性を判定できないものは保持しない
+		if (sql.containsNonThreadSafeValue()) return loader.get();
+
+		var key = new Key(StatementKey.of(endpointName, sql), resultClass);
+
+		long generation;
+		synchronized (this) {
+			var value = results.get(key);
+
+			@SuppressWarnings("unchecked")
+			var hit = value == null ? null : (List<T>) value.result;
+			if (hit != null) return hit;
+
+			generation = this.generation;
+		}
+
+		var result = loader.get();
+
+		synchronized (this) {
+			//取得中に破棄された場合、古い結果となる可能性があるので保持しない
+			if (this.generation == generation) results.put(key, new Value(result, SqlTables.referenced(sql.originalString())));
+		}
+
+		return result;
+	}
+
+	/**
+	 * 更新処理のSQL文から更新されるテーブルを抽出し、それを参照する結果を破棄する
+	 * @param sql 更新処理のSQL
+	 */
+	synchronized void modified(InnerSql sql) {
+		//取得中の結果を保持させないため、保持した結果がなくても増加させる
+		generation++;
+
+		if (results.isEmpty()) return;
+
+		var modified = SqlTables.modified(sql.originalString());
+		if (modified == null) {
+			results.clear();
+			return;
+		}
+
+		results.values().removeIf(v -> v.tables == null || modified.stream().anyMatch(v.tables::contains));
+	}
+}
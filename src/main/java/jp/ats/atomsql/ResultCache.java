@@ -0,0 +1,239 @@
+package jp.ats.atomsql;
+
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import jp.ats.atomsql.annotation.Cached;
+
+/**
+ * {@link Cached}が付与されたメソッドの検索結果を保持する内部使用クラスです。<br>
+ * メソッドごとに、{@link Endpoint}とバインドする値をキーとした、使用順のLRUキャッシュを持ちます。<br>
+ * キャッシュはキーにより区画に分割され、取得時の排他は区画ごとに行われます。<br>
+ * 各キャッシュは、SQL文から抽出した参照テーブルが更新された時点で破棄されます。
+ * @author 千葉 哲嗣
+ */
+class ResultCache {
+
+	private final Map<Method, Region> regions = new ConcurrentHashMap<>();
+
+	/**
+	 * キャッシュされた結果を返す、ない場合もしくは期限切れの場合、loaderで取得した結果をキャッシュして返す
+	 * @param method {@link Cached}が付与されたメソッド
+	 * @param cached methodに付与された{@link Cached}
+	 * @param endpointName {@link Endpoints.Entry#name()}
+	 * @param sql バインドする値を持つSQL
+	 * @param loader 結果の取得処理
+	 * @return 結果
+	 */
+	<R> R get(Method method, Cached cached, String endpointName, InnerSql sql, Supplier<R> loader) {
+		//値の同一性を判定できないものはキャッシュしない
+		if (sql.containsNonThreadSafeValue()) return loader.get();
+
+		var region = regions.computeIfAbsent(method, m -> new Region(cached, SqlTables.referenced(sql.originalString())));
+
+		var key = StatementKey.of(endpointName, sql);
+
+		@SuppressWarnings("unchecked")
+		var hit = (R) region.get(key);
+		if (hit != null) return hit;
+
+		//取得中に破棄された場合、古い結果となる可能性があるのでキャッシュしない
+		var generation = region.generation();
+
+		var result = loader.get();
+		region.put(key, result, generation);
+
+		return result;
+	}
+
+	/**
+	 * すべてのキャッシュを破棄する
+	 */
+	void clear() {
+		regions.values().forEach(Region::clear);
+	}
+
+	/**
+	 * 更新処理のSQL文から更新されるテーブルを抽出し、それを参照するキャッシュを破棄する
+	 * @param sql 更新処理のSQL
+	 */
+	void modified(InnerSql sql) {
+		//キャッシュを使用していない場合、SQL文の解析を行わない
+		if (regions.isEmpty()) return;
+
+		invalidate(SqlTables.modified(sql.originalString()));
+	}
+
+	/**
+	 * テーブルを参照するキャッシュを破棄する
+	 * @param tables テーブル名 nullの場合、すべて
+	 */
+	void invalidate(Set<String> tables) {
+		if (tables == null) {
+			clear();
+			return;
+		}
+
+		regions.values().stream().filter(r -> r.dependsOn(tables)).forEach(Region::clear);
+	}
+
+	/**
+	 * トランザクション内で更新されたテーブルを蓄積し、コミット時等に改めて破棄を行うためのクラス<br>
+	 * コミットまでの間に、トランザクション外の検索で更新前の内容がキャッシュされた場合に備える
+	 */
+	class Pending {
+
+		private final Set<String> tables = new HashSet<>();
+
+		private boolean all;
+
+		/**
+		 * 更新処理のSQL文から更新されるテーブルを抽出し、蓄積する
+		 * @param sql 更新処理のSQL
+		 */
+		synchronized void modified(InnerSql sql) {
+			if (all || regions.isEmpty()) return;
+
+			var modified = SqlTables.modified(sql.originalString());
+			if (modified == null) {
+				all = true;
+				tables.clear();
+			} else {
+				tables.addAll(modified);
+			}
+		}
+
+		/**
+		 * 蓄積したテーブルを参照するキャッシュを破棄し、蓄積を空にする
+		 */
+		synchronized void flush() {
+			if (all) {
+				clear();
+			} else if (!tables.isEmpty()) {
+				invalidate(tables);
+			}
+
+			all = false;
+			tables.clear();
+		}
+	}
+
+	private static record Value(Object result, long expiresAtNanos) {}
+
+	/**
+	 * 取得時の排他を分散させるため、キーのハッシュ値で分割した区画ごとにLRUを管理する<br>
+	 * そのため、破棄される順番は区画内での使用順となる
+	 */
+	private static class Region {
+
+		/**
+		 * 区画数の上限
+		 */
+		private static final int maxStripes = 16;
+
+		/**
+		 * 区画ごとの最小件数、件数の少ないキャッシュは分割しない
+		 */
+		private static final int minEntriesPerStripe = 16;
+
+		private final long ttlNanos;
+
+		/**
+		 * 参照するテーブル、抽出できなかった場合、null
+		 */
+		private final Set<String> tables;
+
+		private final Stripe[] stripes;
+
+		/**
+		 * 破棄されるごとに増加する
+		 */
+		private final AtomicLong generation = new AtomicLong();
+
+		private Region(Cached cached, Set<String> tables) {
+			ttlNanos = TimeUnit.MILLISECONDS.toNanos(cached.ttlMillis());
+			this.tables = tables;
+
+			var maxEntries = cached.maxEntries();
+			var count = Math.max(1, Math.min(maxStripes, maxEntries / minEntriesPerStripe));
+			var entriesPerStripe = (maxEntries + count - 1) / count;
+
+			stripes = new Stripe[count];
+			for (var i = 0; i < count; i++) {
+				stripes[i] = new Stripe(entriesPerStripe);
+			}
+		}
+
+		private boolean dependsOn(Set<String> modified) {
+			return tables == null || modified.stream().anyMatch(tables::contains);
+		}
+
+		private Stripe stripe(StatementKey key) {
+			var hash = key.hashCode();
+			return stripes[Math.floorMod(hash ^ (hash >>> 16), stripes.length)];
+		}
+
+		private Object get(StatementKey key) {
+			var stripe = stripe(key);
+			synchronized (stripe) {
+				var value = stripe.get(key);
+				if (value == null) return null;
+
+				if (value.expiresAtNanos - System.nanoTime() <= 0) {
+					stripe.remove(key);
+					return null;
+				}
+
+				return value.result;
+			}
+		}
+
+		private long generation() {
+			return generation.get();
+		}
+
+		private void put(StatementKey key, Object result, long generation) {
+			var stripe = stripe(key);
+			synchronized (stripe) {
+				//破棄は世代を増加させてから各区画を空にするので、区画の排他内で判定すれば破棄後に古い結果が残ることはない
+				if (this.generation.get() != generation) return;
+
+				stripe.put(key, new Value(result, System.nanoTime() + ttlNanos));
+			}
+		}
+
+		private void clear() {
+			generation.incrementAndGet();
+
+			for (var stripe : stripes) {
+				synchronized (stripe) {
+					stripe.clear();
+				}
+			}
+		}
+	}
+
+	private static class Stripe extends LinkedHashMap<StatementKey, Value> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int maxEntries;
+
+		private Stripe(int maxEntries) {
+			super(16, 0.75f, true);
+			this.maxEntries = maxEntries;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<StatementKey, Value> eldest) {
+			return size() > maxEntries;
+		}
+	}
+}
@@ -0,0 +1,24 @@
+package jp.ats.atomsql;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 検索結果の一行ごとに呼び出され、現在の行を処理する関数です。<br>
+ * {@link RowMapper}と異なり、結果オブジェクトを返しません。<br>
+ * org.springframework.jdbc.core.RowCallbackHandler
+ * @see Atom#forEach(RowConsumer)
+ * @author 千葉 哲嗣
+ */
+@FunctionalInterface
+public interface RowConsumer {
+
+	/**
+	 * 現在の行を処理します。<br>
+	 * {@link ResultSet}のカーソルを移動してはいけません。
+	 * @param rs 現在の行を指す{@link ResultSet}
+	 * @param rowNum 1から始まる行番号
+	 * @throws SQLException
+	 */
+	void accept(ResultSet rs, int rowNum) throws SQLException;
+}
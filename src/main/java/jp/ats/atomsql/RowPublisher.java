@@ -0,0 +1,159 @@
+package jp.ats.atomsql;
+
+import java.lang.System.Logger.Level;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * 検索結果を{@link Flow.Subscriber}の要求に応じて一行ずつ通知する内部使用クラスです。<br>
+ * 購読ごとに検索を実行し、要求された件数分のみ{@link java.sql.ResultSet}から行を取得します。<br>
+ * 要求がない間はスレッドを占有せず、完了、エラー、{@link Flow.Subscription#cancel()}のいずれかで{@link java.sql.ResultSet}等をクローズし、接続を解放します。<br>
+ * 検索の実行、行の取得、通知は{@link Executor}上で、購読ごとに逐次的に行われます。
+ * @author 千葉 哲嗣
+ * @param <T> 結果オブジェクトの型
+ */
+class RowPublisher<T> implements Flow.Publisher<T> {
+
+	private final Supplier<Stream<T>> query;
+
+	private final Executor executor;
+
+	/**
+	 * @param query 検索を実行し、結果の{@link Stream}を返す処理
+	 * @param executor 検索、通知を行う{@link Executor}
+	 */
+	RowPublisher(Supplier<Stream<T>> query, Executor executor) {
+		this.query = query;
+		this.executor = executor;
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super T> subscriber) {
+		Objects.requireNonNull(subscriber);
+
+		var subscription = new RowSubscription(subscriber);
+		subscriber.onSubscribe(subscription);
+	}
+
+	private class RowSubscription implements Flow.Subscription {
+
+		private final Flow.Subscriber<? super T> subscriber;
+
+		private final AtomicLong demand = new AtomicLong();
+
+		/**
+		 * 通知処理の予約数<br>
+		 * 0から増加させたスレッドのみが通知処理を実行する
+		 */
+		private final AtomicInteger wip = new AtomicInteger();
+
+		private volatile boolean cancelled;
+
+		private volatile Throwable invalidRequest;
+
+		/**
+		 * 以下は通知処理内でのみ使用する
+		 */
+		private Stream<T> stream;
+
+		private Iterator<T> iterator;
+
+		private boolean done;
+
+		private RowSubscription(Flow.Subscriber<? super T> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				//要求数は正でなければなりません
+				invalidRequest = new IllegalArgumentException("Non-positive request: " + n);
+			} else {
+				demand.getAndUpdate(d -> d + n < 0 ? Long.MAX_VALUE : d + n);
+			}
+
+			schedule();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			schedule();
+		}
+
+		private void schedule() {
+			if (wip.getAndIncrement() == 0) executor.execute(this::drain);
+		}
+
+		private void drain() {
+			var missed = 1;
+			do {
+				emit();
+				missed = wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		private void emit() {
+			if (done) return;
+
+			if (cancelled) {
+				finish();
+				return;
+			}
+
+			var invalid = invalidRequest;
+			if (invalid != null) {
+				finish();
+				subscriber.onError(invalid);
+				return;
+			}
+
+			try {
+				if (iterator == null) {
+					//最初の要求時に検索を実行する
+					if (demand.get() == 0) return;
+
+					stream = query.get();
+					iterator = stream.iterator();
+				}
+
+				while (demand.get() > 0) {
+					if (cancelled) {
+						finish();
+						return;
+					}
+
+					if (!iterator.hasNext()) {
+						finish();
+						subscriber.onComplete();
+						return;
+					}
+
+					subscriber.onNext(iterator.next());
+					demand.decrementAndGet();
+				}
+			} catch (Throwable t) {
+				finish();
+				subscriber.onError(t);
+			}
+		}
+
+		private void finish() {
+			done = true;
+			if (stream == null) return;
+
+			try {
+				stream.close();
+			} catch (Throwable t) {
+				AtomSql.logger.log(Level.WARNING, "Error occured while Stream closing", t);
+			}
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package jp.ats.atomsql;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link Atom#forEachRow(java.util.function.Consumer)}で、検索結果の現在の行を参照するためのクラスです。<br>
+ * 行ごとに結果オブジェクトを生成せず、同一のインスタンスが全行で再利用されます。<br>
+ * そのため、このクラスのインスタンス及び取得した{@link ResultSet}を、呼び出された処理の外で保持してはいけません。<br>
+ * 項目名から位置への変換は初回のみ行われ、以降の行では再利用されます。<br>
+ * このクラスのインスタンスはスレッドセーフではありません。
+ * @author 千葉 哲嗣
+ */
+public final class RowView {
+
+	private final AtomSqlTypeFactory typeFactory;
+
+	private final Map<String, Integer> indexes = new HashMap<>();
+
+	private ResultSet rs;
+
+	private int rowNum;
+
+	RowView(AtomSqlTypeFactory typeFactory) {
+		this.typeFactory = typeFactory;
+	}
+
+	/**
+	 * 現在の行に移動する
+	 */
+	void moveTo(ResultSet rs, int rowNum) {
+		this.rs = rs;
+		this.rowNum = rowNum;
+	}
+
+	/**
+	 * @return 1から始まる行番号
+	 */
+	public int rowNum() {
+		return rowNum;
+	}
+
+	/**
+	 * @return 現在の行を指す{@link ResultSet}
+	 */
+	public ResultSet resultSet() {
+		return rs;
+	}
+
+	/**
+	 * 項目の値を{@link AtomSqlType}で定義されている型で取得します。
+	 * @param <T> 値の型
+	 * @param columnLabel 項目名
+	 * @param type 値の型
+	 * @return 値
+	 */
+	public <T> T get(String columnLabel, Class<T> type) {
+		try {
+			@SuppressWarnings("unchecked")
+			var value = (T) typeFactory.select(type).get(rs, index(columnLabel));
+			return value;
+		} catch (SQLException e) {
+			throw new AtomSqlException(e);
+		}
+	}
+
+	/**
+	 * @param columnLabel 項目名
+	 * @return 値
+	 */
+	public String getString(String columnLabel) {
+		try {
+			return rs.getString(index(columnLabel));
+		} catch (SQLException e) {
+			throw new AtomSqlException(e);
+		}
+	}
+
+	/**
+	 * @param columnLabel 項目名
+	 * @return 値、SQLのNULLの場合、0
+	 */
+	public int getInt(String columnLabel) {
+		try {
+			return rs.getInt(index(columnLabel));
+		} catch (SQLException e) {
+			throw new AtomSqlException(e);
+		}
+	}
+
+	/**
+	 * @param columnLabel 項目名
+	 * @return 値、SQLのNULLの場合、0
+	 */
+	public long getLong(String columnLabel) {
+		try {
+			return rs.getLong(index(columnLabel));
+		} catch (SQLException e) {
+			throw new AtomSqlException(e);
+		}
+	}
+
+	/**
+	 * @param columnLabel 項目名
+	 * @return 値、SQLのNULLの場合、0
+	 */
+	public double getDouble(String columnLabel) {
+		try {
+			return rs.getDouble(index(columnLabel));
+		} catch (SQLException e) {
+			throw new AtomSqlException(e);
+		}
+	}
+
+	/**
+	 * @param columnLabel 項目名
+	 * @return 値
+	 */
+	public BigDecimal getBigDecimal(String columnLabel) {
+		try {
+			return rs.getBigDecimal(index(columnLabel));
+		} catch (SQLException e) {
+			throw new AtomSqlException(e);
+		}
+	}
+
+	/**
+	 * @param columnLabel 項目名
+	 * @return 値、SQLのNULLの場合、false
+	 */
+	public boolean getBoolean(String columnLabel) {
+		try {
+			return rs.getBoolean(index(columnLabel));
+		} catch (SQLException e) {
+			throw new AtomSqlException(e);
+		}
+	}
+
+	/**
+	 * 最後に取得した値がSQLのNULLであったかどうかを返します。
+	 * @see ResultSet#wasNull()
+	 * @return SQLのNULLの場合、true
+	 */
+	public boolean wasNull() {
+		try {
+			return rs.wasNull();
+		} catch (SQLException e) {
+			throw new AtomSqlException(e);
+		}
+	}
+
+	private int index(String columnLabel) throws SQLException {
+		var index = indexes.get(columnLabel);
+		if (index != null) return index;
+
+		index = rs.findColumn(columnLabel);
+		indexes.put(columnLabel, index);
+
+		return index;
+	}
+}
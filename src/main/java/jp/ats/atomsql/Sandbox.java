@@ -89,6 +89,16 @@ public class Sandbox {
 			return new int[size];
 		}
 
+		@Override
+		public <K> int[] batchUpdate(
+			String sql,
+			BatchPreparedStatementSetter bpss,
+			RowMapper<K> generatedKeyMapper,
+			Consumer<K> generatedKeyConsumer) {
+			//ダミーなので、自動生成されたキーは通知しない
+			return batchUpdate(sql, bpss);
+		}
+
 		@Override
 		public <T> Stream<T> queryForStream(String sql, PreparedStatementSetter pss, RowMapper<T> rowMapper) {
 			var statement = preparedStatement();
@@ -131,6 +141,16 @@ public class Sandbox {
 			return 0;
 		}
 
+		@Override
+		public <K> int update(
+			String sql,
+			PreparedStatementSetter pss,
+			RowMapper<K> generatedKeyMapper,
+			Consumer<K> generatedKeyConsumer) {
+			//ダミーなので、自動生成されたキーは通知しない
+			return update(sql, pss);
+		}
+
 		@Override
 		public void logSql(Logger logger, String originalSql, String sql, PreparedStatement ps) {
 			var handler = pairs.get().stream().filter(p -> p.statement == ps).findFirst().get().handler;
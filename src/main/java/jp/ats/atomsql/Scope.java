@@ -0,0 +1,137 @@
+package jp.ats.atomsql;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * tryBatch等の処理範囲内でのみ有効な値を保持するための内部使用クラスです。<br>
+ * 値ごとに{@link ThreadLocal}を持つのではなく、スレッドごとにひとつの不変な束縛の連鎖を持ち、処理範囲の開始時に先頭へ追加、終了時に元へ戻します。<br>
+ * そのため処理範囲を入れ子にしても外側の値は失われず、また束縛の連鎖をそのまま別スレッドに引き継ぐことが可能です。<br>
+ * 引き継ぎ可能と指定されたものだけが、{@link #inherit(Runnable)}等で子タスクに引き継がれます。
+ * @author 千葉 哲嗣
+ * @param <T> 保持する値の型
+ */
+final class Scope<T> {
+
+	/**
+	 * 束縛の連鎖<br>
+	 * 不変なので、スレッド間で共有することが可能
+	 */
+	private static record Binding(Scope<?> scope, Object value, Binding next) {}
+
+	private static final ThreadLocal<Binding> bindings = new ThreadLocal<>();
+
+	private final boolean inheritable;
+
+	/**
+	 * @param inheritable 子タスクに引き継ぐ場合、true
+	 */
+	Scope(boolean inheritable) {
+		this.inheritable = inheritable;
+	}
+
+	/**
+	 * @return 現在の処理範囲で束縛されている値、束縛されていない場合、null
+	 */
+	@SuppressWarnings("unchecked")
+	T get() {
+		for (var binding = bindings.get(); binding != null; binding = binding.next) {
+			if (binding.scope == this) return (T) binding.value;
+		}
+
+		return null;
+	}
+
+	/**
+	 * valueを束縛した処理範囲内でsupplierを実行します。
+	 * @param <R> 返却値の型
+	 * @param value 束縛する値
+	 * @param supplier 処理
+	 * @return supplierの返却値
+	 */
+	<R> R call(T value, Supplier<R> supplier) {
+		var previous = bindings.get();
+		bindings.set(new Binding(this, value, previous));
+		try {
+			return supplier.get();
+		} finally {
+			restore(previous);
+		}
+	}
+
+	/**
+	 * valueを束縛した処理範囲内でrunnableを実行します。
+	 * @param value 束縛する値
+	 * @param runnable 処理
+	 */
+	void run(T value, Runnable runnable) {
+		call(value, () -> {
+			runnable.run();
+			return null;
+		});
+	}
+
+	/**
+	 * 現在の処理範囲のうち引き継ぎ可能なものを、runnableの実行スレッドに引き継ぎます。
+	 * @param runnable 子タスク
+	 * @return 引き継ぎを行う{@link Runnable}
+	 */
+	static Runnable inherit(Runnable runnable) {
+		var snapshot = snapshot();
+		return () -> {
+			var previous = bindings.get();
+			bindings.set(snapshot);
+			try {
+				runnable.run();
+			} finally {
+				restore(previous);
+			}
+		};
+	}
+
+	/**
+	 * 現在の処理範囲のうち引き継ぎ可能なものを、callableの実行スレッドに引き継ぎます。
+	 * @param <R> 返却値の型
+	 * @param callable 子タスク
+	 * @return 引き継ぎを行う{@link Callable}
+	 */
+	static <R> Callable<R> inherit(Callable<R> callable) {
+		var snapshot = snapshot();
+		return () -> {
+			var previous = bindings.get();
+			bindings.set(snapshot);
+			try {
+				return callable.call();
+			} finally {
+				restore(previous);
+			}
+		};
+	}
+
+	private static Binding snapshot() {
+		return inheritables(bindings.get());
+	}
+
+	/**
+	 * 引き継ぎ可能なものだけからなる連鎖を作成する<br>
+	 * すべて引き継ぎ可能であれば、そのまま共有する
+	 */
+	private static Binding inheritables(Binding binding) {
+		if (binding == null) return null;
+
+		var next = inheritables(binding.next);
+
+		if (!binding.scope.inheritable) return next;
+
+		return next == binding.next ? binding : new Binding(binding.scope, binding.value, next);
+	}
+
+	private static void restore(Binding previous) {
+		//スレッドに何も残さない
+		if (previous == null) {
+			bindings.remove();
+		} else {
+			bindings.set(previous);
+		}
+	}
+}
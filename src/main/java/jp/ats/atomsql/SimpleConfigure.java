@@ -1,5 +1,6 @@
 package jp.ats.atomsql;
 
+import java.util.Map;
 import java.util.regex.Pattern;
 
 import jp.ats.atomsql.annotation.NoSqlLog;
@@ -14,6 +15,23 @@ import jp.ats.atomsql.annotation.Qualifier;
  * @param usesQualifier {@link Qualifier}を使用するかどうか
  * @param typeFactoryClass {@link AtomSqlTypeFactory}
  * @param batchThreshold バッチ更新時の閾値
+ * @param rewritesBatchedInserts バッチ更新時、INSERT文を複数行のVALUESを持つ一文に書き換えて実行するかどうか
+ * @param batchRewriteParameterLimit 書き換えられた一文が持つことのできるプレースホルダ数の上限
+ * @param asyncBatchMaxInFlight {@link AtomSql#tryAsyncBatch(Runnable)}で、同時にバックグラウンドで実行中となることができる一括実行の数
+ * @param batchFlushParallelism バッチ更新の一括実行時、{@link Endpoint}ごとのまとまりを並列に実行する数
+ * @param batchAdaptiveTargetMillis バッチ更新の閾値を自動調整する場合の、一括実行時間の目標（ミリ秒）
+ * @param batchAdaptiveMinThreshold 自動調整される閾値の下限
+ * @param batchAdaptiveMaxThreshold 自動調整される閾値の上限
+ * @param batchAdaptiveMaxBytes 自動調整される閾値を制限する、一括実行でバインドする値のおおよそのバイト数の上限
+ * @param batchChunkSize バッチ更新の一括実行時、一度のバッチ実行で扱う行数の上限
+ * @param logStackTraceLimit SQLログに含まれる呼び出し元情報の最大件数
+ * @param slowQueryThresholdMillis SQLログをスロークエリのみ出力する場合の、実行時間の閾値（ミリ秒）
+ * @param slowQuerySampleRate スロークエリのみ出力する場合に、閾値未満のSQLを出力する割合
+ * @param slowQueryEndpointThresholdMillis {@link Endpoint}ごとのスロークエリの閾値（ミリ秒）
+ * @param enableMetrics SQL文ごとの実行回数、実行時間等の計測を行うかどうか
+ * @param registersMetricsMBeans 計測結果をJMXのMBeanとして登録するかどうか
+ * @param endpointInterceptorClasses すべての{@link Endpoint}に適用する{@link EndpointInterceptor}の実装クラス名（カンマ区切り）
+ * @param asyncExecutorClass 非同期実行に使用する{@link java.util.concurrent.Executor}の実装クラス名
  */
 public record SimpleConfigure(
 	boolean enableLog,
@@ -21,7 +39,84 @@ public record SimpleConfigure(
 	boolean ignoreNoSqlLog,
 	boolean usesQualifier,
 	String typeFactoryClass,
-	int batchThreshold) implements Configure {
+	int batchThreshold,
+	boolean rewritesBatchedInserts,
+	int batchRewriteParameterLimit,
+	int asyncBatchMaxInFlight,
+	int batchFlushParallelism,
+	long batchAdaptiveTargetMillis,
+	int batchAdaptiveMinThreshold,
+	int batchAdaptiveMaxThreshold,
+	long batchAdaptiveMaxBytes,
+	int batchChunkSize,
+	int logStackTraceLimit,
+	long slowQueryThresholdMillis,
+	double slowQuerySampleRate,
+	Map<String, Long> slowQueryEndpointThresholdMillis,
+	boolean enableMetrics,
+	boolean registersMetricsMBeans,
+	String endpointInterceptorClasses,
+	String asyncExecutorClass) implements Configure {
+
+	/**
+	 * batch-thresholdより後に追加された項目に、{@link Configure}のデフォルト値を使用するコンストラクタです。
+	 * @param enableLog SQLログを出力するかどうか
+	 * @param logStackTracePattern SQLログに含まれる呼び出し元情報のフィルタパターン（正規表現）
+	 * @param ignoreNoSqlLog アノテーション{@link NoSqlLog}が付与されていても、それを無視してSQLログを出力するかどうか
+	 * @param usesQualifier {@link Qualifier}を使用するかどうか
+	 * @param typeFactoryClass {@link AtomSqlTypeFactory}
+	 * @param batchThreshold バッチ更新時の閾値
+	 */
+	public SimpleConfigure(
+		boolean enableLog,
+		Pattern logStackTracePattern,
+		boolean ignoreNoSqlLog,
+		boolean usesQualifier,
+		String typeFactoryClass,
+		int batchThreshold) {
+		this(new Required(enableLog, logStackTracePattern, ignoreNoSqlLog, usesQualifier, typeFactoryClass, batchThreshold));
+	}
+
+	/**
+	 * configの値をすべて持つインスタンスを生成する
+	 */
+	private SimpleConfigure(Configure config) {
+		this(
+			config.enableLog(),
+			config.logStackTracePattern(),
+			config.ignoreNoSqlLog(),
+			config.usesQualifier(),
+			config.typeFactoryClass(),
+			config.batchThreshold(),
+			config.rewritesBatchedInserts(),
+			config.batchRewriteParameterLimit(),
+			config.asyncBatchMaxInFlight(),
+			config.batchFlushParallelism(),
+			config.batchAdaptiveTargetMillis(),
+			config.batchAdaptiveMinThreshold(),
+			config.batchAdaptiveMaxThreshold(),
+			config.batchAdaptiveMaxBytes(),
+			config.batchChunkSize(),
+			config.logStackTraceLimit(),
+			config.slowQueryThresholdMillis(),
+			config.slowQuerySampleRate(),
+			config.slowQueryEndpointThresholdMillis(),
+			config.enableMetrics(),
+			config.registersMetricsMBeans(),
+			config.endpointInterceptorClasses(),
+			config.asyncExecutorClass());
+	}
+
+	/**
+	 * 必須の項目のみを持ち、その他の項目は{@link Configure}のデフォルト値となる設定
+	 */
+	private static record Required(
+		boolean enableLog,
+		Pattern logStackTracePattern,
+		boolean ignoreNoSqlLog,
+		boolean usesQualifier,
+		String typeFactoryClass,
+		int batchThreshold) implements Configure {}
 
 	/**
 	 * スタブ設定
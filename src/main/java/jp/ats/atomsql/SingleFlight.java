@@ -0,0 +1,70 @@
+package jp.ats.atomsql;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import jp.ats.atomsql.annotation.Coalesced;
+
+/**
+ * {@link Coalesced}が付与されたメソッド、及びそれから生成された{@link Atom}の、同時に実行された同一の検索をひとつにまとめる内部使用クラスです。<br>
+ * 最初の呼び出しのみが検索を行い、実行中に到着した呼び出しはその完了を待って同じ結果を受け取ります。<br>
+ * 結果は保持せず、検索の完了と同時に破棄されます。
+ * @author 千葉 哲嗣
+ */
+class SingleFlight {
+
+	private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+	/**
+	 * 同一のSQL文でも、結果の型が異なるものはまとめない
+	 */
+	private static record Key(StatementKey statement, Class<?> resultClass) {}
+
+	/**
+	 * 同一の検索が実行中であればその結果を、そうでなければloaderで取得した結果を返す
+	 * @param endpointName {@link Endpoints.Entry#name()}
+	 * @param sql バインドする値を持つSQL
+	 * @param resultClass 結果の型
+	 * @param loader 結果の取得処理
+	 * @return 結果
+	 */
+	<R> R get(String endpointName, InnerSql sql, Class<?> resultClass, Supplier<R> loader) {
+		//値の同一性を判定できないものはまとめない
+		if (sql.containsNonThreadSafeValue()) return loader.get();
+
+		var key = new Key(StatementKey.of(endpointName, sql), resultClass);
+
+		var future = new CompletableFuture<Object>();
+		var running = inFlight.putIfAbsent(key, future);
+		if (running != null) return join(running);
+
+		try {
+			var result = loader.get();
+			future.complete(result);
+
+			return result;
+		} catch (Throwable t) {
+			//待機している呼び出しにも同じ例外を通知する
+			future.completeExceptionally(t);
+			throw t;
+		} finally {
+			inFlight.remove(key, future);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <R> R join(CompletableFuture<Object> running) {
+		try {
+			return (R) running.join();
+		} catch (CompletionException e) {
+			var cause = e.getCause();
+			if (cause instanceof RuntimeException re) throw re;
+			if (cause instanceof Error error) throw error;
+
+			throw e;
+		}
+	}
+}
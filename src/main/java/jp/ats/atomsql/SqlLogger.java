@@ -1,8 +1,14 @@
 package jp.ats.atomsql;
 
+import java.lang.StackWalker.StackFrame;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 import jp.ats.atomsql.annotation.NoSqlLog;
 
@@ -13,9 +19,58 @@ abstract class SqlLogger {
 
 	private static String noSqlLogClassName = NoSqlLog.class.getSimpleName();
 
+	private static final StackWalker walker = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+	private static final Module atomSqlModule = SqlLogger.class.getModule();
+
+	private static final String atomSqlPackage = SqlLogger.class.getPackageName();
+
+	private static final StackTraceElement[] noFrames = {};
+
 	abstract void perform(Consumer<Logger> consumer);
 
-	abstract void logElapsed(Consumer<Logger> consumer);
+	/**
+	 * 実行後に経過時間をログ出力する
+	 * @param elapsedNanos 経過時間
+	 * @param deferred 実行前にSQL文を出力しない場合に、実行後にSQL文を出力する処理
+	 */
+	abstract void logElapsed(long elapsedNanos, Consumer<Logger> deferred);
+
+	/**
+	 * 実行するSQL文ごとの設定を反映したインスタンスを返す
+	 * @param endpointName {@link Endpoints.Entry#name()}
+	 * @param thresholdMillis {@link jp.ats.atomsql.annotation.SlowQueryThreshold}で指定された閾値 指定されていない場合、null
+	 * @return 設定を反映したインスタンス
+	 */
+	SqlLogger forStatement(String endpointName, Long thresholdMillis) {
+		return this;
+	}
+
+	/**
+	 * SQLログに出力する呼び出し元を、後から出力するために今取得する<br>
+	 * SQLログが出力されない場合、空
+	 */
+	Optional<StackTraceElement[]> stackTrace() {
+		return Optional.empty();
+	}
+
+	/**
+	 * 実行スレッドとは別のスレッドで実行される場合に備え、SQLログに出力する呼び出し元を今取得する<br>
+	 * {@link #stackTrace()}と異なり、実行後にのみ出力する場合も取得する<br>
+	 * SQLログが出力されない場合、空
+	 */
+	Optional<StackTraceElement[]> callSite() {
+		return Optional.empty();
+	}
+
+	/**
+	 * SQLログに出力する呼び出し元を、出力時点のスタックから取得する<br>
+	 * {@link #perform(Consumer)}内、もしくは実行後の出力時に使用される<br>
+	 * 呼び出し元を出力しない場合、空
+	 */
+	StackTraceElement[] callerFrames() {
+		return noFrames;
+	}
 
 	static final SqlLogger disabled = new SqlLogger() {
 
@@ -23,7 +78,7 @@ abstract class SqlLogger {
 		void perform(Consumer<Logger> consumer) {}
 
 		@Override
-		void logElapsed(Consumer<Logger> consumer) {}
+		void logElapsed(long elapsedNanos, Consumer<Logger> deferred) {}
 	};
 
 	static SqlLogger noSqlLogInstance(String noSqlLogSign) {
@@ -32,34 +87,181 @@ abstract class SqlLogger {
 
 			@Override
 			void perform(Consumer<Logger> consumer) {
+				if (!isLoggable()) return;
+
 				AtomSql.logger.log(Level.INFO, "------ @" + noSqlLogClassName + " ------ " + noSqlLogSign);
 			}
 
 			@Override
-			void logElapsed(Consumer<Logger> consumer) {
-				log(consumer);
+			void logElapsed(long elapsedNanos, Consumer<Logger> deferred) {
+				if (isLoggable()) logElapsedMillis(elapsedNanos);
 			}
 		};
 	}
 
-	static SqlLogger instance() {
-		return new SqlLoggerImpl();
+	/**
+	 * 設定のスナップショットからインスタンスを生成する<br>
+	 * ログ出力を行わない設定の場合、{@link #disabled}
+	 */
+	static SqlLogger instance(Configure config) {
+		if (!config.enableLog()) return disabled;
+
+		if (config.slowQueryThresholdMillis() >= 0) return new SlowQueryLogger(config);
+
+		return new SqlLoggerImpl(config.logStackTracePattern(), config.logStackTraceLimit());
+	}
+
+	/**
+	 * BigDecimal等を使用せず、経過時間をミリ秒で小数点以下2桁まで（切り捨て）出力する
+	 */
+	private static void logElapsedMillis(long elapsedNanos) {
+		var hundredths = elapsedNanos / 10000;
+		var fraction = hundredths % 100;
+		AtomSql.logger.log(Level.INFO, "elapsed: " + hundredths / 100 + (fraction < 10 ? ".0" : ".") + fraction + "ms");
+	}
+
+	/**
+	 * ログレベルによりSQLログが出力されない場合、メッセージの組み立て自体を行わないために使用する
+	 */
+	static boolean isLoggable() {
+		return AtomSql.logger.isLoggable(Level.INFO);
+	}
+
+	/**
+	 * 現在のスレッドのスタックから、Atom SQL外の呼び出し元を取得する<br>
+	 * フィルタは安価なものから順に適用し、{@link StackTraceElement}への変換は残ったものにのみ行う
+	 * @param pattern 呼び出し元として出力する対象のパターン
+	 * @param limit 最大件数 0以下の場合、制限なし
+	 * @return 呼び出し元
+	 */
+	static StackTraceElement[] callerFrames(Pattern pattern, int limit) {
+		return walker.walk(frames -> {
+			var elements = frames
+				.filter(SqlLogger::isCallerFrame)
+				.map(StackFrame::toStackTraceElement)
+				.filter(e -> pattern.matcher(e.toString()).find());
+
+			return (limit > 0 ? elements.limit(limit) : elements).toArray(StackTraceElement[]::new);
+		});
+	}
+
+	private static boolean isCallerFrame(StackFrame frame) {
+		//ソースの不明なもの（Proxy等）は除外
+		if (frame.getFileName() == null) return false;
+
+		var type = frame.getDeclaringClass();
+		var module = type.getModule();
+
+		//Atom SQL関連ソースは除外
+		if (module == atomSqlModule) {
+			var packageName = type.getPackageName();
+			if (packageName.equals(atomSqlPackage) || packageName.startsWith(atomSqlPackage + ".")) return false;
+		}
+
+		//java.で始まるモジュール名は除外
+		var moduleName = module.getName();
+		return moduleName == null || !moduleName.startsWith("java.");
 	}
 
 	private static class SqlLoggerImpl extends SqlLogger {
 
+		private final Pattern stackTracePattern;
+
+		private final int stackTraceLimit;
+
+		private SqlLoggerImpl(Pattern stackTracePattern, int stackTraceLimit) {
+			this.stackTracePattern = stackTracePattern;
+			this.stackTraceLimit = stackTraceLimit;
+		}
+
 		@Override
 		void perform(Consumer<Logger> consumer) {
-			log(consumer);
+			if (isLoggable()) consumer.accept(AtomSql.logger);
 		}
 
 		@Override
-		void logElapsed(Consumer<Logger> consumer) {
-			log(consumer);
+		void logElapsed(long elapsedNanos, Consumer<Logger> deferred) {
+			if (isLoggable()) logElapsedMillis(elapsedNanos);
+		}
+
+		@Override
+		Optional<StackTraceElement[]> stackTrace() {
+			return callSite();
+		}
+
+		@Override
+		Optional<StackTraceElement[]> callSite() {
+			return isLoggable() ? Optional.of(callerFrames()) : Optional.empty();
+		}
+
+		@Override
+		StackTraceElement[] callerFrames() {
+			return callerFrames(stackTracePattern, stackTraceLimit);
 		}
 	}
 
-	private static void log(Consumer<Logger> consumer) {
-		if (AtomSql.configure().enableLog()) consumer.accept(AtomSql.logger);
+	/**
+	 * 実行前には何も出力せず、実行時間が閾値以上となったもの、もしくは抽出されたもののみ実行後に出力する
+	 */
+	private static class SlowQueryLogger extends SqlLoggerImpl {
+
+		private final long thresholdNanos;
+
+		private final double sampleRate;
+
+		private final Map<String, Long> endpointThresholdMillis;
+
+		private SlowQueryLogger(Configure config) {
+			this(
+				config.logStackTracePattern(),
+				config.logStackTraceLimit(),
+				config.slowQueryThresholdMillis(),
+				config.slowQuerySampleRate(),
+				config.slowQueryEndpointThresholdMillis());
+		}
+
+		private SlowQueryLogger(
+			Pattern stackTracePattern,
+			int stackTraceLimit,
+			long thresholdMillis,
+			double sampleRate,
+			Map<String, Long> endpointThresholdMillis) {
+			super(stackTracePattern, stackTraceLimit);
+			thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+			this.sampleRate = sampleRate;
+			this.endpointThresholdMillis = endpointThresholdMillis;
+		}
+
+		@Override
+		SqlLogger forStatement(String endpointName, Long thresholdMillis) {
+			if (thresholdMillis == null) {
+				thresholdMillis = endpointName == null ? null : endpointThresholdMillis.get(endpointName);
+
+				if (thresholdMillis == null) return this;
+			}
+
+			return new SlowQueryLogger(super.stackTracePattern, super.stackTraceLimit, thresholdMillis, sampleRate, endpointThresholdMillis);
+		}
+
+		@Override
+		void perform(Consumer<Logger> consumer) {}
+
+		@Override
+		Optional<StackTraceElement[]> stackTrace() {
+			//実行前の取得は行わない
+			return Optional.empty();
+		}
+
+		@Override
+		void logElapsed(long elapsedNanos, Consumer<Logger> deferred) {
+			var slow = elapsedNanos >= thresholdNanos;
+			if (!slow && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) return;
+
+			if (!isLoggable()) return;
+
+			AtomSql.logger.log(Level.INFO, slow ? "------ SLOW SQL ------" : "------ SAMPLED SQL ------");
+			deferred.accept(AtomSql.logger);
+			logElapsedMillis(elapsedNanos);
+		}
 	}
 }
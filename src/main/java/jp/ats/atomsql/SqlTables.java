@@ -0,0 +1,182 @@
+package jp.ats.atomsql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * SQL文から、参照、更新するテーブル名を簡易的に抽出する内部使用クラスです。<br>
+ * 構文解析は行わず、FROM、JOIN、INTO、UPDATE等の直後の識別子をテーブル名とみなします。<br>
+ * テーブル名はスキーマ等の修飾、引用符を除き、小文字に変換したものとなります。<br>
+ * 抽出できなかった場合はnullを返し、呼び出し側ですべてのテーブルが対象であるとみなすことを想定しています。
+ * @author 千葉 哲嗣
+ */
+class SqlTables {
+
+	private static final String identifier = "(?:\"[^\"]*\"|`[^`]*`|\\[[^\\]]*\\]|[\\w$]+)";
+
+	private static final Pattern identifierPattern = Pattern.compile(identifier);
+
+	private static final Pattern tokenPattern = Pattern.compile(identifier + "(?:\\s*\\.\\s*" + identifier + ")*|\\S");
+
+	private static final Pattern commentPattern = Pattern.compile("/\\*.*?\\*/|--[^\\r\\n]*", Pattern.DOTALL);
+
+	private static final Pattern literalPattern = Pattern.compile("'(?:[^']|'')*'");
+
+	private static final Set<String> clauseKeywords = Set.of(
+		"where",
+		"group",
+		"order",
+		"having",
+		"union",
+		"intersect",
+		"except",
+		"minus",
+		"limit",
+		"offset",
+		"fetch",
+		"for",
+		"join",
+		"inner",
+		"left",
+		"right",
+		"full",
+		"cross",
+		"natural",
+		"on",
+		"using",
+		"set",
+		"values",
+		"select",
+		"window");
+
+	private SqlTables() {}
+
+	/**
+	 * 検索、更新を問わず、SQL文中で参照されているテーブル名を返す
+	 * @param sql SQL文
+	 * @return テーブル名、抽出できなかった場合、null
+	 */
+	static Set<String> referenced(String sql) {
+		var tokens = tokenize(sql);
+
+		var tables = new HashSet<String>();
+		for (var i = 0; i < tokens.size(); i++) {
+			switch (tokens.get(i)) {
+			case "from" -> i = fromList(tokens, i + 1, tables);
+			case "join", "into", "update" -> addTable(tokens, i + 1, tables);
+			default -> {}
+			}
+		}
+
+		return tables.isEmpty() ? null : Collections.unmodifiableSet(tables);
+	}
+
+	/**
+	 * 更新処理（INSERT, UPDATE, DELETE, MERGE）、DDLのSQL文が更新するテーブル名を返す
+	 * @param sql SQL文
+	 * @return テーブル名、抽出できなかった場合、null
+	 */
+	static Set<String> modified(String sql) {
+		var tokens = tokenize(sql);
+		if (tokens.isEmpty()) return null;
+
+		var index = switch (tokens.get(0)) {
+		case "insert", "merge", "replace" -> tokens.indexOf("into") + 1;
+		case "update" -> 1;
+		case "delete" -> tokens.indexOf("from") + 1;
+		case "truncate" -> tokens.size() > 1 && tokens.get(1).equals("table") ? 2 : 1;
+		case "create", "alter", "drop" -> tokens.indexOf("table") + 1;
+		default -> 0;
+		};
+
+		//WITH句等、先頭で判別できないもの
+		if (index <= 0) return null;
+
+		var tables = new HashSet<String>();
+		addTable(tokens, index, tables);
+
+		return tables.isEmpty() ? null : Collections.unmodifiableSet(tables);
+	}
+
+	/**
+	 * FROMに続くカンマ区切りのテーブルを追加し、最後に読んだ位置を返す
+	 */
+	private static int fromList(List<String> tokens, int index, Set<String> tables) {
+		while (index < tokens.size()) {
+			//サブクエリの場合、内側のFROMは後で読まれる
+			if (!addTable(tokens, index, tables)) return index - 1;
+
+			index++;
+
+			//別名
+			if (index < tokens.size() && tokens.get(index).equals("as")) index++;
+			if (index < tokens.size() && isIdentifier(tokens.get(index)) && !clauseKeywords.contains(tokens.get(index))) index++;
+
+			if (index >= tokens.size() || !tokens.get(index).equals(",")) return index - 1;
+
+			index++;
+		}
+
+		return index;
+	}
+
+	private static boolean addTable(List<String> tokens, int index, Set<String> tables) {
+		if (index >= tokens.size()) return false;
+
+		var token = tokens.get(index);
+		if (!isIdentifier(token) || clauseKeywords.contains(token)) return false;
+
+		//IF NOT EXISTS、IF EXISTS
+		if (token.equals("if")) {
+			var next = index + 1;
+			if (next < tokens.size() && tokens.get(next).equals("not")) next++;
+			return addTable(tokens, next + 1, tables);
+		}
+
+		tables.add(normalize(token));
+
+		return true;
+	}
+
+	private static boolean isIdentifier(String token) {
+		var c = token.charAt(0);
+		return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '"' || c == '`' || c == '[';
+	}
+
+	/**
+	 * 修飾、引用符を除く
+	 */
+	private static String normalize(String name) {
+		var matcher = identifierPattern.matcher(name);
+
+		var last = name;
+		while (matcher.find()) {
+			last = matcher.group();
+		}
+
+		if (last.length() > 1) {
+			var first = last.charAt(0);
+			if (first == '"' || first == '`' || first == '[') last = last.substring(1, last.length() - 1);
+		}
+
+		return last;
+	}
+
+	private static List<String> tokenize(String sql) {
+		var cleaned = literalPattern.matcher(commentPattern.matcher(sql).replaceAll(" ")).replaceAll("''");
+
+		//キーワードとの比較のため、すべて小文字とする
+		var tokens = new ArrayList<String>();
+		var matcher = tokenPattern.matcher(cleaned);
+		while (matcher.find()) {
+			tokens.add(matcher.group().toLowerCase(Locale.ROOT));
+		}
+
+		return tokens;
+	}
+}
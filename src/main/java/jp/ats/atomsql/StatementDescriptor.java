@@ -0,0 +1,62 @@
+package jp.ats.atomsql;
+
+import java.util.List;
+
+/**
+ * {@link EndpointInterceptor}に渡される、実行するSQL文の情報です。
+ * @author 千葉 哲嗣
+ * @param kind 処理の種類
+ * @param endpointName {@link Endpoints.Entry#name()}
+ * @param method {@link jp.ats.atomsql.annotation.SqlProxy}のインターフェイス名#メソッド名 {@link jp.ats.atomsql.annotation.SqlProxy}を使用しない場合、null
+ * @param originalSql プレースホルダ変換前のSQL文
+ * @param sql {@link Endpoint}に渡される、プレースホルダ変換後のSQL文
+ * @param binds バインドする値 バッチ更新の場合、空
+ * @param batchBinds バッチ更新の場合、一度に実行する行ごとのバインドする値 複数行INSERTへの書き換えが行われた場合も書き換え前の行ごととなる それ以外の場合、空
+ * @param rows バッチ更新の場合、一度に実行する文の数 それ以外の場合、1
+ */
+public record StatementDescriptor(
+	Kind kind,
+	String endpointName,
+	String method,
+	String originalSql,
+	String sql,
+	List<Bind> binds,
+	List<List<Bind>> batchBinds,
+	int rows) {
+
+	/**
+	 * 処理の種類
+	 */
+	public static enum Kind {
+
+		/**
+		 * {@link Endpoint#queryForStream(String, PreparedStatementSetter, RowMapper)}
+		 */
+		QUERY,
+
+		/**
+		 * {@link Endpoint#query(String, PreparedStatementSetter, RowConsumer)}<br>
+		 * 検索結果は行ごとに通知されるため、処理結果はnull
+		 */
+		QUERY_EACH,
+
+		/**
+		 * {@link Endpoint#update(String, PreparedStatementSetter)}等
+		 */
+		UPDATE,
+
+		/**
+		 * {@link Endpoint#batchUpdate(String, BatchPreparedStatementSetter)}等
+		 */
+		BATCH_UPDATE;
+	}
+
+	/**
+	 * バインドする値<br>
+	 * confidentialがtrueの値はログ等に出力しないでください。
+	 * @param name プレースホルダ名
+	 * @param value 値
+	 * @param confidential {@link jp.ats.atomsql.annotation.ConfidentialSql}により機密扱いとされている場合、true
+	 */
+	public static record Bind(String name, Object value, boolean confidential) {}
+}
@@ -0,0 +1,22 @@
+package jp.ats.atomsql;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 検索、更新処理一回分の実行を表すイベントです。<br>
+ * 検索の場合、{@link java.util.stream.Stream}が返されるまでを対象とし、行の取得は{@link StreamEvent}で表します。
+ * @author 千葉 哲嗣
+ */
+@Name("jp.ats.atomsql.Statement")
+@Label("SQL Statement")
+@Description("Execution of a query or an update")
+class StatementEvent extends AtomSqlEvent {
+
+	@Label("Rows Updated")
+	long rowsUpdated;
+
+	@Label("Failed")
+	boolean failed;
+}
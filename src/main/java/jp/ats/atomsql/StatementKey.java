@@ -0,0 +1,35 @@
+package jp.ats.atomsql;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 実行するSQL文を、{@link Endpoint}、SQL文、バインドする値で識別するための内部使用クラスです。<br>
+ * バインドする値は内容で等価判定を行えるように変換されます。
+ * @author 千葉 哲嗣
+ * @param endpointName {@link Endpoints.Entry#name()}
+ * @param sql プレースホルダ変換前のSQL文
+ * @param values バインドする値
+ */
+record StatementKey(String endpointName, String sql, List<Object> values) {
+
+	/**
+	 * {@link jp.ats.atomsql.annotation.NonThreadSafe}な値は同一性を判定できないので、使用前に{@link InnerSql#containsNonThreadSafeValue()}で除外すること
+	 */
+	static StatementKey of(String endpointName, InnerSql sql) {
+		var values = new ArrayList<Object>();
+		sql.placeholders(p -> values.add(keyOf(p.value())));
+
+		return new StatementKey(endpointName, sql.originalString(), Collections.unmodifiableList(values));
+	}
+
+	private static Object keyOf(Object value) {
+		if (value instanceof Csv<?> csv) return csv.values();
+
+		if (value instanceof byte[] bytes) return ByteBuffer.wrap(bytes.clone());
+
+		return value;
+	}
+}
@@ -0,0 +1,191 @@
+package jp.ats.atomsql;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link jp.ats.atomsql.annotation.SqlProxy}のメソッド、もしくはSQL文ごとの計測結果を保持するクラスです。<br>
+ * 実行時間はナノ秒で記録されます。<br>
+ * このクラスのインスタンスはスレッドセーフです。
+ * @see AtomSqlMetrics
+ * @author 千葉 哲嗣
+ */
+public final class StatementMetrics implements StatementMetricsMXBean {
+
+	private static final double nanosPerMilli = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final String name;
+
+	private final LongAdder executions = new LongAdder();
+
+	private final LongAdder errors = new LongAdder();
+
+	private final LongAdder rowsReturned = new LongAdder();
+
+	private final LongAdder rowsUpdated = new LongAdder();
+
+	private final Histogram latency = new Histogram();
+
+	private final Histogram batchLatency = new Histogram();
+
+	private final Histogram batchSizes = new Histogram();
+
+	StatementMetrics(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * 一回の実行を記録します。
+	 * @param elapsedNanos 実行時間
+	 * @param failed 例外が発生した場合、true
+	 */
+	void recordExecution(long elapsedNanos, boolean failed) {
+		executions.increment();
+		latency.record(elapsedNanos);
+
+		if (failed) errors.increment();
+	}
+
+	/**
+	 * 一回のバッチ実行を記録します。
+	 * @param elapsedNanos 実行時間
+	 * @param rows 行数
+	 * @param failed 例外が発生した場合、true
+	 */
+	void recordBatch(long elapsedNanos, int rows, boolean failed) {
+		batchLatency.record(elapsedNanos);
+		batchSizes.record(rows);
+
+		if (failed) errors.increment();
+	}
+
+	void rowReturned() {
+		rowsReturned.increment();
+	}
+
+	void rowsUpdated(long count) {
+		//Statement.SUCCESS_NO_INFO等は加算しない
+		if (count > 0) rowsUpdated.add(count);
+	}
+
+	/**
+	 * @return 実行時間（ナノ秒）の{@link Histogram}
+	 */
+	public Histogram latency() {
+		return latency;
+	}
+
+	/**
+	 * @return バッチ実行時間（ナノ秒）の{@link Histogram}
+	 */
+	public Histogram batchLatency() {
+		return batchLatency;
+	}
+
+	/**
+	 * @return バッチ実行一回あたりの行数の{@link Histogram}
+	 */
+	public Histogram batchSizes() {
+		return batchSizes;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public long getExecutions() {
+		return executions.sum();
+	}
+
+	@Override
+	public long getErrors() {
+		return errors.sum();
+	}
+
+	@Override
+	public long getRowsReturned() {
+		return rowsReturned.sum();
+	}
+
+	@Override
+	public long getRowsUpdated() {
+		return rowsUpdated.sum();
+	}
+
+	@Override
+	public long getBatchExecutions() {
+		return batchSizes.count();
+	}
+
+	@Override
+	public long getBatchRows() {
+		return batchSizes.sum();
+	}
+
+	@Override
+	public long getMaxBatchSize() {
+		return batchSizes.max();
+	}
+
+	@Override
+	public double getMeanMillis() {
+		return latency.mean() / nanosPerMilli;
+	}
+
+	@Override
+	public double getMaxMillis() {
+		return latency.max() / nanosPerMilli;
+	}
+
+	@Override
+	public double getP50Millis() {
+		return latency.percentile(50) / nanosPerMilli;
+	}
+
+	@Override
+	public double getP95Millis() {
+		return latency.percentile(95) / nanosPerMilli;
+	}
+
+	@Override
+	public double getP99Millis() {
+		return latency.percentile(99) / nanosPerMilli;
+	}
+
+	@Override
+	public double getBatchMeanMillis() {
+		return batchLatency.mean() / nanosPerMilli;
+	}
+
+	@Override
+	public double getBatchP99Millis() {
+		return batchLatency.percentile(99) / nanosPerMilli;
+	}
+
+	@Override
+	public void reset() {
+		executions.reset();
+		errors.reset();
+		rowsReturned.reset();
+		rowsUpdated.reset();
+		latency.reset();
+		batchLatency.reset();
+		batchSizes.reset();
+	}
+
+	@Override
+	public String toString() {
+		return name
+			+ " executions: " + getExecutions()
+			+ ", errors: " + getErrors()
+			+ ", rows returned: " + getRowsReturned()
+			+ ", rows updated: " + getRowsUpdated()
+			+ ", batch executions: " + getBatchExecutions()
+			+ ", batch rows: " + getBatchRows()
+			+ ", mean: " + getMeanMillis() + "ms"
+			+ ", p99: " + getP99Millis() + "ms"
+			+ ", max: " + getMaxMillis() + "ms";
+	}
+}
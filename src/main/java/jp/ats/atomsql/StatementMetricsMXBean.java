@@ -0,0 +1,89 @@
+package jp.ats.atomsql;
+
+/**
+ * {@link StatementMetrics}をJMXで公開するためのインターフェイスです。<br>
+ * 時間はすべてミリ秒で返されます。
+ * @author 千葉 哲嗣
+ */
+public interface StatementMetricsMXBean {
+
+	/**
+	 * @return 計測対象の名称
+	 */
+	String getName();
+
+	/**
+	 * @return 実行回数（バッチ実行を除く）
+	 */
+	long getExecutions();
+
+	/**
+	 * @return 例外の発生した回数（バッチ実行を含む）
+	 */
+	long getErrors();
+
+	/**
+	 * @return 検索結果として返された行数
+	 */
+	long getRowsReturned();
+
+	/**
+	 * @return 更新処理の結果件数の合計（バッチ実行を含む）
+	 */
+	long getRowsUpdated();
+
+	/**
+	 * @return バッチ実行の回数
+	 */
+	long getBatchExecutions();
+
+	/**
+	 * @return バッチ実行された行数の合計
+	 */
+	long getBatchRows();
+
+	/**
+	 * @return バッチ実行一回あたりの最大行数
+	 */
+	long getMaxBatchSize();
+
+	/**
+	 * @return 実行時間の平均値
+	 */
+	double getMeanMillis();
+
+	/**
+	 * @return 実行時間の最大値
+	 */
+	double getMaxMillis();
+
+	/**
+	 * @return 実行時間の50パーセンタイル
+	 */
+	double getP50Millis();
+
+	/**
+	 * @return 実行時間の95パーセンタイル
+	 */
+	double getP95Millis();
+
+	/**
+	 * @return 実行時間の99パーセンタイル
+	 */
+	double getP99Millis();
+
+	/**
+	 * @return バッチ実行時間の平均値
+	 */
+	double getBatchMeanMillis();
+
+	/**
+	 * @return バッチ実行時間の99パーセンタイル
+	 */
+	double getBatchP99Millis();
+
+	/**
+	 * 計測結果をすべて破棄します。
+	 */
+	void reset();
+}
@@ -0,0 +1,18 @@
+package jp.ats.atomsql;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 検索の実行から、結果の{@link java.util.stream.Stream}がクローズされるまでを表すイベントです。
+ * @author 千葉 哲嗣
+ */
+@Name("jp.ats.atomsql.Stream")
+@Label("SQL Result Stream")
+@Description("Query execution until the result stream is closed")
+class StreamEvent extends AtomSqlEvent {
+
+	@Label("Rows Fetched")
+	long rowsFetched;
+}
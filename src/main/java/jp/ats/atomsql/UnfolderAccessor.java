@@ -0,0 +1,176 @@
+package jp.ats.atomsql;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+
+/**
+ * アノテーションプロセッサにより自動生成された変数展開用クラスを操作するための内部使用クラスです。<br>
+ * 生成クラスごとに一度だけ解決を行い、以降の呼び出しではリフレクションを使用しません。<br>
+ * アクセサメソッドを持たない古いバージョンで生成されたクラス、及び無条件にexportsされていないパッケージのクラスの場合、リフレクションで代替します。
+ * @author 千葉 哲嗣
+ */
+class UnfolderAccessor {
+
+	private static final ClassValue<UnfolderAccessor> accessors = new ClassValue<>() {
+
+		@Override
+		protected UnfolderAccessor computeValue(Class<?> type) {
+			return new UnfolderAccessor(type);
+		}
+	};
+
+	/**
+	 * フィールド名（宣言順）
+	 */
+	final String[] names;
+
+	/**
+	 * フィールドの型（宣言順）
+	 */
+	final Class<?>[] types;
+
+	private final MethodHandle constructor;
+
+	private final MethodHandle values;
+
+	/**
+	 * {@link MethodHandle}を使用できない場合のコンストラクタ
+	 */
+	private final Constructor<?> reflectiveConstructor;
+
+	private final Field[] fields;
+
+	private UnfolderAccessor(Class<?> unfolderClass) {
+		var lookup = MethodHandles.publicLookup();
+
+		MethodHandle constructor;
+		MethodHandle names;
+		MethodHandle values;
+		try {
+			constructor = lookup.findConstructor(unfolderClass, MethodType.methodType(void.class))
+				.asType(MethodType.methodType(Object.class));
+
+			try {
+				names = lookup.findStatic(unfolderClass, Constants.UNFOLDER_NAMES_METHOD, MethodType.methodType(String[].class));
+				values = lookup.findStatic(unfolderClass, Constants.UNFOLDER_VALUES_METHOD, MethodType.methodType(Object[].class, unfolderClass))
+					.asType(MethodType.methodType(Object[].class, Object.class));
+			} catch (NoSuchMethodException e) {
+				//アクセサを持たない、旧バージョンで生成されたクラス
+				names = null;
+				values = null;
+			}
+		} catch (IllegalAccessException e) {
+			//publicLookupは無条件にexportsされたパッケージしか参照できないため、限定的なexportsやopensの場合はリフレクションで代替する
+			constructor = null;
+			names = null;
+			values = null;
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException(e);
+		}
+
+		this.constructor = constructor;
+
+		if (constructor == null) {
+			try {
+				reflectiveConstructor = unfolderClass.getConstructor();
+			} catch (NoSuchMethodException e) {
+				throw new IllegalStateException(e);
+			}
+		} else {
+			reflectiveConstructor = null;
+		}
+
+		if (values != null) {
+			this.values = values;
+			fields = null;
+
+			try {
+				this.names = (String[]) names.invokeExact();
+			} catch (Throwable t) {
+				throw new IllegalStateException(t);
+			}
+
+			types = Arrays.stream(this.names).map(n -> {
+				try {
+					return unfolderClass.getField(n).getType();
+				} catch (NoSuchFieldException e) {
+					throw new IllegalStateException(e);
+				}
+			}).toArray(Class<?>[]::new);
+		} else {
+			this.values = null;
+			fields = Arrays.stream(unfolderClass.getFields()).filter(f -> !Modifier.isStatic(f.getModifiers())).toArray(Field[]::new);
+			this.names = Arrays.stream(fields).map(Field::getName).toArray(String[]::new);
+			types = Arrays.stream(fields).map(Field::getType).toArray(Class<?>[]::new);
+		}
+	}
+
+	/**
+	 * 変数展開用クラスに対応するインスタンスを返します。
+	 * @param unfolderClass 自動生成された変数展開用クラス
+	 * @return {@link UnfolderAccessor}
+	 */
+	static UnfolderAccessor of(Class<?> unfolderClass) {
+		return accessors.get(unfolderClass);
+	}
+
+	/**
+	 * 変数展開用クラスの新しいインスタンスを生成します。
+	 * @return 変数展開用クラスのインスタンス
+	 */
+	Object newInstance() {
+		if (constructor == null) return newInstanceByReflection();
+
+		try {
+			return (Object) constructor.invokeExact();
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new IllegalStateException(t);
+		}
+	}
+
+	/**
+	 * 変数展開用クラスのインスタンスから、フィールドの値を宣言順に取り出します。
+	 * @param unfolder 変数展開用クラスのインスタンス
+	 * @return フィールドの値
+	 */
+	Object[] values(Object unfolder) {
+		if (values == null) return valuesByReflection(unfolder);
+
+		try {
+			return (Object[]) values.invokeExact(unfolder);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new IllegalStateException(t);
+		}
+	}
+
+	private Object newInstanceByReflection() {
+		try {
+			return reflectiveConstructor.newInstance();
+		} catch (InvocationTargetException | IllegalAccessException | InstantiationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private Object[] valuesByReflection(Object unfolder) {
+		var result = new Object[fields.length];
+		for (var i = 0; i < fields.length; i++) {
+			try {
+				result[i] = fields[i].get(unfolder);
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,35 @@
+package jp.ats.atomsql.annotation;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * {@link SqlProxy}のメソッドの検索結果をキャッシュすることを表すアノテーションです。<br>
+ * 戻り値の型が{@link java.util.List}もしくは{@link java.util.Optional}のメソッドにのみ有効です。<br>
+ * キャッシュはメソッドごとに持ち、バインドする値が等しい呼び出しには、有効期間内であればデータベースにアクセスせずキャッシュした結果を返します。<br>
+ * キャッシュされる{@link java.util.List}は変更不可となります。<br>
+ * {@link NonThreadSafe}が付与されている型の値を使用する呼び出しはキャッシュされません。<br>
+ * {@link jp.ats.atomsql.AtomSql#bollowConnection(java.util.function.Consumer)}内の呼び出しは、キャッシュを使用せずに検索されます。
+ * @author 千葉 哲嗣
+ */
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface Cached {
+
+	/**
+	 * キャッシュの有効期間（ミリ秒）です。
+	 * @return 有効期間
+	 */
+	long ttlMillis();
+
+	/**
+	 * キャッシュする結果の最大件数です。<br>
+	 * 超えた場合、最も長く使用されていないものから破棄されます。<br>
+	 * デフォルトは1000です。
+	 * @return 最大件数
+	 */
+	int maxEntries() default 1000;
+}
@@ -0,0 +1,21 @@
+package jp.ats.atomsql.annotation;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * {@link SqlProxy}のメソッドの、同時に実行された同一の検索をひとつにまとめることを表すアノテーションです。<br>
+ * 戻り値の型が{@link java.util.List}、{@link java.util.Optional}のメソッドの他、{@link jp.ats.atomsql.Atom}、{@link jp.ats.atomsql.Prototype}のメソッドに有効です。<br>
+ * {@link jp.ats.atomsql.Atom}の場合、それ及びそれから結合等で生成された{@link jp.ats.atomsql.Atom}の{@link jp.ats.atomsql.Atom#list()}、{@link jp.ats.atomsql.Atom#get()}がまとめられます。{@link jp.ats.atomsql.RowMapper}を使用する検索、{@link java.util.stream.Stream}を返す検索はまとめられません。<br>
+ * 同一の{@link jp.ats.atomsql.Endpoints.Entry}に対して、SQL文とバインドする値、結果の型が等しい検索が実行中の場合、データベースにアクセスせずその完了を待ち、同じ結果を返します。<br>
+ * 共有される{@link java.util.List}は変更不可となります。<br>
+ * {@link NonThreadSafe}が付与されている型の値を使用する呼び出し、及び{@link jp.ats.atomsql.AtomSql#bollowConnection(String, java.util.function.Consumer)}内の呼び出しはまとめられません。<br>
+ * {@link Cached}と併用した場合、キャッシュに存在しない結果の取得がまとめられます。
+ * @author 千葉 哲嗣
+ */
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface Coalesced {}
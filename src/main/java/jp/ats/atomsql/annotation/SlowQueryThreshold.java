@@ -0,0 +1,28 @@
+package jp.ats.atomsql.annotation;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import jp.ats.atomsql.Configure;
+
+/**
+ * スロークエリのみSQLログ出力を行う場合の、実行時間の閾値を個別に指定するアノテーションです。<br>
+ * メソッドに付与されたものが、型に付与されたものより優先されます。<br>
+ * 設定でスロークエリのみ出力するとされている場合のみ有効です。
+ * @see Configure#slowQueryThresholdMillis()
+ * @author 千葉 哲嗣
+ */
+@Target({ TYPE, METHOD })
+@Retention(RUNTIME)
+public @interface SlowQueryThreshold {
+
+	/**
+	 * 実行時間の閾値（ミリ秒）です。
+	 * @return 閾値
+	 */
+	long value();
+}
@@ -57,9 +57,9 @@ class AtomsUnfolderBuilder extends UnfolderBuilder {
 	}
 
 	@Override
-	List<String> fields(ExecutableElement method, String sql) {
+	List<Field> fields(ExecutableElement method, String sql) {
 		var dubplicateChecker = new HashSet<String>();
-		var fields = new LinkedList<String>();
+		var fields = new LinkedList<Field>();
 		AtomPlaceholderFinder.execute(sql, variable -> {
 			//重複は除外
 			if (dubplicateChecker.contains(variable)) return;
@@ -71,7 +71,7 @@ class AtomsUnfolderBuilder extends UnfolderBuilder {
 				+ "<?> "
 				+ variable
 				+ ";";
-			fields.add(field);
+			fields.add(new Field(variable, field));
 		});
 
 		return fields;
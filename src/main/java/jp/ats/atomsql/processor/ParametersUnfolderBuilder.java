@@ -73,7 +73,7 @@ class ParametersUnfolderBuilder extends UnfolderBuilder {
 	}
 
 	@Override
-	List<String> fields(ExecutableElement method, String sql) {
+	List<Field> fields(ExecutableElement method, String sql) {
 		Map<String, TypeHint> annotatedHints = new HashMap<>();
 
 		var typeHints = method.getAnnotation(TypeHints.class);
@@ -84,7 +84,7 @@ class ParametersUnfolderBuilder extends UnfolderBuilder {
 		}
 
 		var dubplicateChecker = new HashSet<String>();
-		var fields = new LinkedList<String>();
+		var fields = new LinkedList<Field>();
 		PlaceholderFinder.execute(sql, f -> {
 			//重複は除外
 			if (dubplicateChecker.contains(f.placeholder)) return;
@@ -117,7 +117,7 @@ class ParametersUnfolderBuilder extends UnfolderBuilder {
 				+ " "
 				+ f.placeholder
 				+ ";";
-			fields.add(field);
+			fields.add(new Field(f.placeholder, field));
 		});
 
 		return fields;
@@ -9,6 +9,8 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -175,7 +177,7 @@ class SqlProxyProcessor {
 		@Override
 		public ReturnTypeCheckerResult visitPrimitive(PrimitiveType t, ExecutableElement p) {
 			return switch (t.getKind()) {
-			case INT -> ReturnTypeCheckerResult.defaultValue;
+			case INT, LONG -> ReturnTypeCheckerResult.defaultValue;
 			default -> errorAction(t, p);
 			};
 		}
@@ -189,7 +191,10 @@ class SqlProxyProcessor {
 				return processPrototype(t, p);
 			}
 
-			if (ProcessorUtils.sameClass(type, List.class) || ProcessorUtils.sameClass(type, Optional.class) || ProcessorUtils.sameClass(type, Stream.class)) {
+			if (ProcessorUtils.sameClass(type, List.class)
+				|| ProcessorUtils.sameClass(type, Optional.class)
+				|| ProcessorUtils.sameClass(type, Stream.class)
+				|| ProcessorUtils.sameClass(type, Flow.Publisher.class)) {
 				var dataType = t.getTypeArguments().get(0);
 
 				if (dataType.accept(AnnotationExtractor.instance, null)) {
@@ -198,7 +203,7 @@ class SqlProxyProcessor {
 
 				if (ProcessorUtils.toElement(dataType) == null) {
 					// <?>
-					// Stream, List, Optionalの場合は、型パラメータを指定しなければならない
+					// Stream, List, Optional, Publisherの場合は、型パラメータを指定しなければならない
 					return errorAction(t, p);
 				}
 
@@ -209,6 +214,26 @@ class SqlProxyProcessor {
 				return errorDataType(dataType, p);
 			}
 
+			if (ProcessorUtils.sameClass(type, CompletableFuture.class)) {
+				var resultType = t.getTypeArguments().get(0);
+
+				// CompletableFutureの場合は、List, Optional, Integer, Longのみ
+				var resultElement = ProcessorUtils.toElement(resultType);
+				if (resultElement != null) {
+					var resultTypeElement = ProcessorUtils.toTypeElement(resultElement);
+
+					if (ProcessorUtils.sameClass(resultTypeElement, Integer.class) || ProcessorUtils.sameClass(resultTypeElement, Long.class)) {
+						return ReturnTypeCheckerResult.defaultValue;
+					}
+
+					if (ProcessorUtils.sameClass(resultTypeElement, List.class) || ProcessorUtils.sameClass(resultTypeElement, Optional.class)) {
+						return resultType.accept(this, p);
+					}
+				}
+
+				return errorAction(t, p);
+			}
+
 			if (ProcessorUtils.sameClass(type, Atom.class)) {
 				var dataType = t.getTypeArguments().get(0);
 
@@ -108,7 +108,14 @@ abstract class UnfolderBuilder {
 		static final ExtractResult fail = new ExtractResult(false, null);
 	}
 
-	abstract List<String> fields(ExecutableElement method, String sql);
+	abstract List<Field> fields(ExecutableElement method, String sql);
+
+	/**
+	 * 生成クラスのフィールド
+	 * @param name フィールド名
+	 * @param declaration フィールド宣言
+	 */
+	static record Field(String name, String declaration) {}
 
 	void execute(ExecutableElement method, Element targetType) {
 		String generatePackageName;
@@ -160,7 +167,15 @@ abstract class UnfolderBuilder {
 		param.put("PACKAGE", packageName.isEmpty() ? "" : ("package " + packageName + ";"));
 		param.put("CLASS", generateClassName);
 
-		param.put("FIELDS", String.join(Constants.NEW_LINE, fields(method, result.sql)));
+		var fields = fields(method, result.sql);
+
+		param.put("FIELDS", String.join(Constants.NEW_LINE, fields.stream().map(Field::declaration).toList()));
+
+		//実行時にリフレクションを使用せずにフィールドの値を取り出すためのアクセサ
+		param.put("NAMES_METHOD", Constants.UNFOLDER_NAMES_METHOD);
+		param.put("VALUES_METHOD", Constants.UNFOLDER_VALUES_METHOD);
+		param.put("NAMES", String.join(", ", fields.stream().map(f -> "\"" + f.name() + "\"").toList()));
+		param.put("VALUES", String.join(", ", fields.stream().map(f -> "unfolder." + f.name()).toList()));
 
 		template = Formatter.format(template, param);
 
@@ -7,4 +7,12 @@ import javax.annotation.processing.Generated;
 public class /*--*/UnfolderTemplate/*--*//*++[[CLASS]]++*/ {
 
 /*++[[FIELDS]]++*/
+
+	public static String[] /*--*/$names/*--*//*++[[NAMES_METHOD]]++*/() {
+		return new String[] {/*++[[NAMES]]++*/};
+	}
+
+	public static Object[] /*--*/$values/*--*//*++[[VALUES_METHOD]]++*/(/*--*/UnfolderTemplate/*--*//*++[[CLASS]]++*/ unfolder) {
+		return new Object[] {/*++[[VALUES]]++*/};
+	}
 }
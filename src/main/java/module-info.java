@@ -7,6 +7,10 @@ module jp.ats.atomsql {
 
 	requires transitive java.compiler;
 
+	requires java.management;
+
+	requires jdk.jfr;
+
 	exports jp.ats.atomsql;
 
 	exports jp.ats.atomsql.annotation;
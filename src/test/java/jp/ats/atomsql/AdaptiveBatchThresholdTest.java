@@ -0,0 +1,101 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import jp.ats.atomsql.StatementDescriptor.Kind;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class AdaptiveBatchThresholdTest {
+
+	private static final long millis = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	void followsTargetWithinBounds() {
+		var threshold = new AdaptiveBatchThreshold(100, 10, 1000, 0);
+		assertEquals(10, threshold.threshold());
+
+		//一行あたり0.1msなので、目標は1000行だが一度に倍までしか増えない
+		assertEquals(20, threshold.record(10, 0, millis));
+		assertEquals(40, threshold.record(20, 0, 2 * millis));
+
+		//遅くなった場合も、一度に半分までしか減らない
+		assertEquals(20, threshold.record(40, 0, 4000 * millis));
+
+		//下限を下回らない
+		for (var i = 0; i < 10; i++) {
+			threshold.record(10, 0, 1000 * millis);
+		}
+
+		assertEquals(10, threshold.threshold());
+	}
+
+	@Test
+	void limitedByBytes() {
+		var unlimited = new AdaptiveBatchThreshold(100, 10, 1000, 0);
+		assertFalse(unlimited.limitsBytes());
+
+		var limited = new AdaptiveBatchThreshold(100, 10, 1000, 1500);
+		assertTrue(limited.limitsBytes());
+
+		//一行あたり100バイトなので、1500バイトに収まる15行までに制限される
+		assertEquals(20, unlimited.record(10, 1000, millis));
+		assertEquals(15, limited.record(10, 1000, millis));
+		assertEquals(15, limited.record(15, 1500, millis));
+
+		//幅が狭くなれば、平均の変化に従って増える
+		assertEquals(20, limited.record(15, 150, millis));
+	}
+
+	@Test
+	void estimateBytes() {
+		assertEquals(0, AdaptiveBatchThreshold.estimateBytes(null));
+		assertEquals(6, AdaptiveBatchThreshold.estimateBytes("abc"));
+		assertEquals(4, AdaptiveBatchThreshold.estimateBytes(new byte[4]));
+		assertEquals(8, AdaptiveBatchThreshold.estimateBytes(1));
+	}
+
+	@Test
+	void flushedAtAdaptiveThreshold() {
+		var recorder = new StatementRecorder();
+		var atomSql = recorder.newAtomSql(new TestDatabase.TestConfigure() {
+
+			@Override
+			public long batchAdaptiveTargetMillis() {
+				return 60000;
+			}
+
+			@Override
+			public int batchAdaptiveMinThreshold() {
+				return 2;
+			}
+
+			@Override
+			public long batchAdaptiveMaxBytes() {
+				return 1;
+			}
+		});
+		var proxy = atomSql.of(ItemProxy.class);
+		proxy.create();
+
+		atomSql.tryBatch(() -> {
+			for (var i = 1; i <= 7; i++) {
+				proxy.insertAtom(i, "name", i).update();
+			}
+		});
+
+		//バイト数の上限により閾値は下限から増えない
+		assertEquals(
+			List.of(2, 2, 2, 1),
+			recorder.statements(Kind.BATCH_UPDATE).stream().map(s -> s.batchBinds().size()).toList());
+		assertEquals(7, proxy.selectAll().size());
+	}
+}
@@ -0,0 +1,119 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class AsyncBatchTest {
+
+	private final List<String> threads = Collections.synchronizedList(new ArrayList<>());
+
+	private AtomSql newAtomSql(int maxInFlight) {
+		EndpointInterceptor interceptor = new EndpointInterceptor() {
+
+			@Override
+			public <R> R intercept(StatementDescriptor statement, Invocation<R> invocation) {
+				if (statement.kind() == StatementDescriptor.Kind.BATCH_UPDATE) threads.add(Thread.currentThread().getName());
+				return invocation.proceed();
+			}
+		};
+
+		return TestDatabase.newAtomSql(new TestDatabase.TestConfigure() {
+
+			@Override
+			public int batchThreshold() {
+				return 2;
+			}
+
+			@Override
+			public int asyncBatchMaxInFlight() {
+				return maxInFlight;
+			}
+		}, new Endpoints(new Endpoints.Entry(null, TestDatabase.newEndpoint(), true, List.of(interceptor))));
+	}
+
+	@Test
+	void resultsAreDeliveredInOrder() {
+		var atomSql = newAtomSql(2);
+		var proxy = atomSql.of(ItemProxy.class);
+		proxy.create();
+
+		var results = new ArrayList<String>();
+		atomSql.tryAsyncBatch(() -> {
+			for (var i = 1; i <= 5; i++) {
+				var id = i;
+				proxy.insertAtom(id, "n" + id, id * 100).update(r -> results.add(id + ":" + r));
+			}
+		});
+
+		assertEquals(List.of("1:1", "2:1", "3:1", "4:1", "5:1"), results);
+		assertEquals(5, proxy.selectAll().size());
+
+		//実行スレッドはスコープごとに生成せず、共有される
+		assertTrue(threads.stream().allMatch(t -> t.startsWith("atom-sql-async-batch")), threads.toString());
+	}
+
+	@Test
+	void failureIsThrownRepeatedly() {
+		var atomSql = newAtomSql(1);
+		var proxy = atomSql.of(ItemProxy.class);
+		proxy.create();
+
+		var thrown = new ArrayList<RuntimeException>();
+		assertThrows(AtomSqlException.class, () -> atomSql.tryAsyncBatch(() -> {
+			proxy.insertAtom(1, "a", 100).update();
+			proxy.insertAtom(2, "b", 200).update();
+
+			//主キーが重複するため失敗する
+			proxy.insertAtom(1, "x", 100).update();
+			proxy.insertAtom(3, "c", 300).update();
+
+			//失敗を捕捉して処理を続けても、以降の更新は実行されずに閾値到達時に毎回例外となる
+			for (var i = 4; i <= 9; i++) {
+				try {
+					proxy.insertAtom(i, "d", 400).update();
+				} catch (RuntimeException e) {
+					thrown.add(e);
+				}
+			}
+		}));
+
+		assertEquals(2, thrown.size());
+		assertTrue(thrown.stream().allMatch(e -> e instanceof AtomSqlException), thrown.toString());
+
+		var ids = proxy.selectAll().stream().map(Item::id).toList();
+		assertTrue(ids.containsAll(List.of(1, 2)), ids.toString());
+		assertTrue(ids.stream().allMatch(id -> id <= 3), ids.toString());
+	}
+
+	@Test
+	void flushedInCallerThreadWithinBollowConnection() {
+		var atomSql = newAtomSql(2);
+		var proxy = atomSql.of(ItemProxy.class);
+		proxy.create();
+
+		var caller = Thread.currentThread().getName();
+		atomSql.bollowConnection(connection -> {
+			atomSql.tryAsyncBatch(() -> {
+				for (var i = 1; i <= 5; i++) {
+					proxy.insertAtom(i, "n" + i, i * 100).update();
+				}
+			});
+		});
+
+		assertEquals(5, proxy.selectAll().size());
+
+		//bollowConnection中のConnectionを使用するため、呼び出し側のスレッドで実行される
+		assertEquals(3, threads.size());
+		assertTrue(threads.stream().allMatch(caller::equals), threads.toString());
+	}
+}
@@ -0,0 +1,180 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import jp.ats.atomsql.StatementDescriptor.Kind;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class AsyncTest {
+
+	private final List<String> threads = Collections.synchronizedList(new ArrayList<>());
+
+	private final List<Kind> kinds = Collections.synchronizedList(new ArrayList<>());
+
+	private final CountDownLatch scanStarted = new CountDownLatch(1);
+
+	private final CountDownLatch scanFinished = new CountDownLatch(1);
+
+	private volatile RuntimeException scanFailure;
+
+	private AtomSql newAtomSql(Configure config) {
+		EndpointInterceptor interceptor = new EndpointInterceptor() {
+
+			@Override
+			public <R> R intercept(StatementDescriptor statement, Invocation<R> invocation) {
+				threads.add(Thread.currentThread().getName());
+				kinds.add(statement.kind());
+
+				if (!statement.sql().contains("SYSTEM_RANGE")) return invocation.proceed();
+
+				scanStarted.countDown();
+				try {
+					return invocation.proceed();
+				} catch (RuntimeException e) {
+					scanFailure = e;
+					throw e;
+				} finally {
+					scanFinished.countDown();
+				}
+			}
+		};
+
+		var atomSql = TestDatabase.newAtomSql(
+			config,
+			new Endpoints(new Endpoints.Entry(null, TestDatabase.newEndpoint(), true, List.of(interceptor))));
+
+		var proxy = atomSql.of(ItemProxy.class);
+		proxy.create();
+		proxy.insertAtom(1, "a", 100).update();
+
+		threads.clear();
+		kinds.clear();
+
+		return atomSql;
+	}
+
+	@AfterEach
+	void tearDown() {
+		AtomSql.reinitialize(new TestDatabase.TestConfigure());
+	}
+
+	@Test
+	void listAsync() {
+		var proxy = newAtomSql(new TestDatabase.TestConfigure()).of(ItemProxy.class);
+
+		assertEquals(List.of(new Item(1, "a", 100)), proxy.selectWhere().put(w -> {}).listAsync().join());
+		assertEquals(Optional.of(new Item(1, "a", 100)), proxy.coalescedAtom(0).getAsync().join());
+		assertEquals(1, proxy.coalescedAtom(0).streamAsync(s -> s.count()).join());
+
+		//呼び出し元とは別のスレッドで実行される
+		assertEquals(3, threads.size());
+		assertTrue(threads.stream().noneMatch(Thread.currentThread().getName()::equals), threads.toString());
+	}
+
+	@Test
+	void updateAsyncIsNotBatched() {
+		var atomSql = newAtomSql(new TestDatabase.TestConfigure());
+		var proxy = atomSql.of(ItemProxy.class);
+
+		atomSql.tryBatch(() -> {
+			assertEquals(1, proxy.insertAtom(2, "b", 200).updateAsync().join());
+			assertEquals(1L, proxy.insertAtom(3, "c", 300).largeUpdateAsync().join());
+
+			//バッチの処理範囲を引き継がないので、即時実行されている
+			assertEquals(3, proxy.selectAll().size());
+		});
+
+		assertTrue(!kinds.contains(Kind.BATCH_UPDATE), kinds.toString());
+	}
+
+	@Test
+	void failure() {
+		var proxy = newAtomSql(new TestDatabase.TestConfigure()).of(ItemProxy.class);
+
+		//主キーが重複するため失敗する
+		var thrown = assertThrows(CompletionException.class, () -> proxy.insertAtom(1, "x", 100).updateAsync().join());
+		assertInstanceOf(AtomSqlException.class, thrown.getCause());
+	}
+
+	@Test
+	void cancelRunningStatement() throws Exception {
+		var proxy = newAtomSql(new TestDatabase.TestConfigure()).of(ItemProxy.class);
+
+		//中断されなければ終了しない検索
+		var future = proxy.scanRange(Long.MAX_VALUE).listAsync();
+
+		assertTrue(scanStarted.await(10, TimeUnit.SECONDS));
+		Thread.sleep(100);
+
+		assertTrue(future.cancel(true));
+		assertThrows(CancellationException.class, future::join);
+
+		//実行中のStatementが中断され、実行スレッドも解放される
+		assertTrue(scanFinished.await(10, TimeUnit.SECONDS));
+		assertNotNull(scanFailure);
+	}
+
+	@Test
+	void cancelBeforeStart() {
+		var proxy = newAtomSql(new TestDatabase.TestConfigure() {
+
+			@Override
+			public String asyncExecutorClass() {
+				return PausedExecutor.class.getName();
+			}
+		}).of(ItemProxy.class);
+
+		var future = proxy.selectWhere().put(w -> {}).listAsync();
+		assertTrue(future.cancel(true));
+
+		PausedExecutor.resume();
+
+		//開始前に中断されたので、実行されない
+		assertTrue(kinds.isEmpty(), kinds.toString());
+	}
+
+	/**
+	 * {@link #resume()}が呼ばれるまで、タスクを保留する{@link Executor}
+	 */
+	public static class PausedExecutor implements Executor {
+
+		private static final List<Runnable> tasks = Collections.synchronizedList(new ArrayList<>());
+
+		@Override
+		public void execute(Runnable command) {
+			tasks.add(command);
+		}
+
+		/**
+		 * 保留したタスクを、呼び出したスレッドで実行する
+		 */
+		static void resume() {
+			List<Runnable> taken;
+			synchronized (tasks) {
+				taken = List.copyOf(tasks);
+				tasks.clear();
+			}
+
+			taken.forEach(Runnable::run);
+		}
+	}
+}
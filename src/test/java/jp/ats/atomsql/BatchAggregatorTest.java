@@ -0,0 +1,134 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import jp.ats.atomsql.StatementDescriptor.Kind;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class BatchAggregatorTest {
+
+	private final StatementRecorder recorder = new StatementRecorder();
+
+	private final AtomSql atomSql = recorder.newAtomSql(new TestDatabase.TestConfigure());
+
+	private final ItemProxy proxy = atomSql.of(ItemProxy.class);
+
+	{
+		proxy.create();
+	}
+
+	@Test
+	void flushedAtMaxRows() throws Exception {
+		try (var aggregator = new BatchAggregator(atomSql, 2, 0)) {
+			var first = aggregator.submit(proxy.insertAtom(1, "a", 100));
+			assertFalse(first.isDone());
+
+			var second = aggregator.submit(proxy.insertAtom(2, "b", 200));
+
+			assertEquals(1, first.get(10, TimeUnit.SECONDS));
+			assertEquals(1, second.get(10, TimeUnit.SECONDS));
+		}
+
+		var batches = recorder.statements(Kind.BATCH_UPDATE);
+		assertEquals(1, batches.size());
+		assertEquals(2, batches.get(0).rows());
+	}
+
+	@Test
+	void flushedAfterDelay() throws Exception {
+		try (var aggregator = new BatchAggregator(atomSql, 100, 10)) {
+			var future = aggregator.submit(proxy.insertAtom(1, "a", 100));
+			assertEquals(1, future.get(10, TimeUnit.SECONDS));
+		}
+
+		assertEquals(1, proxy.selectAll().size());
+	}
+
+	@Test
+	void flushedFromManyThreads() {
+		List<CompletableFuture<Integer>> futures = new ArrayList<>();
+		try (var aggregator = new BatchAggregator(atomSql, 5, 0)) {
+			var threads = new ArrayList<Thread>();
+			for (var i = 1; i <= 4; i++) {
+				var id = i;
+				var thread = new Thread(() -> {
+					for (var j = 0; j < 5; j++) {
+						var future = aggregator.submit(proxy.insertAtom(id * 10 + j, "n", j));
+						synchronized (futures) {
+							futures.add(future);
+						}
+					}
+				});
+				threads.add(thread);
+				thread.start();
+			}
+
+			for (var thread : threads) {
+				thread.join();
+			}
+		} catch (InterruptedException e) {
+			throw new IllegalStateException(e);
+		}
+
+		//クローズ時にすべて実行済みとなる
+		futures.forEach(f -> assertEquals(1, f.join()));
+		assertEquals(20, proxy.selectAll().size());
+	}
+
+	@Test
+	void flushedAtClose() {
+		CompletableFuture<Integer> future;
+		try (var aggregator = new BatchAggregator(atomSql, 100, 0)) {
+			future = aggregator.submit(proxy.insertAtom(1, "a", 100));
+			assertFalse(future.isDone());
+		}
+
+		assertEquals(1, future.join());
+		assertThrows(IllegalStateException.class, () -> {
+			var aggregator = new BatchAggregator(atomSql, 100, 0);
+			aggregator.close();
+			aggregator.submit(proxy.insertAtom(2, "b", 200));
+		});
+	}
+
+	@Test
+	void failureCompletesFutures() {
+		proxy.insertAtom(1, "a", 100).update();
+
+		CompletableFuture<Integer> duplicate;
+		try (var aggregator = new BatchAggregator(atomSql, 100, 0)) {
+			//主キーが重複するため失敗する
+			duplicate = aggregator.submit(proxy.insertAtom(1, "x", 100));
+		}
+
+		var e = assertThrows(ExecutionException.class, () -> duplicate.get(10, TimeUnit.SECONDS));
+		assertInstanceOf(AtomSqlException.class, e.getCause());
+	}
+
+	@Test
+	void atomOfOtherAtomSql() {
+		var other = TestDatabase.newAtomSql().of(ItemProxy.class);
+		try (var aggregator = new BatchAggregator(atomSql, 100, 0)) {
+			assertThrows(IllegalArgumentException.class, () -> aggregator.submit(other.insertAtom(1, "a", 100)));
+
+			//コピーは接続先を共有するので追加できる
+			var copy = new AtomSql(atomSql).of(ItemProxy.class);
+			aggregator.submit(copy.insertAtom(1, "a", 100));
+		}
+
+		assertEquals(1, proxy.selectAll().size());
+	}
+}
@@ -0,0 +1,81 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import jp.ats.atomsql.StatementDescriptor.Kind;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class BatchChunkTest {
+
+	private final StatementRecorder recorder = new StatementRecorder();
+
+	private List<Integer> insertInChunks(Configure config, int size) {
+		var atomSql = recorder.newAtomSql(config);
+		var proxy = atomSql.of(ItemProxy.class);
+		proxy.create();
+
+		var results = new ArrayList<Integer>();
+		atomSql.tryBatch(() -> {
+			for (var i = 1; i <= size; i++) {
+				proxy.insertAtom(i, "name" + i, i).update(results::add);
+			}
+		});
+
+		assertEquals(Collections.nCopies(size, 1), results);
+		assertEquals(size, proxy.selectAll().size());
+
+		return recorder.statements(Kind.BATCH_UPDATE).stream().map(s -> s.batchBinds().size()).toList();
+	}
+
+	@Test
+	void notSplitByDefault() {
+		assertEquals(List.of(5), insertInChunks(new TestDatabase.TestConfigure(), 5));
+	}
+
+	@Test
+	void splitByChunkSize() {
+		assertEquals(List.of(2, 2, 1), insertInChunks(new TestDatabase.TestConfigure() {
+
+			@Override
+			public int batchChunkSize() {
+				return 2;
+			}
+		}, 5));
+	}
+
+	@Test
+	void splitRewrittenStatements() {
+		var rows = insertInChunks(new TestDatabase.TestConfigure() {
+
+			@Override
+			public boolean rewritesBatchedInserts() {
+				return true;
+			}
+
+			@Override
+			public int batchRewriteParameterLimit() {
+				//一文あたり2行
+				return 6;
+			}
+
+			@Override
+			public int batchChunkSize() {
+				return 4;
+			}
+		}, 7);
+
+		//2行ずつの3文を2文と1文に分割し、端数の1行は別に実行する
+		assertEquals(List.of(4, 2, 1), rows);
+
+		var statements = recorder.statements(Kind.BATCH_UPDATE).stream().map(StatementDescriptor::rows).toList();
+		assertEquals(List.of(2, 1, 1), statements);
+	}
+}
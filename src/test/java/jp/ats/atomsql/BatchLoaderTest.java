@@ -0,0 +1,172 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class BatchLoaderTest {
+
+	/**
+	 * テスト中に時間枠が経過しない長さ
+	 */
+	private static final long longWindow = TimeUnit.MINUTES.toMillis(10);
+
+	private static AtomSql atomSql;
+
+	private final List<List<Integer>> queries = Collections.synchronizedList(new ArrayList<>());
+
+	@BeforeAll
+	static void setUpClass() {
+		AtomSql.initializeIfUninitialized();
+		atomSql = new AtomSql();
+	}
+
+	/**
+	 * 偶数のキーのみ該当する行があるものとする
+	 */
+	private List<String> query(Csv<Integer> keys) {
+		queries.add(keys.values());
+		return keys.values().stream().filter(k -> k % 2 == 0).map(String::valueOf).toList();
+	}
+
+	@Test
+	void dispatch() throws Exception {
+		var loader = BatchLoader.of(atomSql, this::query, Integer::valueOf, longWindow, BatchLoader.DEFAULT_MAX_BATCH_SIZE);
+
+		var one = loader.load(1);
+		var two = loader.load(2);
+
+		//同一のキーは一回のみ検索する
+		assertSame(two, loader.load(2));
+
+		assertTrue(queries.isEmpty());
+		assertFalse(one.isDone());
+
+		loader.dispatch();
+
+		assertEquals(List.of(List.of(1, 2)), queries);
+		assertEquals(Optional.empty(), one.get());
+		assertEquals(Optional.of("2"), two.get());
+
+		//登録がない場合は何もしない
+		loader.dispatch();
+		assertEquals(1, queries.size());
+	}
+
+	@Test
+	void maxBatchSize() throws Exception {
+		var loader = BatchLoader.of(atomSql, this::query, Integer::valueOf, longWindow, 2);
+
+		var one = loader.load(1);
+		var two = loader.load(2);
+
+		//最大件数に達した時点で、登録したスレッドで実行される
+		assertEquals(List.of(List.of(1, 2)), queries);
+		assertTrue(one.isDone());
+		assertEquals(Optional.of("2"), two.get());
+
+		var three = loader.load(3);
+		assertFalse(three.isDone());
+
+		loader.dispatch();
+		assertEquals(List.of(List.of(1, 2), List.of(3)), queries);
+		assertEquals(Optional.empty(), three.get());
+	}
+
+	@Test
+	void withoutWindow() throws Exception {
+		var loader = BatchLoader.of(atomSql, this::query, Integer::valueOf);
+
+		//dispatchを呼ばなくても実行される
+		assertEquals(Optional.of("4"), loader.load(4).get(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void keysDuringQueryAreBatched() throws Exception {
+		var started = new CountDownLatch(1);
+		var release = new CountDownLatch(1);
+		var loader = BatchLoader.<Integer, String> of(atomSql, keys -> {
+			if (queries.isEmpty()) {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+
+			return query(keys);
+		}, Integer::valueOf);
+
+		var one = loader.load(1);
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+
+		//検索の実行中に登録されたキーは、完了後の一回の検索にまとめられる
+		var others = new ArrayList<CompletableFuture<Optional<String>>>();
+		for (var key = 2; key <= 4; key++) {
+			others.add(loader.load(key));
+			//重ねて予約された検索があれば、それが開始されるだけの間をおく
+			Thread.sleep(50);
+		}
+
+		release.countDown();
+
+		assertEquals(Optional.empty(), one.get(10, TimeUnit.SECONDS));
+		assertEquals(Optional.of("4"), others.get(2).get(10, TimeUnit.SECONDS));
+		assertTrue(others.stream().allMatch(CompletableFuture::isDone));
+		assertEquals(List.of(List.of(1), List.of(2, 3, 4)), queries);
+	}
+
+	@Test
+	void window() throws Exception {
+		var loader = BatchLoader.of(atomSql, this::query, Integer::valueOf, 200, BatchLoader.DEFAULT_MAX_BATCH_SIZE);
+
+		var four = loader.load(4);
+		var five = loader.load(5);
+
+		assertEquals(Optional.of("4"), four.get(10, TimeUnit.SECONDS));
+		assertEquals(Optional.empty(), five.get(10, TimeUnit.SECONDS));
+		assertEquals(List.of(List.of(4, 5)), queries);
+	}
+
+	@Test
+	void queryError() {
+		var error = new IllegalStateException();
+		var loader = BatchLoader.<Integer, String> of(atomSql, keys -> {
+			throw error;
+		}, Integer::valueOf, longWindow, BatchLoader.DEFAULT_MAX_BATCH_SIZE);
+
+		var one = loader.load(1);
+		var two = loader.load(2);
+
+		loader.dispatch();
+
+		//待機しているすべての呼び出しに通知される
+		assertSame(error, assertThrows(ExecutionException.class, one::get).getCause());
+		assertSame(error, assertThrows(ExecutionException.class, two::get).getCause());
+	}
+
+	@Test
+	void invalidArguments() {
+		assertThrows(IllegalArgumentException.class, () -> BatchLoader.of(atomSql, this::query, Integer::valueOf, -1, 1));
+		assertThrows(IllegalArgumentException.class, () -> BatchLoader.of(atomSql, this::query, Integer::valueOf, 0, 0));
+		assertThrows(NullPointerException.class, () -> BatchLoader.of(atomSql, this::query, Integer::valueOf).load(null));
+	}
+}
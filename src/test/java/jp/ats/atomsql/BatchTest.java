@@ -0,0 +1,99 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import jp.ats.atomsql.StatementDescriptor.Bind;
+import jp.ats.atomsql.StatementDescriptor.Kind;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class BatchTest {
+
+	private final StatementRecorder recorder = new StatementRecorder();
+
+	private List<StatementDescriptor> batches() {
+		return recorder.statements(Kind.BATCH_UPDATE);
+	}
+
+	@Test
+	void rowsOfSameSql() {
+		var atomSql = recorder.newAtomSql(new TestDatabase.TestConfigure());
+		var proxy = atomSql.of(ItemProxy.class);
+		proxy.create();
+
+		atomSql.tryBatch(() -> {
+			proxy.insertAtom(1, "a", 100).update();
+			proxy.insertAtom(2, null, 200).update();
+			proxy.insertAtom(3, "c", 300).update();
+		});
+
+		var batches = batches();
+		assertEquals(1, batches.size());
+
+		var batch = batches.get(0);
+		assertTrue(batch.binds().isEmpty());
+		assertEquals(3, batch.batchBinds().size());
+		assertEquals(
+			List.of(new Bind("id", 2, false), new Bind("name", null, false), new Bind("price", 200, false)),
+			batch.batchBinds().get(1));
+
+		assertEquals(List.of(new Item(1, "a", 100), new Item(2, null, 200), new Item(3, "c", 300)), proxy.selectAll());
+	}
+
+	@Test
+	void confidentialRowsAreNotMerged() {
+		var atomSql = recorder.newAtomSql(new TestDatabase.TestConfigure());
+		var proxy = atomSql.of(ItemProxy.class);
+		proxy.create();
+		proxy.insertAtom(1, "a", 100).update();
+		proxy.insertAtom(2, "b", 200).update();
+
+		atomSql.tryBatch(() -> {
+			proxy.rename(1, "public");
+			proxy.renameConfidentially(2, "secret");
+		});
+
+		//SQL文は同一だが、機密扱いのプレースホルダが異なるので別々に実行される
+		var batches = batches();
+		assertEquals(2, batches.size());
+		assertEquals(batches.get(0).sql(), batches.get(1).sql());
+
+		assertEquals(new Bind("name", "public", false), batches.get(0).batchBinds().get(0).get(0));
+		assertEquals(new Bind("name", "secret", true), batches.get(1).batchBinds().get(0).get(0));
+
+		assertEquals(List.of(new Item(1, "public", 100), new Item(2, "secret", 200)), proxy.selectAll());
+	}
+
+	@Test
+	void confidentialValuesAreNotLogged() {
+		var atomSql = recorder.newAtomSql(new TestDatabase.TestConfigure() {
+
+			@Override
+			public boolean enableLog() {
+				return true;
+			}
+		});
+		var proxy = atomSql.of(ItemProxy.class);
+		proxy.create();
+		proxy.insertAtom(1, "a", 100).update();
+		proxy.insertAtom(2, "b", 200).update();
+
+		try (var log = new LogRecorder()) {
+			atomSql.tryBatch(() -> {
+				proxy.rename(1, "public");
+				proxy.renameConfidentially(2, "secret");
+			});
+
+			var text = log.text();
+			assertTrue(text.contains("public"), text);
+			assertFalse(text.contains("secret"), text);
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import jp.ats.atomsql.StatementDescriptor.Kind;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class CacheInvalidationTest {
+
+	private final StatementRecorder recorder = new StatementRecorder();
+
+	private final AtomSql atomSql = recorder.newAtomSql(new TestDatabase.TestConfigure());
+
+	private final ItemProxy proxy = atomSql.of(ItemProxy.class);
+
+	private final SerialProxy serial = atomSql.of(SerialProxy.class);
+
+	{
+		proxy.create();
+		serial.create();
+		proxy.insertAtom(1, "a", 100).update();
+		recorder.clear();
+	}
+
+	private int queries() {
+		return recorder.statements(Kind.QUERY).size();
+	}
+
+	@Test
+	void otherTableDoesNotInvalidate() {
+		proxy.selectCached(0);
+
+		//参照していないテーブルの更新では破棄されない
+		serial.insert("x").update();
+		proxy.selectCached(0);
+		assertEquals(1, queries());
+
+		proxy.insertAtom(2, "b", 200).update();
+		assertEquals(2, proxy.selectCached(0).size());
+		assertEquals(2, queries());
+	}
+
+	@Test
+	void invalidatedAgainAfterBollowConnection() {
+		proxy.selectCached(0);
+
+		atomSql.bollowConnection(connection -> {
+			proxy.rename(1, "x");
+
+			//トランザクション外の検索で、コミット前の内容がキャッシュされる可能性がある
+			CompletableFuture.runAsync(() -> proxy.selectCached(0)).join();
+			assertEquals(2, queries());
+		});
+
+		//終了時に改めて破棄される
+		proxy.selectCached(0);
+		assertEquals(3, queries());
+	}
+}
@@ -0,0 +1,99 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import jp.ats.atomsql.StatementDescriptor.Kind;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class CachedProxyTest {
+
+	private final StatementRecorder recorder = new StatementRecorder();
+
+	private final AtomSql atomSql = recorder.newAtomSql(new TestDatabase.TestConfigure());
+
+	private final ItemProxy proxy = atomSql.of(ItemProxy.class);
+
+	{
+		proxy.create();
+		proxy.insertAtom(1, "a", 100).update();
+		proxy.insertAtom(2, "b", 200).update();
+		recorder.clear();
+	}
+
+	private int queries() {
+		return recorder.statements(Kind.QUERY).size();
+	}
+
+	@Test
+	void cachedByValues() {
+		var result = proxy.selectCached(150);
+		assertEquals(List.of(new Item(2, "b", 200)), result);
+		assertEquals(1, queries());
+
+		assertEquals(result, proxy.selectCached(150));
+		assertEquals(1, queries());
+
+		//バインドする値が異なる場合
+		assertEquals(2, proxy.selectCached(0).size());
+		assertEquals(2, queries());
+
+		//変更不可
+		assertThrows(UnsupportedOperationException.class, () -> result.add(null));
+
+		//コピーとも共有される
+		new AtomSql(atomSql).of(ItemProxy.class).selectCached(150);
+		assertEquals(2, queries());
+	}
+
+	@Test
+	void invalidatedByUpdate() {
+		proxy.selectCached(0);
+		proxy.rename(1, "x");
+
+		assertEquals(List.of(new Item(1, "x", 100), new Item(2, "b", 200)), proxy.selectCached(0));
+		assertEquals(2, queries());
+	}
+
+	@Test
+	void invalidatedByBatch() {
+		proxy.selectCached(0);
+
+		atomSql.tryBatch(() -> {
+			proxy.insertAtom(3, "c", 300).update();
+
+			//実行前なのでキャッシュが使用される
+			assertEquals(2, proxy.selectCached(0).size());
+		});
+
+		assertEquals(3, proxy.selectCached(0).size());
+		assertEquals(2, queries());
+	}
+
+	@Test
+	void notCachedInBollowConnection() {
+		proxy.selectCached(0);
+
+		atomSql.bollowConnection(connection -> {
+			proxy.selectCached(0);
+			proxy.selectCached(0);
+		});
+
+		assertEquals(3, queries());
+	}
+
+	@Test
+	void clear() {
+		proxy.selectCached(0);
+		atomSql.clearResultCache();
+		proxy.selectCached(0);
+
+		assertEquals(2, queries());
+	}
+}
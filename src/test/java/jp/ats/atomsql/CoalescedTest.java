@@ -0,0 +1,141 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import jp.ats.atomsql.StatementDescriptor.Kind;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class CoalescedTest {
+
+	private final AtomicInteger queries = new AtomicInteger();
+
+	private volatile CountDownLatch gate = new CountDownLatch(0);
+
+	private final AtomSql atomSql;
+
+	private final ItemProxy proxy;
+
+	{
+		EndpointInterceptor interceptor = new EndpointInterceptor() {
+
+			@Override
+			public <R> R intercept(StatementDescriptor statement, Invocation<R> invocation) {
+				if (statement.kind() == Kind.QUERY) {
+					queries.incrementAndGet();
+					try {
+						gate.await();
+					} catch (InterruptedException e) {
+						throw new IllegalStateException(e);
+					}
+				}
+
+				return invocation.proceed();
+			}
+		};
+
+		atomSql = TestDatabase.newAtomSql(
+			new TestDatabase.TestConfigure(),
+			new Endpoints(new Endpoints.Entry(null, TestDatabase.newEndpoint(), true, List.of(interceptor))));
+		proxy = atomSql.of(ItemProxy.class);
+		proxy.create();
+		proxy.insertAtom(1, "a", 100).update();
+	}
+
+	/**
+	 * 最初の検索の実行中に二つ目の検索を開始し、両方の結果を返す
+	 */
+	private List<Object> concurrently(Supplier<?> first, Supplier<?> second) {
+		gate = new CountDownLatch(1);
+
+		var executor = Executors.newFixedThreadPool(2);
+		try {
+			var firstResult = CompletableFuture.supplyAsync(first, executor);
+			while (queries.get() == 0) Thread.onSpinWait();
+
+			var waiting = new CountDownLatch(1);
+			var secondResult = CompletableFuture.supplyAsync(() -> {
+				waiting.countDown();
+				return second.get();
+			}, executor);
+
+			waiting.await();
+			//二つ目が最初の検索の完了待ちもしくは自身の検索に入るまで待つ
+			Thread.sleep(100);
+
+			gate.countDown();
+
+			return List.of(firstResult.join(), secondResult.join());
+		} catch (InterruptedException e) {
+			throw new IllegalStateException(e);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static <T> T call(Callable<T> callable) {
+		try {
+			return callable.call();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Test
+	void proxyMethod() {
+		var results = concurrently(() -> proxy.selectCoalesced(0), () -> proxy.selectCoalesced(0));
+
+		assertEquals(1, queries.get());
+		assertSame(results.get(0), results.get(1));
+		assertEquals(List.of(new Item(1, "a", 100)), results.get(0));
+	}
+
+	@Test
+	void differentValues() {
+		concurrently(() -> proxy.selectCoalesced(0), () -> proxy.selectCoalesced(1));
+
+		assertEquals(2, queries.get());
+	}
+
+	@Test
+	void atom() {
+		var results = concurrently(() -> proxy.coalescedAtom(0).list(), () -> proxy.coalescedAtom(0).get());
+
+		assertEquals(1, queries.get());
+		assertEquals(new Item(1, "a", 100), ((List<?>) results.get(0)).get(0));
+		assertEquals(results.get(1), proxy.coalescedAtom(0).get());
+	}
+
+	@Test
+	void differentResultClass() {
+		//SQL文とバインドする値が同じでも、結果の型が異なるものはまとめない
+		var results = concurrently(() -> proxy.coalescedAtom(0).list(), () -> proxy.coalescedAtom(0).list(ItemName.class));
+
+		assertEquals(2, queries.get());
+		assertEquals(List.of(new ItemName("a")), results.get(1));
+	}
+
+	@Test
+	void notCoalescedInBollowConnection() {
+		atomSql.bollowConnection(connection -> {
+			//子タスクにもスコープを引き継ぎ、両方ともトランザクション内として扱う
+			var first = AtomSql.inheritScopes(() -> proxy.selectCoalesced(0));
+			var second = AtomSql.inheritScopes(() -> proxy.selectCoalesced(0));
+			concurrently(() -> call(first), () -> call(second));
+		});
+
+		assertEquals(2, queries.get());
+	}
+}
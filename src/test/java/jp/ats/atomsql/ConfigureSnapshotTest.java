@@ -0,0 +1,61 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class ConfigureSnapshotTest {
+
+	private static final Configure logging = new TestDatabase.TestConfigure() {
+
+		@Override
+		public boolean enableLog() {
+			return true;
+		}
+	};
+
+	@Test
+	void snapshotUntilRefresh() {
+		var atomSql = TestDatabase.newAtomSql();
+		var proxy = atomSql.of(ItemProxy.class);
+		proxy.create();
+
+		try (var log = new LogRecorder()) {
+			AtomSql.reinitialize(logging);
+
+			//生成時点の設定が使用され続ける
+			proxy.selectAll();
+			assertEquals(List.of(), log.messages());
+
+			//コピーもコピー元の設定を引き継ぐ
+			new AtomSql(atomSql).of(ItemProxy.class).selectAll();
+			assertEquals(List.of(), log.messages());
+
+			atomSql.refresh();
+
+			proxy.selectAll();
+			assertTrue(log.text().contains("SELECT * FROM item"), log.text());
+		} finally {
+			AtomSql.reinitialize(new TestDatabase.TestConfigure());
+		}
+	}
+
+	@Test
+	void newInstanceUsesCurrentConfigure() {
+		TestDatabase.newAtomSql(logging, new Endpoints(TestDatabase.newEndpoint()));
+		try (var log = new LogRecorder()) {
+			var proxy = new AtomSql(new Endpoints(TestDatabase.newEndpoint())).of(ItemProxy.class);
+			proxy.create();
+
+			assertTrue(log.text().contains("CREATE TABLE item"), log.text());
+		} finally {
+			AtomSql.reinitialize(new TestDatabase.TestConfigure());
+		}
+	}
+}
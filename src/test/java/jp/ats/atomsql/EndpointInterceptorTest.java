@@ -0,0 +1,137 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import jp.ats.atomsql.StatementDescriptor.Bind;
+import jp.ats.atomsql.StatementDescriptor.Kind;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class EndpointInterceptorTest {
+
+	private static final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+
+	/**
+	 * 設定で登録される{@link EndpointInterceptor}
+	 */
+	public static class Configured implements EndpointInterceptor {
+
+		@Override
+		public <R> R intercept(StatementDescriptor statement, Invocation<R> invocation) {
+			calls.add("configured:" + statement.kind());
+			return invocation.proceed();
+		}
+	}
+
+	private static EndpointInterceptor named(String name) {
+		return new EndpointInterceptor() {
+
+			@Override
+			public <R> R intercept(StatementDescriptor statement, Invocation<R> invocation) {
+				calls.add(name + ":" + statement.kind());
+				return invocation.proceed();
+			}
+		};
+	}
+
+	@AfterEach
+	void tearDown() {
+		calls.clear();
+		AtomSql.reinitialize(new TestDatabase.TestConfigure());
+	}
+
+	@Test
+	void chainedInOrder() {
+		var atomSql = TestDatabase.newAtomSql(new TestDatabase.TestConfigure() {
+
+			@Override
+			public String endpointInterceptorClasses() {
+				return " " + Configured.class.getName() + " ,";
+			}
+		}, new Endpoints(new Endpoints.Entry(null, TestDatabase.newEndpoint(), true, List.of(named("first"), named("second")))));
+
+		var proxy = atomSql.of(ItemProxy.class);
+		proxy.create();
+		calls.clear();
+
+		proxy.selectAll();
+
+		assertEquals(List.of("configured:QUERY", "first:QUERY", "second:QUERY"), calls);
+	}
+
+	@Test
+	void descriptor() {
+		var recorder = new StatementRecorder();
+		var proxy = recorder.newAtomSql(new TestDatabase.TestConfigure()).of(ItemProxy.class);
+		proxy.create();
+		proxy.insertAtom(1, "a", 100).update();
+		recorder.clear();
+
+		proxy.renameConfidentially(1, "secret");
+
+		var statement = recorder.statements(Kind.UPDATE).get(0);
+		assertEquals(ItemProxy.class.getName() + "#renameConfidentially", statement.method());
+		assertEquals("UPDATE item SET name = :name WHERE id = :id", statement.originalSql());
+		assertEquals("UPDATE item SET name = ? WHERE id = ?", statement.sql());
+		assertEquals(List.of(new Bind("name", "secret", true), new Bind("id", 1, false)), statement.binds());
+		assertEquals(List.of(), statement.batchBinds());
+		assertEquals(1, statement.rows());
+	}
+
+	@Test
+	void replaceEndpoint() {
+		var other = TestDatabase.newEndpoint();
+		EndpointInterceptor router = new EndpointInterceptor() {
+
+			@Override
+			public <R> R intercept(StatementDescriptor statement, Invocation<R> invocation) {
+				return statement.kind() == Kind.QUERY ? invocation.proceed(other) : invocation.proceed();
+			}
+		};
+
+		var atomSql = TestDatabase.newAtomSql(
+			new TestDatabase.TestConfigure(),
+			new Endpoints(new Endpoints.Entry(null, TestDatabase.newEndpoint(), true, List.of(router))));
+		var proxy = atomSql.of(ItemProxy.class);
+		proxy.create();
+		proxy.insertAtom(1, "a", 100).update();
+
+		//検索のみ別のデータベースで実行される
+		var direct = new AtomSql(new Endpoints(other)).of(ItemProxy.class);
+		direct.create();
+		direct.insertAtom(2, "b", 200).update();
+
+		assertEquals(List.of(new Item(2, "b", 200)), proxy.selectAll());
+	}
+
+	@Test
+	void shortCircuit() {
+		EndpointInterceptor readOnly = new EndpointInterceptor() {
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public <R> R intercept(StatementDescriptor statement, Invocation<R> invocation) {
+				if (statement.kind() == Kind.UPDATE && statement.originalSql().startsWith("UPDATE")) return (R) Integer.valueOf(0);
+				return invocation.proceed();
+			}
+		};
+
+		var atomSql = TestDatabase.newAtomSql(
+			new TestDatabase.TestConfigure(),
+			new Endpoints(new Endpoints.Entry(null, TestDatabase.newEndpoint(), true, List.of(readOnly))));
+		var proxy = atomSql.of(ItemProxy.class);
+		proxy.create();
+		proxy.insertAtom(1, "a", 100).update();
+
+		assertEquals(0, proxy.rename(1, "b"));
+		assertEquals(List.of(new Item(1, "a", 100)), proxy.selectAll());
+	}
+}
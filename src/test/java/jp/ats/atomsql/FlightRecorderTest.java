@@ -0,0 +1,106 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class FlightRecorderTest {
+
+	private static List<RecordedEvent> record(Runnable runnable) throws IOException {
+		var file = Files.createTempFile("atom-sql", ".jfr");
+		try (var recording = new Recording()) {
+			recording.enable("jp.ats.atomsql.Statement").withoutThreshold();
+			recording.enable("jp.ats.atomsql.Batch").withoutThreshold();
+			recording.enable("jp.ats.atomsql.Stream").withoutThreshold();
+			recording.start();
+
+			runnable.run();
+
+			recording.stop();
+			recording.dump(file);
+
+			return RecordingFile.readAllEvents(file).stream().filter(e -> e.getEventType().getName().startsWith("jp.ats.atomsql.")).toList();
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	private static List<RecordedEvent> events(List<RecordedEvent> events, String name) {
+		return events.stream().filter(e -> e.getEventType().getName().equals(name)).toList();
+	}
+
+	@Test
+	void statementEvents() throws IOException {
+		var atomSql = TestDatabase.newAtomSql();
+		var proxy = atomSql.of(ItemProxy.class);
+		proxy.create();
+
+		var events = record(() -> {
+			proxy.insertAtom(1, "a", 100).update();
+			proxy.selectAll();
+		});
+
+		var statements = events(events, "jp.ats.atomsql.Statement");
+		assertEquals(2, statements.size());
+
+		var insert = statements.get(0);
+		assertEquals(ItemProxy.class.getName() + "#insertAtom", insert.getString("method"));
+		assertEquals("INSERT INTO item (id, name, price) VALUES (:id, :name, :price)", insert.getString("sql"));
+		assertEquals(3, insert.getInt("bindCount"));
+		assertEquals(1, insert.getLong("rowsUpdated"));
+		assertFalse(insert.getBoolean("failed"));
+
+		assertEquals(ItemProxy.class.getName() + "#selectAll", statements.get(1).getString("method"));
+		assertEquals(1, events(events, "jp.ats.atomsql.Stream").get(0).getLong("rowsFetched"));
+	}
+
+	@Test
+	void failedStatementEvent() throws IOException {
+		var proxy = TestDatabase.newAtomSql().of(ItemProxy.class);
+		proxy.create();
+		proxy.insertAtom(1, "a", 100).update();
+
+		var events = record(() -> {
+			try {
+				proxy.insertAtom(1, "a", 100).update();
+			} catch (AtomSqlException e) {}
+		});
+
+		var statements = events(events, "jp.ats.atomsql.Statement");
+		assertEquals(1, statements.size());
+		assertTrue(statements.get(0).getBoolean("failed"));
+	}
+
+	@Test
+	void batchEvent() throws IOException {
+		var atomSql = TestDatabase.newAtomSql();
+		var proxy = atomSql.of(ItemProxy.class);
+		proxy.create();
+
+		var events = record(() -> atomSql.tryBatch(() -> {
+			proxy.insertAtom(1, "a", 100).update();
+			proxy.insertAtom(2, "b", 200).update();
+		}));
+
+		var batches = events(events, "jp.ats.atomsql.Batch");
+		assertEquals(1, batches.size());
+
+		var batch = batches.get(0);
+		assertEquals(2, batch.getInt("batchSize"));
+		assertEquals(2, batch.getLong("rowsUpdated"));
+		assertFalse(batch.getBoolean("failed"));
+	}
+}
@@ -0,0 +1,94 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import jp.ats.atomsql.StatementDescriptor.Kind;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class ForEachTest {
+
+	private final StatementRecorder recorder = new StatementRecorder();
+
+	private final ItemProxy proxy = recorder.newAtomSql(new TestDatabase.TestConfigure()).of(ItemProxy.class);
+
+	{
+		proxy.create();
+		proxy.insertAtom(1, "a", 100).update();
+		proxy.insertAtom(2, null, 200).update();
+		proxy.insertAtom(3, "c", 300).update();
+		recorder.clear();
+	}
+
+	@Test
+	void rowConsumer() {
+		var rows = new ArrayList<String>();
+		proxy.selectAtom(150).forEach((rs, rowNum) -> rows.add(rowNum + ":" + rs.getInt("id")));
+
+		assertEquals(List.of("1:2", "2:3"), rows);
+	}
+
+	@Test
+	void dataObjects() {
+		var items = new ArrayList<Item>();
+		proxy.selectAtom(0).forEach((Item item) -> items.add(item));
+
+		assertEquals(List.of(new Item(1, "a", 100), new Item(2, null, 200), new Item(3, "c", 300)), items);
+	}
+
+	@Test
+	void rowView() {
+		var views = new ArrayList<RowView>();
+		var names = new ArrayList<String>();
+		var total = new BigDecimal[] { BigDecimal.ZERO };
+		proxy.selectAtom(0).forEachRow(row -> {
+			views.add(row);
+			names.add(row.getString("name") + (row.wasNull() ? "(null)" : ""));
+			total[0] = total[0].add(row.getBigDecimal("price"));
+			assertEquals(names.size(), row.rowNum());
+		});
+
+		assertEquals(List.of("a", "null(null)", "c"), names);
+		assertEquals(new BigDecimal(600), total[0]);
+
+		//全行で同一のインスタンスが再利用される
+		assertEquals(3, views.size());
+		assertTrue(views.stream().allMatch(v -> v == views.get(0)));
+	}
+
+	@Test
+	void statementKind() {
+		proxy.selectAtom(0).forEach((rs, rowNum) -> {});
+
+		assertEquals(1, recorder.statements(Kind.QUERY_EACH).size());
+		assertTrue(recorder.statements(Kind.QUERY).isEmpty());
+	}
+
+	@Test
+	void consumerError() {
+		var error = new IllegalStateException();
+		var rows = new ArrayList<Integer>();
+
+		//行の処理で発生した例外はそのまま伝播し、以降の行は処理されない
+		var thrown = assertThrows(IllegalStateException.class, () -> proxy.selectAtom(0).forEach((rs, rowNum) -> {
+			rows.add(rowNum);
+			throw error;
+		}));
+
+		assertSame(error, thrown);
+		assertEquals(List.of(1), rows);
+
+		//接続等は解放されているので、続けて使用できる
+		assertEquals(3, proxy.selectAll().size());
+	}
+}
@@ -0,0 +1,63 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import jp.ats.atomsql.StatementDescriptor.Kind;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class GeneratedKeyTest {
+
+	private static final SimpleRowMapper<Integer> keyMapper = r -> r.getInt(1);
+
+	@Test
+	void update() {
+		var proxy = TestDatabase.newAtomSql().of(SerialProxy.class);
+		proxy.create();
+
+		var keys = new ArrayList<Integer>();
+		proxy.insert("a").update(keyMapper, keys::add);
+		proxy.insert("b").update(keyMapper, keys::add);
+
+		assertEquals(List.of(1, 2), keys);
+	}
+
+	@Test
+	void batchUpdate() {
+		var recorder = new StatementRecorder();
+		var atomSql = recorder.newAtomSql(new TestDatabase.TestConfigure() {
+
+			@Override
+			public boolean rewritesBatchedInserts() {
+				return true;
+			}
+		});
+		var proxy = atomSql.of(SerialProxy.class);
+		proxy.create();
+
+		var keys = new ArrayList<String>();
+		atomSql.tryBatch(() -> {
+			proxy.insert("a").update(keyMapper, k -> keys.add("a" + k));
+			//キーを要求しない行も同じまとまりで実行される
+			proxy.insert("b").update();
+			proxy.insert("c").update(keyMapper, k -> keys.add("c" + k));
+
+			//実行されるまで通知されない
+			assertEquals(List.of(), keys);
+		});
+
+		//実行順に各更新処理へ対応付けられる
+		assertEquals(List.of("a1", "c3"), keys);
+
+		//キーを要求する場合、複数行INSERTへの書き換えは行われない
+		var batches = recorder.statements(Kind.BATCH_UPDATE);
+		assertEquals(1, batches.size());
+		assertEquals(3, batches.get(0).rows());
+	}
+}
@@ -0,0 +1,132 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class HistogramTest {
+
+	@Test
+	void empty() {
+		var histogram = new Histogram();
+
+		assertEquals(0, histogram.count());
+		assertEquals(0, histogram.sum());
+		assertEquals(0, histogram.max());
+		assertEquals(0, histogram.mean());
+		assertEquals(0, histogram.percentile(50));
+	}
+
+	@Test
+	void linearRange() {
+		for (var value = 0L; value < 32; value++) {
+			assertEquals(value, lowerValuePercentile(value));
+		}
+	}
+
+	@Test
+	void bucketBoundaries() {
+		//32以降は2のべき乗の区間を16等分した階級の上限値となる
+		assertEquals(33, lowerValuePercentile(32));
+		assertEquals(33, lowerValuePercentile(33));
+		assertEquals(35, lowerValuePercentile(34));
+		assertEquals(63, lowerValuePercentile(62));
+		assertEquals(63, lowerValuePercentile(63));
+		assertEquals(67, lowerValuePercentile(64));
+		assertEquals(67, lowerValuePercentile(67));
+		assertEquals(71, lowerValuePercentile(68));
+		assertEquals(1023, lowerValuePercentile(1023));
+		assertEquals(1087, lowerValuePercentile(1024));
+	}
+
+	@Test
+	void relativeError() {
+		for (var value = 1L; value > 0 && value < Long.MAX_VALUE / 2; value = value * 3 + 1) {
+			var upper = lowerValuePercentile(value);
+			assertTrue(upper >= value, value + " -> " + upper);
+			assertTrue(upper - value <= value / 16, value + " -> " + upper);
+		}
+	}
+
+	@Test
+	void notExceedingMax() {
+		var histogram = new Histogram();
+		histogram.record(32);
+
+		//階級の上限値は33だが、最大値を超えない
+		assertEquals(32, histogram.percentile(100));
+	}
+
+	@Test
+	void maxValue() {
+		var histogram = new Histogram();
+		histogram.record(Long.MAX_VALUE);
+
+		assertEquals(Long.MAX_VALUE, histogram.max());
+		assertEquals(Long.MAX_VALUE, histogram.percentile(100));
+	}
+
+	@Test
+	void negativeValue() {
+		var histogram = new Histogram();
+		histogram.record(-5);
+
+		assertEquals(1, histogram.count());
+		assertEquals(0, histogram.sum());
+		assertEquals(0, histogram.percentile(100));
+	}
+
+	@Test
+	void percentiles() {
+		var histogram = new Histogram();
+		for (var i = 1; i <= 10; i++) {
+			histogram.record(i);
+		}
+
+		assertEquals(10, histogram.count());
+		assertEquals(55, histogram.sum());
+		assertEquals(5.5, histogram.mean());
+		assertEquals(1, histogram.percentile(0));
+		assertEquals(1, histogram.percentile(10));
+		assertEquals(2, histogram.percentile(10.1));
+		assertEquals(5, histogram.percentile(50));
+		assertEquals(9, histogram.percentile(90));
+		assertEquals(10, histogram.percentile(100));
+	}
+
+	@Test
+	void invalidPercentile() {
+		var histogram = new Histogram();
+
+		assertThrows(IllegalArgumentException.class, () -> histogram.percentile(-0.1));
+		assertThrows(IllegalArgumentException.class, () -> histogram.percentile(100.1));
+	}
+
+	@Test
+	void reset() {
+		var histogram = new Histogram();
+		histogram.record(100);
+		histogram.reset();
+
+		assertEquals(0, histogram.count());
+		assertEquals(0, histogram.sum());
+		assertEquals(0, histogram.max());
+		assertEquals(0, histogram.percentile(100));
+	}
+
+	/**
+	 * valueとそれより大きな値を記録し、valueの属する階級の値を返す
+	 */
+	private static long lowerValuePercentile(long value) {
+		var histogram = new Histogram();
+		histogram.record(value);
+		histogram.record(Long.MAX_VALUE);
+
+		return histogram.percentile(50);
+	}
+}
@@ -0,0 +1,54 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class InheritScopesTest {
+
+	private final AtomSql atomSql = TestDatabase.newAtomSql();
+
+	@Test
+	void connectionIsInherited() {
+		var proxy = atomSql.of(SessionProxy.class);
+
+		atomSql.bollowConnection(connection -> {
+			proxy.create();
+
+			//一時テーブルは同一のConnectionからのみ参照できる
+			CompletableFuture.runAsync(AtomSql.inheritScopes(() -> {
+				proxy.insert(1);
+			})).join();
+
+			var e = assertThrows(CompletionException.class, () -> CompletableFuture.runAsync(() -> proxy.insert(2)).join());
+			assertEquals(AtomSqlException.class, e.getCause().getClass());
+		});
+	}
+
+	@Test
+	void batchIsNotInherited() {
+		var proxy = atomSql.of(ItemProxy.class);
+		proxy.create();
+
+		atomSql.tryBatch(() -> {
+			proxy.insertAtom(1, "a", 100).update();
+
+			//子タスク内の更新処理は即時実行される
+			CompletableFuture.runAsync(AtomSql.inheritScopes(() -> {
+				proxy.insertAtom(2, "b", 200).update();
+			})).join();
+
+			assertEquals(List.of(new Item(2, "b", 200)), proxy.selectAll());
+		});
+
+		assertEquals(2, proxy.selectAll().size());
+	}
+}
@@ -0,0 +1,10 @@
+package jp.ats.atomsql;
+
+import jp.ats.atomsql.annotation.DataObject;
+
+/**
+ * テスト用の検索結果
+ * @author 千葉 哲嗣
+ */
+@DataObject
+public record Item(int id, String name, int price) {}
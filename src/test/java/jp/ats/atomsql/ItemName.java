@@ -0,0 +1,11 @@
+package jp.ats.atomsql;
+
+import jp.ats.atomsql.annotation.DataObject;
+
+/**
+ * {@link Item}の一部のみを持つ、テスト用のデータオブジェクト
+ * @author 千葉 哲嗣
+ * @param name 名称
+ */
+@DataObject
+public record ItemName(String name) {}
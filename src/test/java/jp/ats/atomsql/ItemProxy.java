@@ -0,0 +1,61 @@
+package jp.ats.atomsql;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import jp.ats.atomsql.annotation.Cached;
+import jp.ats.atomsql.annotation.Coalesced;
+import jp.ats.atomsql.annotation.ConfidentialSql;
+import jp.ats.atomsql.annotation.Sql;
+import jp.ats.atomsql.annotation.SqlProxy;
+
+/**
+ * テスト用の{@link SqlProxy}
+ * @author 千葉 哲嗣
+ */
+@SqlProxy
+public interface ItemProxy {
+
+	@Sql("CREATE TABLE item (id INT PRIMARY KEY, name VARCHAR(100), price INT)")
+	int create();
+
+	@Sql("INSERT INTO item (id, name, price) VALUES (:id/*INTEGER*/, :name/*STRING*/, :price/*INTEGER*/)")
+	int insert(Consumer<ItemParams> consumer);
+
+	@Sql("INSERT INTO item (id, name, price) VALUES (:id, :name, :price)")
+	Atom<?> insertAtom(int id, String name, int price);
+
+	@Sql("UPDATE item SET name = :name WHERE id = :id")
+	int rename(int id, String name);
+
+	@ConfidentialSql("name")
+	@Sql("UPDATE item SET name = :name WHERE id = :id")
+	int renameConfidentially(int id, String name);
+
+	@Sql("SELECT * FROM item ORDER BY id")
+	List<Item> selectAll();
+
+	@Sql("SELECT * FROM item /*${where}*/ ORDER BY id")
+	Prototype<Item, ItemWhere> selectWhere();
+
+	@Sql("WHERE price >= :price")
+	Atom<?> priceAtLeast(int price);
+
+	@Cached(ttlMillis = 600000)
+	@Sql("SELECT * FROM item WHERE price >= :price ORDER BY id")
+	List<Item> selectCached(int price);
+
+	@Sql("SELECT * FROM item WHERE price >= :price ORDER BY id")
+	Atom<Item> selectAtom(int price);
+
+	@Sql("SELECT i.* FROM item i, SYSTEM_RANGE(1, :count) r WHERE MOD(r.X, 7) < 0")
+	Atom<Item> scanRange(long count);
+
+	@Coalesced
+	@Sql("SELECT * FROM item WHERE price >= :price ORDER BY id")
+	List<Item> selectCoalesced(int price);
+
+	@Coalesced
+	@Sql("SELECT * FROM item WHERE price >= :price ORDER BY id")
+	Atom<Item> coalescedAtom(int price);
+}
@@ -0,0 +1,50 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class LargeUpdateTest {
+
+	@Test
+	void largeUpdate() {
+		var atomSql = TestDatabase.newAtomSql();
+		var proxy = atomSql.of(ItemProxy.class);
+		proxy.create();
+
+		assertEquals(1L, proxy.insertAtom(1, "a", 100).largeUpdate());
+
+		var results = new ArrayList<Long>();
+		proxy.insertAtom(2, "b", 200).largeUpdate(results::add);
+
+		assertEquals(List.of(1L), results);
+		assertEquals(2, proxy.selectAll().size());
+	}
+
+	@Test
+	void largeBatchUpdate() {
+		var atomSql = TestDatabase.newAtomSql();
+		var proxy = atomSql.of(ItemProxy.class);
+		proxy.create();
+
+		var results = new ArrayList<String>();
+		atomSql.tryBatch(() -> {
+			//バッチ内では結果は0となり、実行時に通知される
+			assertEquals(0L, proxy.insertAtom(1, "a", 100).largeUpdate());
+
+			proxy.insertAtom(2, "b", 200).largeUpdate(r -> results.add("large:" + r));
+
+			//同一のまとまりにint版の更新処理が混在しても、それぞれの型で通知される
+			proxy.insertAtom(3, "c", 300).update(r -> results.add("int:" + r));
+		});
+
+		assertEquals(List.of("large:1", "int:1"), results);
+		assertEquals(3, proxy.selectAll().size());
+	}
+}
@@ -0,0 +1,52 @@
+package jp.ats.atomsql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * テスト中に{@link AtomSql}のロガーに出力されたメッセージを記録するクラスです。
+ * @author 千葉 哲嗣
+ */
+final class LogRecorder extends Handler implements AutoCloseable {
+
+	private final Logger logger = Logger.getLogger(AtomSql.class.getName());
+
+	private final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+
+	LogRecorder() {
+		logger.addHandler(this);
+	}
+
+	/**
+	 * @return 記録されたメッセージ
+	 */
+	List<String> messages() {
+		synchronized (messages) {
+			return List.copyOf(messages);
+		}
+	}
+
+	/**
+	 * @return 記録されたメッセージを改行で連結したもの
+	 */
+	String text() {
+		return String.join("\n", messages());
+	}
+
+	@Override
+	public void publish(LogRecord record) {
+		messages.add(record.getMessage());
+	}
+
+	@Override
+	public void flush() {}
+
+	@Override
+	public void close() {
+		logger.removeHandler(this);
+	}
+}
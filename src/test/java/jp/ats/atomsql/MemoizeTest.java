@@ -0,0 +1,112 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import jp.ats.atomsql.StatementDescriptor.Kind;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class MemoizeTest {
+
+	private final StatementRecorder recorder = new StatementRecorder();
+
+	private final AtomSql atomSql = recorder.newAtomSql(new TestDatabase.TestConfigure());
+
+	private final ItemProxy proxy = atomSql.of(ItemProxy.class);
+
+	{
+		proxy.create();
+		proxy.insertAtom(1, "a", 100).update();
+	}
+
+	private int queries() {
+		return recorder.statements(Kind.QUERY).size();
+	}
+
+	@Test
+	void memoized() {
+		atomSql.tryMemoize(() -> {
+			var first = proxy.selectAll();
+
+			assertSame(first, proxy.selectAll());
+			assertEquals(first, proxy.selectWhere().put(w -> {}).list());
+		});
+
+		//Prototypeから生成したSQL文は異なるので別の検索となる
+		assertEquals(2, queries());
+	}
+
+	@Test
+	void notMemoizedOutsideScope() {
+		assertNotSame(proxy.selectAll(), proxy.selectAll());
+		assertEquals(2, queries());
+	}
+
+	@Test
+	void differentValues() {
+		atomSql.tryMemoize(() -> {
+			proxy.selectCached(0);
+			proxy.selectCached(100);
+			proxy.selectCached(0);
+		});
+
+		assertEquals(2, queries());
+	}
+
+	@Test
+	void modifiedInScope() {
+		var result = atomSql.tryMemoize(() -> {
+			proxy.selectAll();
+			proxy.insertAtom(2, "b", 200).update();
+
+			//更新されたテーブルを参照する結果は破棄される
+			return proxy.selectAll();
+		});
+
+		assertEquals(List.of(new Item(1, "a", 100), new Item(2, "b", 200)), result);
+		assertEquals(2, queries());
+	}
+
+	@Test
+	void nestedScopesShareMemo() {
+		atomSql.tryMemoize(() -> {
+			var outer = proxy.selectAll();
+
+			atomSql.tryMemoize(() -> {
+				assertSame(outer, proxy.selectAll());
+			});
+		});
+
+		assertEquals(1, queries());
+	}
+
+	@Test
+	void inheritedByChildTask() throws Exception {
+		var child = atomSql.tryMemoize(() -> {
+			var outer = proxy.selectAll();
+
+			var task = AtomSql.inheritScopes(() -> proxy.selectAll());
+			var thread = new Thread(() -> {
+				try {
+					assertSame(outer, task.call());
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			});
+
+			return thread;
+		});
+
+		child.start();
+		child.join();
+
+		assertEquals(1, queries());
+	}
+}
@@ -0,0 +1,99 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class MetricsTest {
+
+	private static final String selectAll = ItemProxy.class.getName() + "#selectAll";
+
+	private static Configure metrics(boolean registersMBeans) {
+		return new TestDatabase.TestConfigure() {
+
+			@Override
+			public boolean enableMetrics() {
+				return true;
+			}
+
+			@Override
+			public boolean registersMetricsMBeans() {
+				return registersMBeans;
+			}
+		};
+	}
+
+	@AfterEach
+	void tearDown() {
+		//計測結果はプロセスで共有されるので、他のテストに影響しないように戻す
+		TestDatabase.newAtomSql();
+		AtomSqlMetrics.instance().reset();
+	}
+
+	@Test
+	void measured() {
+		var atomSql = TestDatabase.newAtomSql(metrics(false), new Endpoints(TestDatabase.newEndpoint()));
+		var proxy = atomSql.of(ItemProxy.class);
+		proxy.create();
+		AtomSqlMetrics.instance().reset();
+
+		proxy.insertAtom(1, "a", 100).update();
+		proxy.selectAll();
+		proxy.selectAll();
+
+		var metrics = AtomSqlMetrics.instance().get(selectAll).get();
+		assertEquals(2, metrics.getExecutions());
+		assertEquals(2, metrics.getRowsReturned());
+		assertEquals(0, metrics.getErrors());
+
+		//別のインスタンスの計測結果も合算される
+		var other = TestDatabase.newAtomSql(metrics(false), new Endpoints(TestDatabase.newEndpoint())).of(ItemProxy.class);
+		other.create();
+		other.selectAll();
+		assertEquals(3, metrics.getExecutions());
+	}
+
+	@Test
+	void notMeasured() {
+		var proxy = TestDatabase.newAtomSql().of(ItemProxy.class);
+		proxy.create();
+		AtomSqlMetrics.instance().reset();
+
+		proxy.selectAll();
+
+		AtomSqlMetrics.instance().get(selectAll).ifPresent(m -> assertEquals(0, m.getExecutions()));
+	}
+
+	@Test
+	void mbeansAreUnregistered() throws Exception {
+		var server = ManagementFactory.getPlatformMBeanServer();
+		var name = AtomSqlMetrics.objectName(selectAll);
+
+		var atomSql = TestDatabase.newAtomSql(metrics(true), new Endpoints(TestDatabase.newEndpoint()));
+		var proxy = atomSql.of(ItemProxy.class);
+		proxy.create();
+		proxy.selectAll();
+
+		assertTrue(server.isRegistered(name));
+		assertTrue((Long) server.getAttribute(name, "Executions") > 0);
+
+		AtomSql.reinitialize(metrics(false));
+		atomSql.refresh();
+
+		assertFalse(server.isRegistered(name));
+
+		//計測自体は継続する
+		var executions = AtomSqlMetrics.instance().get(selectAll).get().getExecutions();
+		proxy.selectAll();
+		assertFalse(server.isRegistered(name));
+		assertEquals(executions + 1, AtomSqlMetrics.instance().get(selectAll).get().getExecutions());
+	}
+}
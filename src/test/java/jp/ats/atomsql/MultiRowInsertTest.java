@@ -0,0 +1,168 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import jp.ats.atomsql.StatementDescriptor.Kind;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class MultiRowInsertTest {
+
+	@Test
+	void rewritesSingleRow() {
+		var insert = MultiRowInsert.parse("INSERT INTO t (a, b) VALUES (?, ?)");
+
+		assertEquals(2, insert.parameters);
+		assertEquals("INSERT INTO t (a, b) VALUES (?, ?)", insert.sql(1));
+		assertEquals("INSERT INTO t (a, b) VALUES (?, ?), (?, ?), (?, ?)", insert.sql(3));
+	}
+
+	@Test
+	void ignoresCaseAndSurroundingWhitespace() {
+		var insert = MultiRowInsert.parse("\n  insert into t values(?, ?)  \n");
+
+		assertEquals(2, insert.parameters);
+		assertEquals("insert into t values(?, ?), (?, ?)", insert.sql(2));
+	}
+
+	@Test
+	void nestedParentheses() {
+		var insert = MultiRowInsert.parse("INSERT INTO t (a, b) VALUES (?, COALESCE(?, (SELECT MAX(b) FROM u)))");
+
+		assertEquals(2, insert.parameters);
+		assertEquals(
+			"INSERT INTO t (a, b) VALUES (?, COALESCE(?, (SELECT MAX(b) FROM u))), (?, COALESCE(?, (SELECT MAX(b) FROM u)))",
+			insert.sql(2));
+	}
+
+	@Test
+	void quotedParenthesesAndPlaceholders() {
+		var insert = MultiRowInsert.parse("INSERT INTO \"t?\" (a, b, c) VALUES (')', '?', ?)");
+
+		assertEquals(1, insert.parameters);
+		assertEquals("INSERT INTO \"t?\" (a, b, c) VALUES (')', '?', ?), (')', '?', ?)", insert.sql(2));
+	}
+
+	@Test
+	void quotedValuesKeyword() {
+		var insert = MultiRowInsert.parse("INSERT INTO t (a, b) VALUES ('VALUES (x)', ?)");
+
+		assertEquals(1, insert.parameters);
+		assertEquals("INSERT INTO t (a, b) VALUES ('VALUES (x)', ?), ('VALUES (x)', ?)", insert.sql(2));
+	}
+
+	@Test
+	void trailingClause() {
+		assertNull(MultiRowInsert.parse("INSERT INTO t (a) VALUES (?) ON DUPLICATE KEY UPDATE a = a"));
+		assertNull(MultiRowInsert.parse("INSERT INTO t (a) VALUES (?) ON CONFLICT DO NOTHING"));
+		assertNull(MultiRowInsert.parse("INSERT INTO t (a) VALUES (?) RETURNING id"));
+	}
+
+	@Test
+	void alreadyMultiRow() {
+		assertNull(MultiRowInsert.parse("INSERT INTO t (a) VALUES (?), (?)"));
+	}
+
+	@Test
+	void placeholderOutsideValues() {
+		assertNull(MultiRowInsert.parse("INSERT INTO t (a, b) SELECT ?, b FROM u WHERE b IN (VALUES (?))"));
+	}
+
+	@Test
+	void notRewritable() {
+		assertNull(MultiRowInsert.parse("UPDATE t SET a = ?"));
+		assertNull(MultiRowInsert.parse("INSERT INTO t (a) SELECT a FROM u"));
+		assertNull(MultiRowInsert.parse("INSERT INTO t SET a = ?"));
+		assertNull(MultiRowInsert.parse("INSERT INTO t (a) VALUES (?"));
+		assertNull(MultiRowInsert.parse("WITH x AS (SELECT 1) INSERT INTO t (a) VALUES (?)"));
+	}
+
+	@Test
+	void rowsPerStatement() {
+		var insert = MultiRowInsert.parse("INSERT INTO t (a, b) VALUES (?, ?)");
+
+		assertEquals(10, insert.rowsPerStatement(0, 10));
+		assertEquals(10, insert.rowsPerStatement(-1, 10));
+		assertEquals(2, insert.rowsPerStatement(5, 10));
+		assertEquals(5, insert.rowsPerStatement(10, 10));
+		assertEquals(3, insert.rowsPerStatement(100, 3));
+
+		//上限が一行分に満たない場合でも一行ずつは実行する
+		assertEquals(1, insert.rowsPerStatement(1, 10));
+	}
+
+	@Test
+	void rowsPerStatementWithoutPlaceholders() {
+		var insert = MultiRowInsert.parse("INSERT INTO t (a, b) VALUES (1, 'x')");
+
+		assertEquals(0, insert.parameters);
+		assertEquals(10, insert.rowsPerStatement(5, 10));
+	}
+
+	@Test
+	void rewrittenBatch() {
+		var recorder = new StatementRecorder();
+		var atomSql = recorder.newAtomSql(new TestDatabase.TestConfigure() {
+
+			@Override
+			public boolean rewritesBatchedInserts() {
+				return true;
+			}
+
+			@Override
+			public int batchRewriteParameterLimit() {
+				return 6;
+			}
+		});
+		var proxy = atomSql.of(ItemProxy.class);
+		proxy.create();
+
+		var results = new ArrayList<Integer>();
+		atomSql.tryBatch(() -> {
+			for (var i = 1; i <= 5; i++) {
+				proxy.insertAtom(i, "n" + i, i * 100).update(results::add);
+			}
+		});
+
+		//プレースホルダ数の上限から二行ずつの文となり、端数の一行は書き換えずに実行される
+		var batches = recorder.statements(Kind.BATCH_UPDATE);
+		assertEquals(2, batches.size());
+
+		assertEquals("INSERT INTO item (id, name, price) VALUES (?, ?, ?), (?, ?, ?)", batches.get(0).sql());
+		assertEquals(2, batches.get(0).rows());
+		assertEquals(4, batches.get(0).batchBinds().size());
+
+		assertEquals("INSERT INTO item (id, name, price) VALUES (?, ?, ?)", batches.get(1).sql());
+		assertEquals(1, batches.get(1).rows());
+		assertEquals(1, batches.get(1).batchBinds().size());
+
+		assertEquals(List.of(1, 1, 1, 1, 1), results);
+		assertEquals(5, proxy.selectAll().size());
+		assertEquals(new Item(5, "n5", 500), proxy.selectAll().get(4));
+	}
+
+	@Test
+	void notRewrittenByDefault() {
+		var recorder = new StatementRecorder();
+		var atomSql = recorder.newAtomSql(new TestDatabase.TestConfigure());
+		var proxy = atomSql.of(ItemProxy.class);
+		proxy.create();
+
+		atomSql.tryBatch(() -> {
+			proxy.insertAtom(1, "a", 100).update();
+			proxy.insertAtom(2, "b", 200).update();
+		});
+
+		var batches = recorder.statements(Kind.BATCH_UPDATE);
+		assertEquals(1, batches.size());
+		assertEquals("INSERT INTO item (id, name, price) VALUES (?, ?, ?)", batches.get(0).sql());
+		assertEquals(2, batches.get(0).rows());
+	}
+}
@@ -0,0 +1,92 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class ParallelFlushTest {
+
+	private final List<String> threads = Collections.synchronizedList(new ArrayList<>());
+
+	private AtomSql newAtomSql() {
+		EndpointInterceptor interceptor = new EndpointInterceptor() {
+
+			@Override
+			public <R> R intercept(StatementDescriptor statement, Invocation<R> invocation) {
+				if (statement.kind() == StatementDescriptor.Kind.BATCH_UPDATE) threads.add(Thread.currentThread().getName());
+				return invocation.proceed();
+			}
+		};
+
+		return TestDatabase.newAtomSql(new TestDatabase.TestConfigure() {
+
+			@Override
+			public boolean usesQualifier() {
+				return true;
+			}
+
+			@Override
+			public int batchFlushParallelism() {
+				return 2;
+			}
+		}, new Endpoints(
+			new Endpoints.Entry(null, TestDatabase.newEndpoint(), true, List.of(interceptor)),
+			new Endpoints.Entry(SubItemProxy.NAME, TestDatabase.newEndpoint(), false, List.of(interceptor))));
+	}
+
+	@Test
+	void flushedInParallel() {
+		var atomSql = newAtomSql();
+		var main = atomSql.of(ItemProxy.class);
+		var sub = atomSql.of(SubItemProxy.class);
+		main.create();
+		sub.create();
+
+		var caller = Thread.currentThread().getName();
+		var results = new ArrayList<String>();
+		atomSql.tryBatch(() -> {
+			main.insertAtom(1, "a", 100).update(r -> results.add("main1"));
+			sub.insertAtom(1, "b", 100).update(r -> results.add("sub1"));
+			main.insertAtom(2, "c", 200).update(r -> results.add("main2"));
+			assertEquals(caller, Thread.currentThread().getName());
+		});
+
+		//実行は別スレッドでも、結果は呼び出し側のスレッドでEndpointの追加順に通知される
+		assertEquals(List.of("main1", "main2", "sub1"), results);
+		assertEquals(2, threads.size());
+		assertTrue(threads.stream().allMatch(t -> t.startsWith("atom-sql-batch-flush")), threads.toString());
+
+		assertEquals(List.of(new Item(1, "a", 100), new Item(2, "c", 200)), main.selectAll());
+		assertEquals(List.of(new Item(1, "b", 100)), sub.selectAll());
+	}
+
+	@Test
+	void failureDoesNotStopOtherEndpoint() {
+		var atomSql = newAtomSql();
+		var main = atomSql.of(ItemProxy.class);
+		var sub = atomSql.of(SubItemProxy.class);
+		main.create();
+		sub.create();
+		main.insertAtom(1, "a", 100).update();
+
+		var results = new ArrayList<String>();
+		assertThrows(AtomSqlException.class, () -> atomSql.tryBatch(() -> {
+			//主キーが重複するため失敗する
+			main.insertAtom(1, "x", 100).update(r -> results.add("main"));
+			sub.insertAtom(1, "b", 100).update(r -> results.add("sub"));
+		}));
+
+		//失敗していないEndpointの結果は通知される
+		assertEquals(List.of("sub"), results);
+		assertEquals(List.of(new Item(1, "b", 100)), sub.selectAll());
+	}
+}
@@ -0,0 +1,101 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class QueryMemoTest {
+
+	private final QueryMemo memo = new QueryMemo();
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	private List<String> get(String endpointName, String sql) {
+		return memo.get(endpointName, new InnerSql(sql), String.class, () -> List.of(sql + loads.incrementAndGet()));
+	}
+
+	@Test
+	void memoized() {
+		var first = get("e", "SELECT * FROM a");
+
+		assertEquals(first, get("e", "SELECT * FROM a"));
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void keyedByEndpointSqlAndResultClass() {
+		get("e", "SELECT * FROM a");
+		get("other", "SELECT * FROM a");
+		get("e", "SELECT * FROM b");
+		memo.get("e", new InnerSql("SELECT * FROM a"), Integer.class, () -> List.of(loads.incrementAndGet()));
+
+		assertEquals(4, loads.get());
+	}
+
+	@Test
+	void modifiedTable() {
+		get("e", "SELECT * FROM a");
+		get("e", "SELECT * FROM b");
+
+		memo.modified(new InnerSql("UPDATE a SET x = 1"));
+
+		get("e", "SELECT * FROM a");
+		get("e", "SELECT * FROM b");
+
+		//bを参照する結果は保持されたまま
+		assertEquals(3, loads.get());
+	}
+
+	@Test
+	void unknownModifiedTable() {
+		get("e", "SELECT * FROM a");
+		get("e", "SELECT * FROM b");
+
+		memo.modified(new InnerSql("CALL proc()"));
+
+		get("e", "SELECT * FROM a");
+		get("e", "SELECT * FROM b");
+
+		assertEquals(4, loads.get());
+	}
+
+	@Test
+	void unknownReferencedTable() {
+		get("e", "SELECT 1");
+
+		memo.modified(new InnerSql("UPDATE a SET x = 1"));
+
+		get("e", "SELECT 1");
+
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void modifiedWhileLoadingEmptyMemo() {
+		//保持した結果がない状態で、取得中に更新された場合
+		memo.get("e", new InnerSql("SELECT * FROM a"), String.class, () -> {
+			memo.modified(new InnerSql("UPDATE a SET x = 1"));
+			return List.of("stale");
+		});
+
+		assertEquals(List.of("SELECT * FROM a1"), get("e", "SELECT * FROM a"));
+	}
+
+	@Test
+	void modifiedWhileLoading() {
+		get("e", "SELECT * FROM b");
+
+		memo.get("e", new InnerSql("SELECT * FROM a"), String.class, () -> {
+			memo.modified(new InnerSql("UPDATE c SET x = 1"));
+			return List.of("stale");
+		});
+
+		assertEquals(List.of("SELECT * FROM a2"), get("e", "SELECT * FROM a"));
+	}
+}
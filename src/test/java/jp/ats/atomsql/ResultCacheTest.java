@@ -0,0 +1,217 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import jp.ats.atomsql.annotation.Cached;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class ResultCacheTest {
+
+	private final ResultCache cache = new ResultCache();
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Cached(ttlMillis = 600000)
+	void standard() {}
+
+	@Cached(ttlMillis = 600000, maxEntries = 2)
+	void small() {}
+
+	@Cached(ttlMillis = 0)
+	void expired() {}
+
+	private static Method method(String name) {
+		try {
+			return ResultCacheTest.class.getDeclaredMethod(name);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private String get(String methodName, String endpointName, String sql) {
+		var method = method(methodName);
+		return cache.get(method, method.getAnnotation(Cached.class), endpointName, new InnerSql(sql), () -> sql + loads.incrementAndGet());
+	}
+
+	@Test
+	void cached() {
+		var first = get("standard", "e", "SELECT * FROM a");
+
+		assertEquals(first, get("standard", "e", "SELECT * FROM a"));
+		assertEquals(1, loads.get());
+
+		get("standard", "other", "SELECT * FROM a");
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void expiredEntry() {
+		get("expired", "e", "SELECT * FROM a");
+		get("expired", "e", "SELECT * FROM a");
+
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void leastRecentlyUsed() {
+		get("small", "e1", "SELECT * FROM a");
+		get("small", "e2", "SELECT * FROM a");
+
+		//e1を使用したので、e2が最も長く使用されていないものとなる
+		get("small", "e1", "SELECT * FROM a");
+		get("small", "e3", "SELECT * FROM a");
+		assertEquals(3, loads.get());
+
+		get("small", "e1", "SELECT * FROM a");
+		get("small", "e3", "SELECT * FROM a");
+		assertEquals(3, loads.get());
+
+		get("small", "e2", "SELECT * FROM a");
+		assertEquals(4, loads.get());
+	}
+
+	@Test
+	void modified() {
+		get("standard", "e", "SELECT * FROM a");
+		get("small", "e", "SELECT * FROM b");
+
+		cache.modified(new InnerSql("DELETE FROM a"));
+
+		get("standard", "e", "SELECT * FROM a");
+		get("small", "e", "SELECT * FROM b");
+
+		//bを参照するキャッシュは破棄されない
+		assertEquals(3, loads.get());
+	}
+
+	@Test
+	void unknownModifiedTable() {
+		get("standard", "e", "SELECT * FROM a");
+		get("small", "e", "SELECT * FROM b");
+
+		cache.modified(new InnerSql("CALL proc()"));
+
+		get("standard", "e", "SELECT * FROM a");
+		get("small", "e", "SELECT * FROM b");
+
+		assertEquals(4, loads.get());
+	}
+
+	@Test
+	void invalidate() {
+		get("standard", "e", "SELECT * FROM a JOIN b ON a.id = b.id");
+
+		cache.invalidate(Set.of("c"));
+		get("standard", "e", "SELECT * FROM a JOIN b ON a.id = b.id");
+		assertEquals(1, loads.get());
+
+		cache.invalidate(Set.of("b"));
+		get("standard", "e", "SELECT * FROM a JOIN b ON a.id = b.id");
+		assertEquals(2, loads.get());
+
+		cache.clear();
+		get("standard", "e", "SELECT * FROM a JOIN b ON a.id = b.id");
+		assertEquals(3, loads.get());
+	}
+
+	@Test
+	void modifiedWhileLoading() {
+		var method = method("standard");
+		cache.get(method, method.getAnnotation(Cached.class), "e", new InnerSql("SELECT * FROM a"), () -> {
+			cache.modified(new InnerSql("UPDATE a SET x = 1"));
+			return "stale";
+		});
+
+		//取得中に破棄された結果はキャッシュされない
+		assertEquals("SELECT * FROM a1", get("standard", "e", "SELECT * FROM a"));
+	}
+
+	@Test
+	void pending() {
+		get("standard", "e", "SELECT * FROM a");
+		get("small", "e", "SELECT * FROM b");
+
+		var pending = cache.new Pending();
+		pending.modified(new InnerSql("UPDATE a SET x = 1"));
+
+		//蓄積のみで、破棄は行われない
+		get("standard", "e", "SELECT * FROM a");
+		assertEquals(2, loads.get());
+
+		pending.flush();
+
+		get("standard", "e", "SELECT * FROM a");
+		get("small", "e", "SELECT * FROM b");
+		assertEquals(3, loads.get());
+
+		//蓄積は空になっている
+		pending.flush();
+		get("standard", "e", "SELECT * FROM a");
+		assertEquals(3, loads.get());
+	}
+
+	@Test
+	void pendingUnknownTable() {
+		get("standard", "e", "SELECT * FROM a");
+		get("small", "e", "SELECT * FROM b");
+
+		var pending = cache.new Pending();
+		pending.modified(new InnerSql("CALL proc()"));
+		pending.modified(new InnerSql("UPDATE a SET x = 1"));
+		pending.flush();
+
+		get("standard", "e", "SELECT * FROM a");
+		get("small", "e", "SELECT * FROM b");
+		assertEquals(4, loads.get());
+	}
+
+	@Test
+	void concurrentAccess() throws Exception {
+		var executor = Executors.newFixedThreadPool(8);
+		try {
+			var tasks = new ArrayList<Callable<Void>>();
+			for (var t = 0; t < 8; t++) {
+				tasks.add(() -> {
+					for (var i = 0; i < 500; i++) {
+						var endpointName = "e" + i % 100;
+						var value = get("standard", endpointName, "SELECT * FROM a");
+
+						//区画に分割されても、キーに対応する結果が返される
+						//同じキーを他のスレッドが同時に取得し置き換えることがあるので、同一性までは検査しない
+						if (!value.startsWith("SELECT * FROM a")) throw new AssertionError(value);
+
+						var again = get("standard", endpointName, "SELECT * FROM a");
+						if (!again.startsWith("SELECT * FROM a")) throw new AssertionError(again);
+					}
+
+					return null;
+				});
+			}
+
+			for (var future : executor.invokeAll(tasks)) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		//最大件数以内のキーはすべて保持される
+		var loaded = loads.get();
+		for (var i = 0; i < 100; i++) {
+			get("standard", "e" + i, "SELECT * FROM a");
+		}
+
+		assertEquals(loaded, loads.get());
+	}
+}
@@ -0,0 +1,261 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class RowPublisherTest {
+
+	private final AtomicInteger queries = new AtomicInteger();
+
+	private final AtomicBoolean closed = new AtomicBoolean();
+
+	/**
+	 * 通知を呼び出したスレッドで行い、結果を決定的にする
+	 */
+	private final RowPublisher<Integer> publisher = new RowPublisher<>(() -> {
+		queries.incrementAndGet();
+		return Stream.of(1, 2, 3).onClose(() -> closed.set(true));
+	}, Runnable::run);
+
+	@Test
+	void noQueryWithoutDemand() {
+		var subscriber = new Recorder();
+		publisher.subscribe(subscriber);
+
+		assertEquals(0, queries.get());
+		assertTrue(subscriber.items.isEmpty());
+	}
+
+	@Test
+	void emitsOnlyRequested() {
+		var subscriber = new Recorder();
+		publisher.subscribe(subscriber);
+
+		subscriber.subscription.request(1);
+		assertEquals(List.of(1), subscriber.items);
+
+		subscriber.subscription.request(1);
+		assertEquals(List.of(1, 2), subscriber.items);
+
+		assertEquals(1, queries.get());
+		assertFalse(subscriber.completed);
+		assertFalse(closed.get());
+	}
+
+	@Test
+	void completes() {
+		var subscriber = new Recorder();
+		publisher.subscribe(subscriber);
+
+		subscriber.subscription.request(Long.MAX_VALUE);
+		//加算で溢れても上限で止まる
+		subscriber.subscription.request(Long.MAX_VALUE);
+
+		assertEquals(List.of(1, 2, 3), subscriber.items);
+		assertTrue(subscriber.completed);
+		assertNull(subscriber.error);
+		assertTrue(closed.get());
+	}
+
+	@Test
+	void requestFromOnNext() {
+		var subscriber = new Recorder() {
+
+			@Override
+			public void onNext(Integer item) {
+				super.onNext(item);
+				subscription.request(1);
+			}
+		};
+		publisher.subscribe(subscriber);
+
+		subscriber.subscription.request(1);
+
+		assertEquals(List.of(1, 2, 3), subscriber.items);
+		assertTrue(subscriber.completed);
+		assertTrue(closed.get());
+	}
+
+	@Test
+	void cancel() {
+		var subscriber = new Recorder();
+		publisher.subscribe(subscriber);
+
+		subscriber.subscription.request(1);
+		subscriber.subscription.cancel();
+		subscriber.subscription.request(1);
+
+		assertEquals(List.of(1), subscriber.items);
+		assertFalse(subscriber.completed);
+		assertNull(subscriber.error);
+		assertTrue(closed.get());
+	}
+
+	@Test
+	void cancelFromOnNext() {
+		var subscriber = new Recorder() {
+
+			@Override
+			public void onNext(Integer item) {
+				super.onNext(item);
+				subscription.cancel();
+			}
+		};
+		publisher.subscribe(subscriber);
+
+		subscriber.subscription.request(Long.MAX_VALUE);
+
+		assertEquals(List.of(1), subscriber.items);
+		assertFalse(subscriber.completed);
+		assertTrue(closed.get());
+	}
+
+	@Test
+	void cancelBeforeRequest() {
+		var subscriber = new Recorder();
+		publisher.subscribe(subscriber);
+
+		subscriber.subscription.cancel();
+		subscriber.subscription.request(1);
+
+		assertEquals(0, queries.get());
+		assertTrue(subscriber.items.isEmpty());
+	}
+
+	@Test
+	void nonPositiveRequest() {
+		var subscriber = new Recorder();
+		publisher.subscribe(subscriber);
+
+		subscriber.subscription.request(1);
+		subscriber.subscription.request(0);
+
+		assertEquals(List.of(1), subscriber.items);
+		assertInstanceOf(IllegalArgumentException.class, subscriber.error);
+		assertTrue(closed.get());
+
+		subscriber.subscription.request(1);
+		assertEquals(List.of(1), subscriber.items);
+	}
+
+	@Test
+	void queryError() {
+		var error = new AtomSqlException(new SQLException());
+		var failing = new RowPublisher<Integer>(() -> {
+			throw error;
+		}, Runnable::run);
+
+		var subscriber = new Recorder();
+		failing.subscribe(subscriber);
+		subscriber.subscription.request(1);
+
+		assertEquals(error, subscriber.error);
+		assertFalse(subscriber.completed);
+	}
+
+	@Test
+	void resubscribe() {
+		var first = new Recorder();
+		publisher.subscribe(first);
+		first.subscription.request(Long.MAX_VALUE);
+
+		var second = new Recorder();
+		publisher.subscribe(second);
+		second.subscription.request(Long.MAX_VALUE);
+
+		//購読ごとに検索を実行する
+		assertEquals(2, queries.get());
+		assertEquals(List.of(1, 2, 3), second.items);
+	}
+
+	@Test
+	void atom() throws Exception {
+		var proxy = TestDatabase.newAtomSql().of(ItemProxy.class);
+		proxy.create();
+		proxy.insertAtom(1, "a", 100).update();
+		proxy.insertAtom(2, "b", 200).update();
+
+		var done = new CountDownLatch(1);
+		var items = new ArrayList<Item>();
+		var caller = Thread.currentThread();
+		var threads = new ArrayList<Thread>();
+		proxy.selectWhere().put(w -> {}).publisher().subscribe(new Flow.Subscriber<Item>() {
+
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				subscription.request(Long.MAX_VALUE);
+			}
+
+			@Override
+			public void onNext(Item item) {
+				items.add(item);
+				threads.add(Thread.currentThread());
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+				done.countDown();
+			}
+
+			@Override
+			public void onComplete() {
+				done.countDown();
+			}
+		});
+
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+
+		//検索と通知は呼び出し元とは別のスレッドで行われる
+		assertEquals(List.of(new Item(1, "a", 100), new Item(2, "b", 200)), items);
+		assertFalse(threads.contains(caller));
+	}
+
+	private static class Recorder implements Flow.Subscriber<Integer> {
+
+		final List<Integer> items = new ArrayList<>();
+
+		Flow.Subscription subscription;
+
+		boolean completed;
+
+		Throwable error;
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+		}
+
+		@Override
+		public void onNext(Integer item) {
+			items.add(item);
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			error = throwable;
+		}
+
+		@Override
+		public void onComplete() {
+			completed = true;
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class ScopeTest {
+
+	private final Scope<String> inheritable = new Scope<>(true);
+
+	private final Scope<String> local = new Scope<>(false);
+
+	private ExecutorService executor;
+
+	@BeforeEach
+	void setUp() {
+		executor = Executors.newSingleThreadExecutor();
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void unbound() {
+		assertNull(inheritable.get());
+	}
+
+	@Test
+	void nested() {
+		var result = inheritable.call("outer", () -> {
+			assertEquals("outer", inheritable.get());
+
+			inheritable.run("inner", () -> assertEquals("inner", inheritable.get()));
+
+			//内側の処理範囲の終了後は外側の値に戻る
+			assertEquals("outer", inheritable.get());
+
+			return "result";
+		});
+
+		assertEquals("result", result);
+		assertNull(inheritable.get());
+	}
+
+	@Test
+	void restoredOnException() {
+		assertThrows(IllegalStateException.class, () -> inheritable.run("value", () -> {
+			throw new IllegalStateException();
+		}));
+
+		assertNull(inheritable.get());
+	}
+
+	@Test
+	void independentScopes() {
+		inheritable.run("a", () -> local.run("b", () -> {
+			assertEquals("a", inheritable.get());
+			assertEquals("b", local.get());
+		}));
+	}
+
+	@Test
+	void inheritRunnable() throws Exception {
+		var inherited = new AtomicReference<String>();
+		var notInherited = new AtomicReference<String>("not yet");
+
+		var task = inheritable.call("a", () -> local.call("b", () -> Scope.inherit(() -> {
+			inherited.set(inheritable.get());
+			notInherited.set(local.get());
+		})));
+
+		executor.submit(task).get();
+
+		assertEquals("a", inherited.get());
+		assertNull(notInherited.get());
+	}
+
+	@Test
+	void inheritCallable() throws Exception {
+		Callable<String> task = inheritable.call("a", () -> local.call("b", () -> Scope.inherit(() -> inheritable.get() + ":" + local.get())));
+
+		assertEquals("a:null", executor.submit(task).get());
+	}
+
+	@Test
+	void inheritSnapshot() throws Exception {
+		//引き継がれるのはinheritを呼び出した時点の値
+		var task = inheritable.call("before", () -> Scope.inherit((Callable<String>) inheritable::get));
+
+		assertEquals("before", inheritable.call("after", () -> {
+			try {
+				return task.call();
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		}));
+	}
+
+	@Test
+	void inheritRestoresThread() throws Exception {
+		inheritable.run("a", () -> {
+			try {
+				executor.submit(Scope.inherit(() -> {})).get();
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		});
+
+		//子タスクの終了後、実行スレッドに値を残さない
+		assertNull(executor.submit(inheritable::get).get());
+	}
+
+	@Test
+	void notInheritedWithoutInherit() throws Exception {
+		var future = inheritable.call("a", () -> executor.submit(inheritable::get));
+
+		assertNull(future.get());
+	}
+}
@@ -0,0 +1,18 @@
+package jp.ats.atomsql;
+
+import jp.ats.atomsql.annotation.Sql;
+import jp.ats.atomsql.annotation.SqlProxy;
+
+/**
+ * キーが自動生成されるテーブルを使用する、テスト用の{@link SqlProxy}
+ * @author 千葉 哲嗣
+ */
+@SqlProxy
+public interface SerialProxy {
+
+	@Sql("CREATE TABLE serial (id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, name VARCHAR(100))")
+	int create();
+
+	@Sql("INSERT INTO serial (name) VALUES (:name)")
+	Atom<?> insert(String name);
+}
@@ -0,0 +1,18 @@
+package jp.ats.atomsql;
+
+import jp.ats.atomsql.annotation.Sql;
+import jp.ats.atomsql.annotation.SqlProxy;
+
+/**
+ * 接続ごとのテーブルを使用し、同一の{@link java.sql.Connection}が使用されているかを確認する、テスト用の{@link SqlProxy}
+ * @author 千葉 哲嗣
+ */
+@SqlProxy
+public interface SessionProxy {
+
+	@Sql("CREATE LOCAL TEMPORARY TABLE session_temp (id INT)")
+	int create();
+
+	@Sql("INSERT INTO session_temp (id) VALUES (:id)")
+	int insert(int id);
+}
@@ -0,0 +1,55 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class SimpleConfigureTest {
+
+	@Test
+	void defaults() {
+		var pattern = Pattern.compile(".+");
+		var config = new SimpleConfigure(true, pattern, true, true, "type", 10);
+
+		assertEquals(true, config.enableLog());
+		assertEquals(pattern, config.logStackTracePattern());
+		assertEquals(true, config.ignoreNoSqlLog());
+		assertEquals(true, config.usesQualifier());
+		assertEquals("type", config.typeFactoryClass());
+		assertEquals(10, config.batchThreshold());
+
+		//追加された項目はConfigureのデフォルト値となる
+		Configure defaults = new TestDatabase.TestConfigure();
+		assertEquals(defaults.rewritesBatchedInserts(), config.rewritesBatchedInserts());
+		assertEquals(defaults.batchRewriteParameterLimit(), config.batchRewriteParameterLimit());
+		assertEquals(defaults.asyncBatchMaxInFlight(), config.asyncBatchMaxInFlight());
+		assertEquals(defaults.batchFlushParallelism(), config.batchFlushParallelism());
+		assertEquals(defaults.batchAdaptiveTargetMillis(), config.batchAdaptiveTargetMillis());
+		assertEquals(defaults.batchAdaptiveMinThreshold(), config.batchAdaptiveMinThreshold());
+		assertEquals(defaults.batchAdaptiveMaxThreshold(), config.batchAdaptiveMaxThreshold());
+		assertEquals(defaults.batchAdaptiveMaxBytes(), config.batchAdaptiveMaxBytes());
+		assertEquals(defaults.batchChunkSize(), config.batchChunkSize());
+		assertEquals(defaults.logStackTraceLimit(), config.logStackTraceLimit());
+		assertEquals(defaults.slowQueryThresholdMillis(), config.slowQueryThresholdMillis());
+		assertEquals(defaults.slowQuerySampleRate(), config.slowQuerySampleRate());
+		assertEquals(defaults.slowQueryEndpointThresholdMillis(), config.slowQueryEndpointThresholdMillis());
+		assertEquals(defaults.enableMetrics(), config.enableMetrics());
+		assertEquals(defaults.registersMetricsMBeans(), config.registersMetricsMBeans());
+		assertEquals(defaults.endpointInterceptorClasses(), config.endpointInterceptorClasses());
+		assertEquals(defaults.asyncExecutorClass(), config.asyncExecutorClass());
+	}
+
+	@Test
+	void stub() {
+		var stub = SimpleConfigure.stub();
+
+		assertEquals(false, stub.enableLog());
+		assertEquals(0, stub.batchThreshold());
+		assertEquals(2000, stub.batchRewriteParameterLimit());
+	}
+}
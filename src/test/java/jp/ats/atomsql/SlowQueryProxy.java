@@ -0,0 +1,25 @@
+package jp.ats.atomsql;
+
+import java.util.List;
+
+import jp.ats.atomsql.annotation.Sql;
+import jp.ats.atomsql.annotation.SqlProxy;
+import jp.ats.atomsql.annotation.SlowQueryThreshold;
+
+/**
+ * {@link SlowQueryThreshold}を使用する、テスト用の{@link SqlProxy}
+ * @author 千葉 哲嗣
+ */
+@SqlProxy
+public interface SlowQueryProxy {
+
+	@Sql("CREATE TABLE item (id INT PRIMARY KEY, name VARCHAR(100), price INT)")
+	int create();
+
+	@Sql("SELECT * FROM item ORDER BY id")
+	List<Item> selectAll();
+
+	@SlowQueryThreshold(0)
+	@Sql("SELECT * FROM item WHERE price >= 0 ORDER BY id")
+	List<Item> selectAllAlwaysSlow();
+}
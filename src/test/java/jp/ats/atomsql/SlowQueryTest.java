@@ -0,0 +1,130 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class SlowQueryTest {
+
+	private static class SlowQueryConfigure extends TestDatabase.TestConfigure {
+
+		@Override
+		public boolean enableLog() {
+			return true;
+		}
+
+		@Override
+		public long slowQueryThresholdMillis() {
+			return 60000;
+		}
+	}
+
+	private static SlowQueryProxy newProxy(Configure config) {
+		var proxy = TestDatabase.newAtomSql(config, new Endpoints(TestDatabase.newEndpoint())).of(SlowQueryProxy.class);
+		proxy.create();
+		return proxy;
+	}
+
+	@Test
+	void onlySlowQueriesAreLogged() {
+		var proxy = newProxy(new SlowQueryConfigure());
+
+		try (var log = new LogRecorder()) {
+			proxy.selectAll();
+			assertEquals(List.of(), log.messages());
+
+			//メソッドごとの閾値は、呼び出しのたびに適用される
+			for (var i = 0; i < 2; i++) {
+				proxy.selectAllAlwaysSlow();
+				proxy.selectAll();
+			}
+
+			var text = log.text();
+			assertEquals(2, log.messages().stream().filter(m -> m.equals("------ SLOW SQL ------")).count(), text);
+			assertTrue(text.contains("price >= 0"), text);
+			assertTrue(!text.contains("FROM item ORDER BY"), text);
+		}
+	}
+
+	@Test
+	void sampled() {
+		var proxy = newProxy(new SlowQueryConfigure() {
+
+			@Override
+			public double slowQuerySampleRate() {
+				return 1;
+			}
+		});
+
+		try (var log = new LogRecorder()) {
+			proxy.selectAll();
+			assertTrue(log.messages().contains("------ SAMPLED SQL ------"), log.text());
+		}
+	}
+
+	@Test
+	void endpointThreshold() {
+		var atomSql = TestDatabase.newAtomSql(new SlowQueryConfigure() {
+
+			@Override
+			public boolean usesQualifier() {
+				return true;
+			}
+
+			@Override
+			public Map<String, Long> slowQueryEndpointThresholdMillis() {
+				return Map.of(SubItemProxy.NAME, 0L);
+			}
+		}, new Endpoints(
+			new Endpoints.Entry(null, TestDatabase.newEndpoint(), true, List.of()),
+			new Endpoints.Entry(SubItemProxy.NAME, TestDatabase.newEndpoint(), false, List.of())));
+
+		var main = atomSql.of(SlowQueryProxy.class);
+		var sub = atomSql.of(SubItemProxy.class);
+		main.create();
+		sub.create();
+
+		try (var log = new LogRecorder()) {
+			main.selectAll();
+			assertEquals(List.of(), log.messages());
+
+			sub.selectAll();
+			assertTrue(log.messages().contains("------ SLOW SQL ------"), log.text());
+			assertTrue(log.messages().contains("name: " + SubItemProxy.NAME), log.text());
+		}
+	}
+
+	@Test
+	void refreshDiscardsMethodLoggers() {
+		var atomSql = TestDatabase.newAtomSql(new SlowQueryConfigure(), new Endpoints(TestDatabase.newEndpoint()));
+		var proxy = atomSql.of(SlowQueryProxy.class);
+		proxy.create();
+
+		try (var log = new LogRecorder()) {
+			proxy.selectAll();
+			assertEquals(List.of(), log.messages());
+
+			AtomSql.reinitialize(new TestDatabase.TestConfigure() {
+
+				@Override
+				public boolean enableLog() {
+					return true;
+				}
+			});
+			atomSql.refresh();
+
+			//スロークエリのみの出力ではなくなる
+			proxy.selectAll();
+			assertTrue(log.messages().contains("------ SQL START ------"), log.text());
+		} finally {
+			AtomSql.reinitialize(new TestDatabase.TestConfigure());
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class SqlLoggerTest {
+
+	private static Configure logging(int stackTraceLimit) {
+		return new TestDatabase.TestConfigure() {
+
+			@Override
+			public boolean enableLog() {
+				return true;
+			}
+
+			@Override
+			public int logStackTraceLimit() {
+				return stackTraceLimit;
+			}
+		};
+	}
+
+	@Test
+	void disabled() {
+		var logger = SqlLogger.instance(new TestDatabase.TestConfigure());
+		assertSame(SqlLogger.disabled, logger);
+
+		//呼び出し元の取得を行わない
+		assertTrue(logger.stackTrace().isEmpty());
+		assertTrue(logger.callSite().isEmpty());
+
+		logger.perform(l -> {
+			throw new AssertionError();
+		});
+	}
+
+	@Test
+	void notLoggableLevel() {
+		var logger = SqlLogger.instance(logging(0));
+		var julLogger = Logger.getLogger(AtomSql.class.getName());
+		var level = julLogger.getLevel();
+		julLogger.setLevel(Level.WARNING);
+		try {
+			//ログレベルにより出力されない場合、呼び出し元の取得もメッセージの組み立ても行わない
+			assertTrue(logger.stackTrace().isEmpty());
+			logger.perform(l -> {
+				throw new AssertionError();
+			});
+		} finally {
+			julLogger.setLevel(level);
+		}
+	}
+
+	@Test
+	void callerFrames() {
+		var all = SqlLogger.callerFrames(Pattern.compile(".+"), 0);
+
+		//Atom SQL自身と、java.で始まるモジュールのものは含まない
+		assertTrue(all.length > 0);
+		assertTrue(
+			Stream.of(all).noneMatch(e -> e.getClassName().startsWith("jp.ats.atomsql.") || e.getClassName().startsWith("java.")),
+			List.of(all).toString());
+
+		assertEquals(1, SqlLogger.callerFrames(Pattern.compile(".+"), 1).length);
+
+		var junit = SqlLogger.callerFrames(Pattern.compile("^org\\.junit\\."), 0);
+		assertTrue(junit.length > 0);
+		assertTrue(Stream.of(junit).allMatch(e -> e.getClassName().startsWith("org.junit.")));
+	}
+
+	@Test
+	void limitedStackTraceInLog() {
+		var atomSql = TestDatabase.newAtomSql(logging(1), new Endpoints(TestDatabase.newEndpoint()));
+		var proxy = atomSql.of(ItemProxy.class);
+		proxy.create();
+
+		try (var log = new LogRecorder()) {
+			proxy.selectAll();
+
+			assertTrue(log.text().contains("SELECT * FROM item"), log.text());
+
+			var frames = log.messages().stream().filter(m -> m.startsWith(" ")).toList();
+			assertEquals(1, frames.size(), log.text());
+		}
+	}
+}
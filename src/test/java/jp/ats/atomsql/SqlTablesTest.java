@@ -0,0 +1,79 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class SqlTablesTest {
+
+	@Test
+	void referenced() {
+		assertEquals(Set.of("a"), SqlTables.referenced("SELECT * FROM a WHERE x = ?"));
+		assertEquals(Set.of("a", "b", "c"), SqlTables.referenced("SELECT * FROM a, b AS y, c z WHERE x = ?"));
+		assertEquals(Set.of("a", "b", "c"), SqlTables.referenced("SELECT * FROM a JOIN b ON a.id = b.id LEFT OUTER JOIN c USING (id)"));
+	}
+
+	@Test
+	void referencedInSubquery() {
+		assertEquals(Set.of("a", "b"), SqlTables.referenced("SELECT * FROM (SELECT * FROM a) x WHERE EXISTS (SELECT 1 FROM b)"));
+	}
+
+	@Test
+	void referencedByUpdate() {
+		assertEquals(Set.of("a", "b"), SqlTables.referenced("INSERT INTO a (x) SELECT x FROM b"));
+		assertEquals(Set.of("a"), SqlTables.referenced("UPDATE a SET x = ?"));
+	}
+
+	@Test
+	void qualifiedAndQuoted() {
+		assertEquals(Set.of("t"), SqlTables.referenced("SELECT * FROM schema.T"));
+		assertEquals(Set.of("my table"), SqlTables.referenced("SELECT * FROM \"Schema\" . \"My Table\""));
+		assertEquals(Set.of("t"), SqlTables.referenced("SELECT * FROM `db`.`t`"));
+		assertEquals(Set.of("t"), SqlTables.referenced("SELECT * FROM [dbo].[T]"));
+	}
+
+	@Test
+	void commentsAndLiterals() {
+		assertEquals(Set.of("a"), SqlTables.referenced("SELECT * /* FROM x */ FROM a -- JOIN y"));
+		assertEquals(Set.of("a"), SqlTables.referenced("SELECT 'FROM x', 'it''s JOIN y' FROM a"));
+	}
+
+	@Test
+	void referencedFallback() {
+		assertNull(SqlTables.referenced(""));
+		assertNull(SqlTables.referenced("SELECT 1"));
+		assertNull(SqlTables.referenced("SELECT * FROM (VALUES (1)) t"));
+		assertNull(SqlTables.referenced("CALL proc(?)"));
+	}
+
+	@Test
+	void modified() {
+		assertEquals(Set.of("a"), SqlTables.modified("INSERT INTO s.a (x) VALUES (?)"));
+		assertEquals(Set.of("a"), SqlTables.modified("update A set x = ?"));
+		assertEquals(Set.of("a"), SqlTables.modified("DELETE FROM a WHERE x = ?"));
+		assertEquals(Set.of("a"), SqlTables.modified("MERGE INTO a USING b ON a.id = b.id"));
+		assertEquals(Set.of("a"), SqlTables.modified("TRUNCATE TABLE a"));
+		assertEquals(Set.of("a"), SqlTables.modified("TRUNCATE a"));
+		assertEquals(Set.of("a"), SqlTables.modified("CREATE TABLE IF NOT EXISTS a (x INT)"));
+		assertEquals(Set.of("a"), SqlTables.modified("DROP TABLE IF EXISTS a"));
+		assertEquals(Set.of("a"), SqlTables.modified("ALTER TABLE a ADD y INT"));
+	}
+
+	@Test
+	void modifiedFallback() {
+		assertNull(SqlTables.modified(""));
+		assertNull(SqlTables.modified("/* comment only */"));
+		assertNull(SqlTables.modified("WITH x AS (SELECT 1) UPDATE a SET y = 1"));
+		assertNull(SqlTables.modified("INSERT a VALUES (?)"));
+		assertNull(SqlTables.modified("DELETE a"));
+		assertNull(SqlTables.modified("CREATE INDEX i ON a (x)"));
+		assertNull(SqlTables.modified("CALL proc(?)"));
+		assertNull(SqlTables.modified("UPDATE (SELECT * FROM a) SET x = 1"));
+	}
+}
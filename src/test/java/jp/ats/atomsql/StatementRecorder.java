@@ -0,0 +1,48 @@
+package jp.ats.atomsql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import jp.ats.atomsql.StatementDescriptor.Kind;
+
+/**
+ * {@link Endpoint}に渡された文を記録する{@link EndpointInterceptor}です。
+ * @author 千葉 哲嗣
+ */
+final class StatementRecorder implements EndpointInterceptor {
+
+	private final List<StatementDescriptor> statements = Collections.synchronizedList(new ArrayList<>());
+
+	/**
+	 * 新しいデータベースを使用し、文を記録する{@link AtomSql}を生成する
+	 * @param config 設定
+	 * @return {@link AtomSql}
+	 */
+	AtomSql newAtomSql(Configure config) {
+		return TestDatabase.newAtomSql(config, new Endpoints(new Endpoints.Entry(null, TestDatabase.newEndpoint(), true, List.of(this))));
+	}
+
+	@Override
+	public <R> R intercept(StatementDescriptor statement, Invocation<R> invocation) {
+		statements.add(statement);
+		return invocation.proceed();
+	}
+
+	/**
+	 * @param kind 処理の種類
+	 * @return 記録された文のうち、kindのもの
+	 */
+	List<StatementDescriptor> statements(Kind kind) {
+		synchronized (statements) {
+			return statements.stream().filter(s -> s.kind() == kind).toList();
+		}
+	}
+
+	/**
+	 * 記録を破棄する
+	 */
+	void clear() {
+		statements.clear();
+	}
+}
@@ -0,0 +1,30 @@
+package jp.ats.atomsql;
+
+import java.util.List;
+
+import jp.ats.atomsql.annotation.Qualifier;
+import jp.ats.atomsql.annotation.Sql;
+import jp.ats.atomsql.annotation.SqlProxy;
+
+/**
+ * プライマリではない{@link Endpoint}を使用する、テスト用の{@link SqlProxy}
+ * @author 千葉 哲嗣
+ */
+@SqlProxy
+@Qualifier(SubItemProxy.NAME)
+public interface SubItemProxy {
+
+	/**
+	 * 使用する{@link Endpoint}の名称
+	 */
+	static final String NAME = "sub";
+
+	@Sql("CREATE TABLE item (id INT PRIMARY KEY, name VARCHAR(100), price INT)")
+	int create();
+
+	@Sql("INSERT INTO item (id, name, price) VALUES (:id, :name, :price)")
+	Atom<?> insertAtom(int id, String name, int price);
+
+	@Sql("SELECT * FROM item ORDER BY id")
+	List<Item> selectAll();
+}
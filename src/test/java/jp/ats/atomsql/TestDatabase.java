@@ -0,0 +1,90 @@
+package jp.ats.atomsql;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * テスト用のH2インメモリデータベースと、それを使用する{@link AtomSql}を生成するクラスです。
+ * @author 千葉 哲嗣
+ */
+final class TestDatabase {
+
+	private static final AtomicInteger sequence = new AtomicInteger();
+
+	private TestDatabase() {}
+
+	/**
+	 * テストごとに独立した、新しいデータベースへの{@link Endpoint}を生成する
+	 * @return {@link Endpoint}
+	 */
+	static Endpoint newEndpoint() {
+		var url = "jdbc:h2:mem:test" + sequence.incrementAndGet() + ";DB_CLOSE_DELAY=-1";
+		return new JdbcEndpoint(() -> {
+			try {
+				return DriverManager.getConnection(url);
+			} catch (SQLException e) {
+				throw new AtomSqlException(e);
+			}
+		});
+	}
+
+	/**
+	 * 設定を適用した{@link AtomSql}を生成する<br>
+	 * {@link AtomSql}は生成時点の設定を保持するので、設定はテストごとに置き換える
+	 * @param config 設定
+	 * @param endpoints 接続先
+	 * @return {@link AtomSql}
+	 */
+	static synchronized AtomSql newAtomSql(Configure config, Endpoints endpoints) {
+		AtomSql.initializeIfUninitialized(config);
+		AtomSql.reinitialize(config);
+		return new AtomSql(endpoints);
+	}
+
+	/**
+	 * デフォルトの設定で、新しいデータベースを使用する{@link AtomSql}を生成する
+	 * @return {@link AtomSql}
+	 */
+	static AtomSql newAtomSql() {
+		return newAtomSql(new TestConfigure(), new Endpoints(newEndpoint()));
+	}
+
+	/**
+	 * 必須の項目のみを実装し、その他はデフォルト値を使用する設定<br>
+	 * テストごとに、必要な項目をオーバーライドして使用する
+	 */
+	static class TestConfigure implements Configure {
+
+		@Override
+		public boolean enableLog() {
+			return false;
+		}
+
+		@Override
+		public Pattern logStackTracePattern() {
+			return Pattern.compile(".+");
+		}
+
+		@Override
+		public boolean ignoreNoSqlLog() {
+			return false;
+		}
+
+		@Override
+		public boolean usesQualifier() {
+			return false;
+		}
+
+		@Override
+		public String typeFactoryClass() {
+			return null;
+		}
+
+		@Override
+		public int batchThreshold() {
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package jp.ats.atomsql;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author 千葉 哲嗣
+ */
+class UnfolderAccessorTest {
+
+	@Test
+	void generatedParametersUnfolder() {
+		var accessor = UnfolderAccessor.of(ItemParams.class);
+
+		assertSame(accessor, UnfolderAccessor.of(ItemParams.class));
+
+		assertArrayEquals(new String[] { "id", "name", "price" }, accessor.names);
+		assertArrayEquals(new String[] { "id", "name", "price" }, ItemParams.$names());
+		assertArrayEquals(new Class<?>[] { Integer.class, String.class, Integer.class }, accessor.types);
+
+		var params = assertInstanceOf(ItemParams.class, accessor.newInstance());
+		params.id = 1;
+		params.name = "a";
+		params.price = 100;
+
+		assertArrayEquals(new Object[] { 1, "a", 100 }, accessor.values(params));
+		assertArrayEquals(new Object[] { 1, "a", 100 }, ItemParams.$values(params));
+	}
+
+	@Test
+	void generatedAtomsUnfolder() {
+		var accessor = UnfolderAccessor.of(ItemWhere.class);
+
+		assertArrayEquals(new String[] { "where" }, accessor.names);
+		assertArrayEquals(new Class<?>[] { Atom.class }, accessor.types);
+
+		var where = assertInstanceOf(ItemWhere.class, accessor.newInstance());
+		assertArrayEquals(new Object[] { null }, accessor.values(where));
+	}
+
+	@Test
+	void generatedClassesInProxy() {
+		var proxy = TestDatabase.newAtomSql().of(ItemProxy.class);
+		proxy.create();
+
+		proxy.insert(p -> {
+			p.id = 1;
+			p.name = "a";
+			p.price = 100;
+		});
+		proxy.insert(p -> {
+			p.id = 2;
+			p.name = "b";
+			p.price = 200;
+		});
+
+		assertEquals(List.of(new Item(1, "a", 100), new Item(2, "b", 200)), proxy.selectAll());
+		assertEquals(List.of(new Item(2, "b", 200)), proxy.selectWhere().put(w -> w.where = proxy.priceAtLeast(150)).list());
+		assertEquals(2, proxy.selectWhere().put(w -> {}).list().size());
+	}
+
+	@Test
+	void legacyUnfolder() {
+		var accessor = UnfolderAccessor.of(Legacy.class);
+
+		assertArrayEquals(new String[] { "first", "second" }, accessor.names);
+		assertArrayEquals(new Class<?>[] { String.class, Integer.class }, accessor.types);
+
+		var legacy = (Legacy) accessor.newInstance();
+		legacy.first = "x";
+		legacy.second = 1;
+
+		assertArrayEquals(new Object[] { "x", 1 }, accessor.values(legacy));
+	}
+
+	@Test
+	void inaccessibleUnfolder() {
+		//publicLookupで参照できないクラスでも、リフレクションで代替される
+		var accessor = UnfolderAccessor.of(Inaccessible.class);
+
+		assertArrayEquals(new String[] { "value" }, accessor.names);
+
+		var inaccessible = (Inaccessible) accessor.newInstance();
+		inaccessible.value = "x";
+
+		assertArrayEquals(new Object[] { "x" }, accessor.values(inaccessible));
+	}
+
+	/**
+	 * アクセサを持たない、旧バージョンで生成されたクラス
+	 */
+	public static class Legacy {
+
+		public static final String IGNORED = "";
+
+		public String first;
+
+		public Integer second;
+	}
+
+	/**
+	 * publicでないため、publicLookupでは参照できないクラス
+	 */
+	static class Inaccessible {
+
+		public String value;
+
+		public Inaccessible() {}
+
+		public static String[] $names() {
+			return new String[] { "value" };
+		}
+
+		public static Object[] $values(Inaccessible unfolder) {
+			return new Object[] { unfolder.value };
+		}
+	}
+}